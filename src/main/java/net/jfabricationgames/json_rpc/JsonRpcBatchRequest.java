@@ -0,0 +1,47 @@
+package net.jfabricationgames.json_rpc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The body of a JSON-RPC call, that is either a single {@link JsonRpcRequest} or a batch (a JSON array) of requests.
+ */
+public class JsonRpcBatchRequest {
+	
+	private List<JsonRpcRequest> requests;
+	private boolean batch;
+	
+	public JsonRpcBatchRequest() {
+		requests = new ArrayList<JsonRpcRequest>();
+	}
+	
+	public JsonRpcBatchRequest(List<JsonRpcRequest> requests, boolean batch) {
+		this.requests = requests;
+		this.batch = batch;
+	}
+	
+	@Override
+	public String toString() {
+		return "JsonRpcBatchRequest [requests=" + requests + ", batch=" + batch + "]";
+	}
+	
+	/**
+	 * The requests of the batch (an entry is null if it's not a valid request object)
+	 */
+	public List<JsonRpcRequest> getRequests() {
+		return requests;
+	}
+	public void setRequests(List<JsonRpcRequest> requests) {
+		this.requests = requests;
+	}
+	
+	/**
+	 * Whether the requests were sent as a batch (a JSON array) or as a single request object.
+	 */
+	public boolean isBatch() {
+		return batch;
+	}
+	public void setBatch(boolean batch) {
+		this.batch = batch;
+	}
+}
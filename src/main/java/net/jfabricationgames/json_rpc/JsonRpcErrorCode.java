@@ -5,9 +5,14 @@ public enum JsonRpcErrorCode {
 	UNKNOWN_ERROR(-10000),//
 	LOGIN_ERROR(-10100),//
 	UNEXPECTED_PARAMETERS_ERROR(-11000),//
+	INVALID_REQUEST_ERROR(-11100),//
 	UNKNOWN_METHOD_ERROR(-12000),//
 	METHOD_INVOKE_ERROR(-12100),//
-	EXECUTION_ERROR(-13000);//
+	EXECUTION_ERROR(-13000),//
+	DATABASE_BUSY_ERROR(-13100),//
+	TRANSACTION_ROLLED_BACK_ERROR(-13200),//
+	SERVICE_OVERLOADED_ERROR(-13300),//
+	REQUEST_TIMEOUT_ERROR(-13400);//
 	
 	private final int code;
 	
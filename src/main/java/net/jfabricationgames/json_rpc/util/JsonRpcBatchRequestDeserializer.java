@@ -0,0 +1,65 @@
+package net.jfabricationgames.json_rpc.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.ResolvableDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import net.jfabricationgames.json_rpc.JsonRpcBatchRequest;
+import net.jfabricationgames.json_rpc.JsonRpcRequest;
+
+/**
+ * Deserializes a single {@link JsonRpcRequest} object or a JSON array of requests (a JSON-RPC 2.0 batch) to a {@link JsonRpcBatchRequest}.
+ * <p>
+ * Entries of a batch that are no JSON objects are added as null, so they can be answered with an error while the other entries are executed.
+ */
+public class JsonRpcBatchRequestDeserializer extends StdDeserializer<JsonRpcBatchRequest> implements ResolvableDeserializer {
+	
+	private static final long serialVersionUID = -2361503416842316409L;
+	
+	private transient JsonDeserializer<Object> requestDeserializer;
+	
+	public JsonRpcBatchRequestDeserializer() {
+		super(JsonRpcBatchRequest.class);
+	}
+	
+	@Override
+	public void resolve(DeserializationContext context) throws JsonMappingException {
+		//the deserializer of the requests (and of their params) is resolved with this deserializer instead of for every request
+		requestDeserializer = context.findRootValueDeserializer(context.constructType(JsonRpcRequest.class));
+	}
+	
+	@Override
+	public boolean isCachable() {
+		return true;
+	}
+	
+	@Override
+	public JsonRpcBatchRequest deserialize(JsonParser parser, DeserializationContext context) throws IOException, JsonProcessingException {
+		if (parser.getCurrentToken() == JsonToken.START_ARRAY) {
+			List<JsonRpcRequest> requests = new ArrayList<JsonRpcRequest>();
+			for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+				if (token == JsonToken.START_OBJECT) {
+					requests.add((JsonRpcRequest) requestDeserializer.deserialize(parser, context));
+				}
+				else {
+					parser.skipChildren();
+					requests.add(null);
+				}
+			}
+			return new JsonRpcBatchRequest(requests, true);
+		}
+		
+		JsonRpcRequest request = (JsonRpcRequest) requestDeserializer.deserialize(parser, context);
+		return new JsonRpcBatchRequest(Collections.singletonList(request), false);
+	}
+}
@@ -46,6 +46,16 @@ public abstract class JsonRpcErrorUtil {
 		return Response.status(Status.OK).entity(response).build();
 	}
 	
+	/**
+	 * Create a response that informs that the request (or an entry of a batch request) is not a valid JSON-RPC request
+	 */
+	public static Response createInvalidRequestErrorResponse(String id, Object data) {
+		JsonRpcErrorResponse response = createEmptyErrorResponse(id);
+		response.setError(new JsonRpcError(JsonRpcErrorCode.INVALID_REQUEST_ERROR, "Invalid request", data));
+		
+		return Response.status(Status.OK).entity(response).build();
+	}
+	
 	/**
 	 * Create a response that informs that the requested method (the method parameter in the request) is unknown
 	 */
@@ -75,6 +85,48 @@ public abstract class JsonRpcErrorUtil {
 		return Response.status(Status.OK).entity(response).build();
 	}
 	
+	/**
+	 * Create a response that informs that the request couldn't be executed because no database connection was available in time
+	 */
+	public static Response createDatabaseBusyErrorResponse(String id, String methodName) {
+		JsonRpcErrorResponse response = createEmptyErrorResponse(id);
+		response.setError(new JsonRpcError(JsonRpcErrorCode.DATABASE_BUSY_ERROR, "No database connection available; try again later", methodName));
+		
+		return Response.status(Status.OK).entity(response).build();
+	}
+	
+	/**
+	 * Create a response that informs that the request was part of a transaction that was rolled back (because another request of the
+	 * transaction failed)
+	 */
+	public static Response createTransactionRolledBackErrorResponse(String id, String methodName) {
+		JsonRpcErrorResponse response = createEmptyErrorResponse(id);
+		response.setError(new JsonRpcError(JsonRpcErrorCode.TRANSACTION_ROLLED_BACK_ERROR, "The transaction was rolled back", methodName));
+		
+		return Response.status(Status.OK).entity(response).build();
+	}
+	
+	/**
+	 * Create a response that informs that the request was rejected, because too many requests of the method are executed or waiting (the
+	 * request can be sent again later)
+	 */
+	public static Response createServiceOverloadedErrorResponse(String id, String methodName) {
+		JsonRpcErrorResponse response = createEmptyErrorResponse(id);
+		response.setError(new JsonRpcError(JsonRpcErrorCode.SERVICE_OVERLOADED_ERROR, "Too many requests; try again later", methodName));
+		
+		return Response.status(Status.OK).entity(response).build();
+	}
+	
+	/**
+	 * Create a response that informs that the request couldn't be answered within the timeout (a write request may still take effect)
+	 */
+	public static Response createRequestTimeoutErrorResponse(String id, String methodName) {
+		JsonRpcErrorResponse response = createEmptyErrorResponse(id);
+		response.setError(new JsonRpcError(JsonRpcErrorCode.REQUEST_TIMEOUT_ERROR, "The request timed out", methodName));
+		
+		return Response.status(Status.OK).entity(response).build();
+	}
+	
 	/**
 	 * Create an empty response with only an id and the default jsonRpc fields set
 	 */
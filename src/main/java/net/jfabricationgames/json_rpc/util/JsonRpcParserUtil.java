@@ -1,36 +1,80 @@
 package net.jfabricationgames.json_rpc.util;
 
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
+import net.jfabricationgames.json_rpc.JsonRpcBatchRequest;
+import net.jfabricationgames.json_rpc.JsonRpcRequest;
 import net.jfabricationgames.json_rpc.UnsupportedParameterException;
 
 public abstract class JsonRpcParserUtil {
 	
+	/**
+	 * The shared mappers (creating a mapper is expensive and the mappers are thread safe after the configuration)
+	 */
+	private static final ObjectMapper MAPPER = createObjectMapper();
+	private static final ObjectMapper MAPPER_WITHOUT_JAVA_TIME = new ObjectMapper();
+	
+	/**
+	 * Create a new mapper that uses the java time module for serializing and deserializing LocalDateTime
+	 */
+	public static ObjectMapper createObjectMapper() {
+		return new ObjectMapper().registerModule(new JavaTimeModule());
+	}
+	
+	/**
+	 * Create a mapper that deserializes the parameters of a {@link JsonRpcRequest} directly to the type of the called method (and that can
+	 * read a {@link JsonRpcBatchRequest} from a single request or a batch).
+	 *
+	 * The deserializers of the requests and of all parameter types are resolved when the mapper is created (instead of with the first
+	 * request).
+	 *
+	 * @param parameterTypes
+	 *        The types of the parameters of the methods (by the method names)
+	 */
+	public static ObjectMapper createJsonRpcObjectMapper(Map<String, Class<?>> parameterTypes) {
+		return createJsonRpcObjectMapper(new JsonFactory(), parameterTypes);
+	}
+	
+	/**
+	 * Create a mapper like {@link #createJsonRpcObjectMapper(Map)} that reads and writes the format of the given factory (e.g. a binary format
+	 * like Smile or CBOR).
+	 */
+	public static ObjectMapper createJsonRpcObjectMapper(JsonFactory factory, Map<String, Class<?>> parameterTypes) {
+		SimpleModule module = new SimpleModule("JsonRpcModule");
+		module.addDeserializer(JsonRpcRequest.class, new JsonRpcRequestDeserializer(parameterTypes));
+		module.addDeserializer(JsonRpcBatchRequest.class, new JsonRpcBatchRequestDeserializer());
+		ObjectMapper mapper = new ObjectMapper(factory).registerModule(new JavaTimeModule()).registerModule(module);
+		//resolves (and caches) the deserializer of the batches, that resolves the deserializers of the requests and their params
+		mapper.canDeserialize(mapper.constructType(JsonRpcBatchRequest.class));
+		return mapper;
+	}
+	
 	public static <T> T parseToType(Object obj, Class<T> clazz) throws UnsupportedParameterException {
 		return parseToType(obj, clazz, true);
 	}
 	
 	public static <T> T parseToType(Object obj, Class<T> clazz, boolean useJavaTimeModule) throws UnsupportedParameterException {
-		T parsed;
+		if (clazz != Object.class && clazz.isInstance(obj)) {
+			//the parameters were already deserialized to the expected type
+			return clazz.cast(obj);
+		}
 		
+		T parsed;
 		try {
-			ObjectMapper mapper = new ObjectMapper();
-			if (useJavaTimeModule) {
-				//register java time module for serializing and deserializing LocalDateTime
-				mapper.registerModule(new JavaTimeModule());
-			}
-			
-			//serialize parameters object to string
-			String parametersJson = mapper.writeValueAsString(obj);
+			ObjectMapper mapper = useJavaTimeModule ? MAPPER : MAPPER_WITHOUT_JAVA_TIME;
 			
-			//deserialize as clazz object
-			parsed = mapper.readValue(parametersJson, clazz);
+			//convert the parameters object without serializing it to a string
+			parsed = mapper.convertValue(obj, clazz);
 		}
 		catch (Exception e) {
-			throw new UnsupportedParameterException("Parsing a NoteSelector from the parameter object failed", e);
+			throw new UnsupportedParameterException("Parsing a " + clazz.getSimpleName() + " from the parameter object failed", e);
 		}
 		
 		return parsed;
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,175 @@
+package net.jfabricationgames.json_rpc.util;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.ResolvableDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import net.jfabricationgames.json_rpc.JsonRpcRequest;
+
+/**
+ * Deserializes a {@link JsonRpcRequest} and binds the params to the parameter type of the called method (so the params don't need to be
+ * deserialized to a map and converted again later).
+ * <p>
+ * If the method field precedes the params field (like in most requests), the params are bound directly from the parser. Otherwise they are
+ * buffered as tokens until the method is known. The deserializers of the parameter types are resolved once, when the deserializer is
+ * resolved by the mapper (see {@link JsonRpcParserUtil#createJsonRpcObjectMapper(Map)}).
+ * <p>
+ * The params of an unknown method are deserialized to a generic object (like before), so the request can be answered with the usual
+ * JSON-RPC error. Buffered params that can't be bound to the parameter type are also kept as a generic object; params that are bound directly
+ * are skipped if they can't be bound (the request is answered with the error for missing parameters then).
+ */
+public class JsonRpcRequestDeserializer extends StdDeserializer<JsonRpcRequest> implements ResolvableDeserializer {
+	
+	private static final long serialVersionUID = 6139834516512381147L;
+	
+	private final transient Map<String, Class<?>> parameterTypes;
+	private transient Map<String, JsonDeserializer<Object>> parameterDeserializers = Collections.emptyMap();
+	
+	/**
+	 * @param parameterTypes
+	 *        The parameter types of the methods (by the method names)
+	 */
+	public JsonRpcRequestDeserializer(Map<String, Class<?>> parameterTypes) {
+		super(JsonRpcRequest.class);
+		this.parameterTypes = parameterTypes;
+	}
+	
+	@Override
+	public void resolve(DeserializationContext context) throws JsonMappingException {
+		Map<String, JsonDeserializer<Object>> deserializers = new HashMap<String, JsonDeserializer<Object>>();
+		for (Map.Entry<String, Class<?>> parameterType : parameterTypes.entrySet()) {
+			try {
+				deserializers.put(parameterType.getKey(), context.findRootValueDeserializer(context.constructType(parameterType.getValue())));
+			}
+			catch (JsonMappingException jme) {
+				//the params of this method are deserialized to a generic object
+			}
+		}
+		parameterDeserializers = deserializers;
+	}
+	
+	@Override
+	public boolean isCachable() {
+		//the deserializer is resolved once per mapper (instead of for every request)
+		return true;
+	}
+	
+	@Override
+	public JsonRpcRequest deserialize(JsonParser parser, DeserializationContext context) throws IOException, JsonProcessingException {
+		JsonToken token = parser.getCurrentToken();
+		if (token == JsonToken.START_OBJECT) {
+			token = parser.nextToken();
+		}
+		
+		JsonRpcRequest request = new JsonRpcRequest();
+		TokenBuffer params = null;
+		for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+			String fieldName = parser.getCurrentName();
+			JsonStreamContext requestContext = parser.getParsingContext();
+			token = parser.nextToken();
+			switch (fieldName) {
+				case "jsonRpc":
+				case "jsonrpc":
+					request.setJsonRpc(readString(parser, token));
+					break;
+				case "method":
+					request.setMethod(readString(parser, token));
+					break;
+				case "id":
+					request.setId(readString(parser, token));
+					break;
+				case "params":
+					if (request.getMethod() != null) {
+						request.setParams(readParameters(parser, requestContext, request.getMethod(), context));
+					}
+					else {
+						params = new TokenBuffer(parser, context);
+						params.copyCurrentStructure(parser);
+					}
+					break;
+				default:
+					//unknown fields are ignored
+					parser.skipChildren();
+			}
+		}
+		if (token != JsonToken.END_OBJECT) {
+			return (JsonRpcRequest) context.handleUnexpectedToken(JsonRpcRequest.class, parser);
+		}
+		
+		if (params != null) {
+			request.setParams(bindParameters(parser, params, request.getMethod(), context));
+		}
+		return request;
+	}
+	
+	private String readString(JsonParser parser, JsonToken token) throws IOException {
+		if (token == JsonToken.VALUE_NULL) {
+			return null;
+		}
+		if (token.isScalarValue()) {
+			//the id can be a number or a string
+			return parser.getValueAsString();
+		}
+		parser.skipChildren();
+		return null;
+	}
+	
+	/**
+	 * Read the params from the parser (that is positioned at the first token of the params).
+	 *
+	 * @param requestContext
+	 *        The parsing context of the request object (the parser is moved back to it if the params can't be bound)
+	 */
+	private Object readParameters(JsonParser parser, JsonStreamContext requestContext, String method, DeserializationContext context)
+			throws IOException {
+		JsonDeserializer<Object> deserializer = parameterDeserializers.get(method);
+		if (deserializer == null) {
+			return context.readValue(parser, Object.class);
+		}
+		if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+			return null;
+		}
+		try {
+			return deserializer.deserialize(parser, context);
+		}
+		catch (JsonMappingException jme) {
+			//skip the rest of the params (the tokens were read by the deserializer, so they can't be kept as a generic object)
+			while (parser.getParsingContext() != requestContext) {
+				if (parser.nextToken() == null) {
+					throw jme;
+				}
+			}
+			return null;
+		}
+	}
+	
+	private Object bindParameters(JsonParser parser, TokenBuffer params, String method, DeserializationContext context) throws IOException {
+		JsonDeserializer<Object> deserializer = method == null ? null : parameterDeserializers.get(method);
+		if (deserializer != null) {
+			try (JsonParser paramsParser = params.asParser(parser.getCodec())) {
+				paramsParser.nextToken();
+				return deserializer.deserialize(paramsParser, context);
+			}
+			catch (JsonProcessingException jpe) {
+				//keep the generic parameters, so the error response can contain them
+			}
+		}
+		
+		try (JsonParser paramsParser = params.asParser(parser.getCodec())) {
+			paramsParser.nextToken();
+			return context.readValue(paramsParser, Object.class);
+		}
+	}
+}
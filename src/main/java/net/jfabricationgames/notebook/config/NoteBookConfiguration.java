@@ -0,0 +1,98 @@
+package net.jfabricationgames.notebook.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The (optional) configuration of the service, that is loaded from the file "notebook.properties" in the resources.
+ * <p>
+ * Every value has a default that is used if the file or the key is missing, so the service can run without any configuration.
+ *
+ * @author Tobias Faßbender
+ */
+public class NoteBookConfiguration {
+	
+	private static final Logger LOGGER = LogManager.getLogger(NoteBookConfiguration.class);
+	
+	public static final String RESOURCE_NAME = "notebook.properties";
+	
+	private static NoteBookConfiguration instance;
+	
+	private final Properties properties;
+	
+	/*private */NoteBookConfiguration(Properties properties) {
+		this.properties = properties;
+	}
+	
+	public static synchronized NoteBookConfiguration getInstance() {
+		if (instance == null) {
+			instance = new NoteBookConfiguration(loadProperties());
+		}
+		return instance;
+	}
+	
+	private static Properties loadProperties() {
+		ClassLoader loader = Thread.currentThread().getContextClassLoader();
+		Properties properties = new Properties();
+		try (InputStream resourceStream = loader.getResourceAsStream(RESOURCE_NAME)) {
+			if (resourceStream != null) {
+				properties.load(resourceStream);
+			}
+			else {
+				LOGGER.info("No " + RESOURCE_NAME + " found; using the default configuration");
+			}
+		}
+		catch (IOException ioe) {
+			LOGGER.error("The configuration couldn't be loaded; using the default configuration", ioe);
+		}
+		return properties;
+	}
+	
+	public String getString(String key, String defaultValue) {
+		String value = properties.getProperty(key);
+		if (value == null || value.trim().isEmpty()) {
+			return defaultValue;
+		}
+		return value.trim();
+	}
+	
+	public int getInt(String key, int defaultValue) {
+		String value = getString(key, null);
+		if (value == null) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(value);
+		}
+		catch (NumberFormatException nfe) {
+			LOGGER.warn("The configuration value of '" + key + "' is not a number (value: " + value + "); using the default: " + defaultValue);
+			return defaultValue;
+		}
+	}
+	
+	public long getLong(String key, long defaultValue) {
+		String value = getString(key, null);
+		if (value == null) {
+			return defaultValue;
+		}
+		try {
+			return Long.parseLong(value);
+		}
+		catch (NumberFormatException nfe) {
+			LOGGER.warn("The configuration value of '" + key + "' is not a number (value: " + value + "); using the default: " + defaultValue);
+			return defaultValue;
+		}
+	}
+	
+	public boolean getBoolean(String key, boolean defaultValue) {
+		String value = getString(key, null);
+		if (value == null) {
+			return defaultValue;
+		}
+		return Boolean.parseBoolean(value);
+	}
+}
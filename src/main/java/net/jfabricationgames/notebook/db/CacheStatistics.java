@@ -0,0 +1,86 @@
+package net.jfabricationgames.notebook.db;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * A snapshot of the statistics of a cache (hits, misses and evictions) as a bean that can be serialized to JSON.
+ *
+ * @author Tobias Faßbender
+ */
+public class CacheStatistics {
+	
+	private long size;
+	private long hitCount;
+	private long missCount;
+	private double hitRate;
+	private long evictionCount;
+	private long evictionWeight;
+	
+	public CacheStatistics() {
+		//default constructor for JSON serialization
+	}
+	
+	/**
+	 * Create a snapshot of the statistics of a caffeine cache (that records it's statistics).
+	 */
+	public static CacheStatistics of(Cache<?, ?> cache) {
+		CacheStats stats = cache.stats();
+		CacheStatistics statistics = new CacheStatistics();
+		statistics.setSize(cache.estimatedSize());
+		statistics.setHitCount(stats.hitCount());
+		statistics.setMissCount(stats.missCount());
+		statistics.setHitRate(stats.hitRate());
+		statistics.setEvictionCount(stats.evictionCount());
+		statistics.setEvictionWeight(stats.evictionWeight());
+		return statistics;
+	}
+	
+	@Override
+	public String toString() {
+		return "CacheStatistics [size=" + size + ", hitCount=" + hitCount + ", missCount=" + missCount + ", hitRate=" + hitRate
+				+ ", evictionCount=" + evictionCount + ", evictionWeight=" + evictionWeight + "]";
+	}
+	
+	public long getSize() {
+		return size;
+	}
+	public void setSize(long size) {
+		this.size = size;
+	}
+	
+	public long getHitCount() {
+		return hitCount;
+	}
+	public void setHitCount(long hitCount) {
+		this.hitCount = hitCount;
+	}
+	
+	public long getMissCount() {
+		return missCount;
+	}
+	public void setMissCount(long missCount) {
+		this.missCount = missCount;
+	}
+	
+	public double getHitRate() {
+		return hitRate;
+	}
+	public void setHitRate(double hitRate) {
+		this.hitRate = hitRate;
+	}
+	
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+	public void setEvictionCount(long evictionCount) {
+		this.evictionCount = evictionCount;
+	}
+	
+	public long getEvictionWeight() {
+		return evictionWeight;
+	}
+	public void setEvictionWeight(long evictionWeight) {
+		this.evictionWeight = evictionWeight;
+	}
+}
@@ -0,0 +1,175 @@
+package net.jfabricationgames.notebook.db;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+/**
+ * Collects the statistics of the connection pool (used connections, idle connections, waiting threads and the time it takes to borrow a
+ * connection from the pool) to make them available for monitoring.
+ *
+ * @author Tobias Faßbender
+ */
+public class ConnectionPoolStatistics implements MetricsTrackerFactory, IMetricsTracker {
+	
+	private PoolStats poolStats;
+	
+	private final LongAdder borrowCount = new LongAdder();
+	private final LongAdder borrowNanosTotal = new LongAdder();
+	private final AtomicLong borrowNanosMax = new AtomicLong();
+	private final LongAdder timeouts = new LongAdder();
+	private final LongAdder createdConnections = new LongAdder();
+	
+	@Override
+	public IMetricsTracker create(String poolName, PoolStats poolStats) {
+		this.poolStats = poolStats;
+		return this;
+	}
+	
+	@Override
+	public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+		borrowCount.increment();
+		borrowNanosTotal.add(elapsedAcquiredNanos);
+		borrowNanosMax.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+	}
+	
+	@Override
+	public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+		createdConnections.increment();
+	}
+	
+	@Override
+	public void recordConnectionTimeout() {
+		timeouts.increment();
+	}
+	
+	/**
+	 * Get a snapshot of the current statistics as a bean that can be serialized to JSON.
+	 */
+	public Snapshot getSnapshot() {
+		Snapshot snapshot = new Snapshot();
+		if (poolStats != null) {
+			snapshot.setActiveConnections(poolStats.getActiveConnections());
+			snapshot.setIdleConnections(poolStats.getIdleConnections());
+			snapshot.setTotalConnections(poolStats.getTotalConnections());
+			snapshot.setWaitingThreads(poolStats.getPendingThreads());
+			snapshot.setMinConnections(poolStats.getMinConnections());
+			snapshot.setMaxConnections(poolStats.getMaxConnections());
+		}
+		long count = borrowCount.sum();
+		snapshot.setBorrowCount(count);
+		snapshot.setBorrowTimeouts(timeouts.sum());
+		snapshot.setCreatedConnections(createdConnections.sum());
+		snapshot.setAverageBorrowMicros(count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(borrowNanosTotal.sum() / count));
+		snapshot.setMaxBorrowMicros(TimeUnit.NANOSECONDS.toMicros(borrowNanosMax.get()));
+		return snapshot;
+	}
+	
+	public static class Snapshot {
+		
+		private int activeConnections;
+		private int idleConnections;
+		private int totalConnections;
+		private int waitingThreads;
+		private int minConnections;
+		private int maxConnections;
+		private long borrowCount;
+		private long borrowTimeouts;
+		private long createdConnections;
+		private long averageBorrowMicros;
+		private long maxBorrowMicros;
+		
+		public Snapshot() {
+			//default constructor for JSON serialization
+		}
+		
+		@Override
+		public String toString() {
+			return "Snapshot [activeConnections=" + activeConnections + ", idleConnections=" + idleConnections + ", totalConnections="
+					+ totalConnections + ", waitingThreads=" + waitingThreads + ", minConnections=" + minConnections + ", maxConnections="
+					+ maxConnections + ", borrowCount=" + borrowCount + ", borrowTimeouts=" + borrowTimeouts + ", createdConnections="
+					+ createdConnections + ", averageBorrowMicros=" + averageBorrowMicros + ", maxBorrowMicros=" + maxBorrowMicros + "]";
+		}
+		
+		public int getActiveConnections() {
+			return activeConnections;
+		}
+		public void setActiveConnections(int activeConnections) {
+			this.activeConnections = activeConnections;
+		}
+		
+		public int getIdleConnections() {
+			return idleConnections;
+		}
+		public void setIdleConnections(int idleConnections) {
+			this.idleConnections = idleConnections;
+		}
+		
+		public int getTotalConnections() {
+			return totalConnections;
+		}
+		public void setTotalConnections(int totalConnections) {
+			this.totalConnections = totalConnections;
+		}
+		
+		public int getWaitingThreads() {
+			return waitingThreads;
+		}
+		public void setWaitingThreads(int waitingThreads) {
+			this.waitingThreads = waitingThreads;
+		}
+		
+		public int getMinConnections() {
+			return minConnections;
+		}
+		public void setMinConnections(int minConnections) {
+			this.minConnections = minConnections;
+		}
+		
+		public int getMaxConnections() {
+			return maxConnections;
+		}
+		public void setMaxConnections(int maxConnections) {
+			this.maxConnections = maxConnections;
+		}
+		
+		public long getBorrowCount() {
+			return borrowCount;
+		}
+		public void setBorrowCount(long borrowCount) {
+			this.borrowCount = borrowCount;
+		}
+		
+		public long getBorrowTimeouts() {
+			return borrowTimeouts;
+		}
+		public void setBorrowTimeouts(long borrowTimeouts) {
+			this.borrowTimeouts = borrowTimeouts;
+		}
+		
+		public long getCreatedConnections() {
+			return createdConnections;
+		}
+		public void setCreatedConnections(long createdConnections) {
+			this.createdConnections = createdConnections;
+		}
+		
+		public long getAverageBorrowMicros() {
+			return averageBorrowMicros;
+		}
+		public void setAverageBorrowMicros(long averageBorrowMicros) {
+			this.averageBorrowMicros = averageBorrowMicros;
+		}
+		
+		public long getMaxBorrowMicros() {
+			return maxBorrowMicros;
+		}
+		public void setMaxBorrowMicros(long maxBorrowMicros) {
+			this.maxBorrowMicros = maxBorrowMicros;
+		}
+	}
+}
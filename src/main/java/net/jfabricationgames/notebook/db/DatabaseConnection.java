@@ -2,17 +2,30 @@ package net.jfabricationgames.notebook.db;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.sql.DataSource;
@@ -21,10 +34,28 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.mysql.cj.jdbc.MysqlDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 
+import net.jfabricationgames.notebook.config.NoteBookConfiguration;
+import net.jfabricationgames.notebook.note.DueReminder;
 import net.jfabricationgames.notebook.note.Note;
+import net.jfabricationgames.notebook.note.NoteChangeRequest;
+import net.jfabricationgames.notebook.note.NoteChanges;
+import net.jfabricationgames.notebook.note.NoteCursor;
+import net.jfabricationgames.notebook.note.NotePage;
+import net.jfabricationgames.notebook.note.NotePatch;
+import net.jfabricationgames.notebook.note.NoteSearch;
+import net.jfabricationgames.notebook.note.NoteSearchHit;
+import net.jfabricationgames.notebook.note.NoteSearchMode;
+import net.jfabricationgames.notebook.note.NoteSearchPage;
 import net.jfabricationgames.notebook.note.NoteSelector;
+import net.jfabricationgames.notebook.note.NoteSelectorBuilder;
+import net.jfabricationgames.notebook.note.NoteSortKey;
 import net.jfabricationgames.notebook.note.NoteRelation;
+import net.jfabricationgames.notebook.note.ReminderRange;
+import net.jfabricationgames.notebook.search.IndexFingerprint;
+import net.jfabricationgames.notebook.search.NoteSearchIndex;
 
 /**
  * Create a connection to a database and add or get values of one specific table for testing.
@@ -50,6 +81,23 @@ public class DatabaseConnection {
 	public static final String TABLE_NOTES = "notes";
 	public static final String TABLE_EXECUTION_DATES = "execution_dates";
 	public static final String TABLE_REMINDER_DATES = "reminder_dates";
+	/**
+	 * The ids and revisions of the deleted notes (for the incremental synchronization of clients)
+	 */
+	public static final String TABLE_NOTE_TOMBSTONES = "note_tombstones";
+	/**
+	 * A single row with the last revision that was given to a note or tombstone
+	 */
+	public static final String TABLE_REVISION_COUNTER = "revision_counter";
+	/**
+	 * A temporary table (only visible for one connection) for large sets of ids that are used in a NoteSelector
+	 */
+	public static final String TABLE_SELECTOR_IDS = "selector_ids";
+	
+	/**
+	 * The maximum number of ids that are used in an IN list (more ids are inserted into a temporary table)
+	 */
+	public static final int MAX_IN_LIST_SIZE = 1024;
 	
 	/**
 	 * The passwords are loaded from a properties file "passwords.properties" which is not added to the git-repository (for obvious reasons)
@@ -65,17 +113,100 @@ public class DatabaseConnection {
 	
 	private static final boolean autoCommit = false;
 	
+	/**
+	 * The format in which mysql converts DATETIME values to strings (e.g. in GROUP_CONCAT)
+	 */
+	private static final DateTimeFormatter MYSQL_DATE_TIME_FORMAT = new DateTimeFormatterBuilder().appendPattern("yyyy-MM-dd HH:mm:ss")
+			.optionalStart().appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true).optionalEnd().toFormatter();
+	
+	/**
+	 * The maximum number of rows that are inserted with one batch
+	 */
+	private final int batchSize = Math.max(1, NoteBookConfiguration.getInstance().getInt("database.batchSize", 1000));
+	/**
+	 * The maximum number of changes that are returned by {@link #getChangesSince(NoteChangeRequest)}
+	 */
+	private final int maxChanges = Math.max(1, NoteBookConfiguration.getInstance().getInt("sync.maxChanges", 1000));
+	
 	private static DatabaseConnection instance;
 	
+	/**
+	 * The connection pool that is used for all queries (the physical connections are reused instead of opening a new one for every request)
+	 */
+	private HikariDataSource dataSource;
+	private final ConnectionPoolStatistics poolStatistics = new ConnectionPoolStatistics();
+	
+	/**
+	 * The connection of the transaction that is executed by the current thread (see {@link #executeInTransaction(DatabaseTransactionWork)})
+	 */
+	private final ThreadLocal<Connection> transactionConnection = new ThreadLocal<Connection>();
+	/**
+	 * The ids of the notes that were changed by the transaction of the current thread (the listeners are informed after the transaction)
+	 */
+	private final ThreadLocal<Map<Integer, NoteChangeType>> transactionChanges = new ThreadLocal<Map<Integer, NoteChangeType>>();
+	
+	private final NoteChangeListeners changeListeners = new NoteChangeListeners();
+	
+	/**
+	 * The cache for the notes that are selected by their ids (or null if the cache is disabled)
+	 */
+	private NoteCache noteCache;
+	/**
+	 * The cache for the results of queries (or null if the cache is disabled)
+	 */
+	private NoteQueryCache queryCache;
+	/**
+	 * All notes in memory, to answer the queries without accessing the database (or null if the store is disabled or failed)
+	 */
+	private volatile InMemoryNoteStore noteStore;
+	/**
+	 * The inverted index for the search in the texts of the notes (or null if the index is disabled or failed)
+	 */
+	private volatile NoteSearchIndex searchIndex;
+	/**
+	 * The reminder dates around the current time, to find the due reminders without a query (or null if the index is disabled)
+	 */
+	private ReminderIndex reminderIndex;
+	/**
+	 * The time before and after the current time for which the reminders are indexed
+	 */
+	private final Duration reminderWindow = Duration.ofDays(Math.max(1, NoteBookConfiguration.getInstance().getLong("reminders.index.windowDays", 7)));
+	
 	private DatabaseConnection() throws SQLException {
 		LOGGER.info("Creating DatabaseConnection; current version is " + VERSION);
 		try {
 			loadUserPassword();
 			createDatabaseIfNotExists();
-			createTableIfNotExists();
+			dataSource = createPooledDataSource();
+			migrateSchema();
+			
+			NoteBookConfiguration configuration = NoteBookConfiguration.getInstance();
+			if (configuration.getBoolean("cache.notes.enabled", true)) {
+				noteCache = new NoteCache(configuration);
+				addNoteChangeListener(noteCache);
+			}
+			if (configuration.getBoolean("cache.queries.enabled", true)) {
+				queryCache = new NoteQueryCache(configuration);
+				addNoteChangeListener(queryCache);
+			}
+			if (configuration.getBoolean("store.inMemory.enabled", false)) {
+				loadNoteStore();
+			}
+			if (configuration.getBoolean("reminders.index.enabled", true)) {
+				//the window of the index is loaded with the first request
+				reminderIndex = new ReminderIndex();
+				ReminderIndex index = reminderIndex;
+				addNoteChangeListener(ids -> reloadReminders(index, ids));
+			}
+			if (configuration.getBoolean("search.index.enabled", false)) {
+				loadSearchIndex(configuration);
+			}
 		}
 		catch (SQLException sqle) {
 			LOGGER.error("Error while creating the database resources", sqle);
+			if (dataSource != null) {
+				dataSource.close();
+			}
 			throw sqle;
 		}
 		catch (IOException ioe) {
@@ -91,6 +222,288 @@ public class DatabaseConnection {
 		return instance;
 	}
 	
+	/**
+	 * Close the connection pool (if it was created). A later call to {@link #getInstance()} creates a new pool.
+	 */
+	public static synchronized void shutdown() {
+		if (instance != null) {
+			LOGGER.info("Shutting down DatabaseConnection (closing the connection pool)");
+			//the index is read once, because it's removed if it couldn't be updated
+			NoteSearchIndex index = instance.searchIndex;
+			if (index != null) {
+				instance.saveSearchIndex(index);
+			}
+			instance.dataSource.close();
+			instance = null;
+		}
+	}
+	
+	/**
+	 * Get the current statistics of the connection pool (active and idle connections, waiting threads and borrow times).
+	 */
+	public ConnectionPoolStatistics.Snapshot getPoolStatistics() {
+		return poolStatistics.getSnapshot();
+	}
+	
+	/**
+	 * Load all notes into the {@link InMemoryNoteStore}, that is kept up to date by reloading the changed notes after every change.
+	 */
+	private void loadNoteStore() throws SQLException {
+		InMemoryNoteStore store = new InMemoryNoteStore();
+		readNotes(NoteSelector.empty(), null, true, store::put);
+		LOGGER.info("Loaded " + store.size() + " notes into the in-memory store");
+		
+		addNoteChangeListener(ids -> reloadStoredNotes(store, ids));
+		noteStore = store;
+	}
+	
+	/**
+	 * Read the changed notes from the database and replace them in the store. The notes are reloaded one change after another, so a change
+	 * can't be overwritten by the older state of a previous change.
+	 */
+	private void reloadStoredNotes(InMemoryNoteStore store, Set<Integer> ids) {
+		synchronized (store) {
+			try {
+				NoteSelector changedNotesSelector = new NoteSelectorBuilder().setIds(new ArrayList<Integer>(ids)).setIdRelation(NoteRelation.IN).build();
+				List<Note> changedNotes = new ArrayList<Note>(ids.size());
+				readNotes(changedNotesSelector, null, false, changedNotes::add);
+				store.replace(ids, changedNotes);
+			}
+			catch (SQLException sqle) {
+				//the store is outdated now, so the queries are answered by the database again
+				LOGGER.error("The changed notes couldn't be reloaded into the in-memory store; the store is disabled", sqle);
+				noteStore = null;
+			}
+		}
+	}
+	
+	private void reloadReminders(ReminderIndex index, Set<Integer> ids) {
+		synchronized (index) {
+			try {
+				if (!index.isLoaded()) {
+					return;
+				}
+				if (ids.size() > MAX_IN_LIST_SIZE) {
+					//too many changes to reload them one by one; the window is reloaded with the next request
+					index.clear();
+				}
+				else if (!ids.isEmpty()) {
+					index.replace(ids, readReminders(null, null, ids));
+				}
+			}
+			catch (SQLException sqle) {
+				LOGGER.error("The changed reminders couldn't be reloaded; the reminder window is reloaded with the next request", sqle);
+				index.clear();
+			}
+		}
+	}
+	
+	/**
+	 * Load the search index from it's segment file (if the file was written for the current notes) or index all notes.
+	 */
+	private void loadSearchIndex(NoteBookConfiguration configuration) throws SQLException {
+		Path directory = Paths.get(configuration.getString("search.index.directory", "search_index"));
+		NoteSearchIndex index = new NoteSearchIndex(directory, configuration.getInt("search.index.mergeDocuments", 100000));
+		boolean loaded;
+		try {
+			loaded = index.open(readIndexFingerprint());
+		}
+		catch (IOException ioe) {
+			LOGGER.warn("The search index couldn't be loaded from " + directory + "; the index is rebuilt", ioe);
+			loaded = false;
+		}
+		if (!loaded) {
+			readNotes(NoteSelector.empty(), null, true, index::update);
+		}
+		LOGGER.info((loaded ? "Loaded " : "Indexed ") + index.size() + " notes for the search index");
+		
+		addNoteChangeListener(ids -> reindexNotes(index, ids));
+		searchIndex = index;
+	}
+	
+	private void reindexNotes(NoteSearchIndex index, Set<Integer> ids) {
+		synchronized (index) {
+			try {
+				NoteSelector changedNotesSelector = new NoteSelectorBuilder().setIds(new ArrayList<Integer>(ids)).setIdRelation(NoteRelation.IN).build();
+				Set<Integer> deletedIds = new HashSet<Integer>(ids);
+				readNotes(changedNotesSelector, null, false, note -> {
+					deletedIds.remove(note.getId());
+					index.update(note);
+				});
+				deletedIds.forEach(index::delete);
+			}
+			catch (SQLException sqle) {
+				//the index is outdated now, so the searches are answered by the database again
+				LOGGER.error("The changed notes couldn't be added to the search index; the index is disabled", sqle);
+				searchIndex = null;
+			}
+		}
+	}
+	
+	/**
+	 * Write the search index to it's segment file, so it can be loaded after a restart (if the notes are not changed in the meantime).
+	 */
+	private void saveSearchIndex(NoteSearchIndex index) {
+		synchronized (index) {
+			try {
+				index.save(readIndexFingerprint());
+			}
+			catch (SQLException | IOException e) {
+				LOGGER.error("The search index couldn't be saved (it will be rebuilt at the next start)", e);
+			}
+		}
+	}
+	
+	/**
+	 * Read the fingerprint of the current notes (the number of notes, the highest id and a checksum of the ids and texts).
+	 */
+	private IndexFingerprint readIndexFingerprint() throws SQLException {
+		String query = "SELECT COUNT(*), COALESCE(MAX(id), 0), COALESCE(BIT_XOR(CRC32(CONCAT_WS(CHAR(31), id, headline, note_text))), 0) FROM "
+				+ DATABASE + "." + TABLE_NOTES + ";";
+		try (Connection connection = getConnection(); //
+				PreparedStatement statement = connection.prepareStatement(query); //
+				ResultSet rs = statement.executeQuery()) {
+			rs.next();
+			IndexFingerprint fingerprint = new IndexFingerprint(rs.getLong(1), rs.getLong(2), rs.getLong(3));
+			if (!connection.getAutoCommit()) {
+				connection.commit();
+			}
+			return fingerprint;
+		}
+	}
+	
+	/**
+	 * Get the statistics of the note cache (or null if the cache is disabled).
+	 */
+	public CacheStatistics getNoteCacheStatistics() {
+		return noteCache == null ? null : noteCache.getStatistics();
+	}
+	
+	/**
+	 * Get the statistics of the query result cache (or null if the cache is disabled).
+	 */
+	public CacheStatistics getQueryCacheStatistics() {
+		return queryCache == null ? null : queryCache.getStatistics();
+	}
+	
+	/**
+	 * Add a listener that is informed about all notes that are created, changed or deleted (after the changes were committed).
+	 */
+	public void addNoteChangeListener(NoteChangeListener listener) {
+		changeListeners.add(listener);
+	}
+	
+	public void removeNoteChangeListener(NoteChangeListener listener) {
+		changeListeners.remove(listener);
+	}
+	
+	/**
+	 * Get the write version, that is increased after every change of the notes (after the caches were invalidated). A result that was read
+	 * after the version was requested stays valid as long as the version doesn't change (only the changes of this service are counted, like
+	 * in the caches).
+	 */
+	public long getWriteVersion() {
+		return changeListeners.getWriteVersion();
+	}
+	
+	/**
+	 * Inform the listeners about changed notes, or remember the changes until the transaction of the current thread is done.
+	 */
+	private void notesChanged(Collection<Integer> ids, NoteChangeType type) {
+		Map<Integer, NoteChangeType> pendingChanges = transactionChanges.get();
+		if (pendingChanges != null) {
+			for (int id : ids) {
+				pendingChanges.merge(id, type, NoteChangeType::merge);
+			}
+		}
+		else {
+			Map<Integer, NoteChangeType> changes = new HashMap<Integer, NoteChangeType>();
+			for (int id : ids) {
+				changes.put(id, type);
+			}
+			fireNotesChanged(changes, true);
+		}
+	}
+	
+	private void fireNotesChanged(Map<Integer, NoteChangeType> changes, boolean committed) {
+		changeListeners.fireNotesChanged(changes, committed);
+	}
+	
+	/**
+	 * Execute some work in one transaction. All methods of this class that are called by the work (in the current thread) use the same
+	 * connection and are committed together after the work is done, or rolled back together if the work fails.
+	 * <p>
+	 * If the current thread is already executing a transaction, the work becomes a part of it.
+	 * 
+	 * @return The result of the work
+	 * 
+	 * @throws SQLException
+	 *         An SQLException is thrown (after the rollback) if the work fails
+	 */
+	public <T> T executeInTransaction(DatabaseTransactionWork<T> work) throws SQLException {
+		if (transactionConnection.get() != null) {
+			return work.execute();
+		}
+		
+		try (Connection connection = dataSource.getConnection()) {
+			connection.setAutoCommit(autoCommit);
+			transactionConnection.set(createTransactionBoundConnection(connection));
+			transactionChanges.set(new HashMap<Integer, NoteChangeType>());
+			boolean committed = false;
+			try {
+				T result = work.execute();
+				connection.commit();
+				committed = true;
+				return result;
+			}
+			catch (SQLException | RuntimeException e) {
+				LOGGER.info("Rolling back transaction", e);
+				connection.rollback();
+				throw e;
+			}
+			finally {
+				transactionConnection.remove();
+				//the listeners are also informed after a rollback (the notes may have been read within the transaction)
+				Map<Integer, NoteChangeType> changes = transactionChanges.get();
+				transactionChanges.remove();
+				fireNotesChanged(changes, committed);
+			}
+		}
+	}
+	
+	/**
+	 * Get a connection from the pool, or the connection of the transaction that is executed by the current thread.
+	 */
+	private Connection getConnection() throws SQLException {
+		Connection connection = transactionConnection.get();
+		if (connection != null) {
+			return connection;
+		}
+		return dataSource.getConnection();
+	}
+	
+	/**
+	 * Create a connection that is used within a transaction. Closing, committing and rolling back the connection has no effect, because this
+	 * is done by {@link #executeInTransaction(DatabaseTransactionWork)} for the whole transaction.
+	 */
+	private static Connection createTransactionBoundConnection(Connection connection) {
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+			switch (method.getName()) {
+				case "close":
+				case "commit":
+				case "rollback":
+					return null;
+				default:
+					try {
+						return method.invoke(connection, args);
+					}
+					catch (InvocationTargetException ite) {
+						throw ite.getCause();
+					}
+			}
+		});
+	}
+	
 	/**
 	 * Load the password from the properties
 	 * 
@@ -128,52 +541,59 @@ public class DatabaseConnection {
 		}
 	}
 	
-	private void createTableIfNotExists() throws SQLException {
-		String queryCreateTableNotes = "CREATE TABLE IF NOT EXISTS " + DATABASE + "." + TABLE_NOTES + " ("//
-				+ "id INT NOT NULL PRIMARY KEY AUTO_INCREMENT, "//
-				+ "headline VARCHAR(150), "//
-				+ "note_text TEXT, "//
-				+ "priority INT "//
-				+ ");";
-		String queryCreateTableExecutionDates = "CREATE TABLE IF NOT EXISTS " + DATABASE + "." + TABLE_EXECUTION_DATES + " ("//
-				+ "id INT NOT NULL PRIMARY KEY AUTO_INCREMENT, "//
-				+ "note_id INT NOT NULL, "//
-				+ "execution_date DATETIME, "//
-				+ "FOREIGN KEY (note_id) REFERENCES " + DATABASE + "." + TABLE_NOTES + "(id) ON DELETE CASCADE "//
-				+ ");";
-		String queryCreateTableReminderDates = "CREATE TABLE IF NOT EXISTS " + DATABASE + "." + TABLE_REMINDER_DATES + " ("//
-				+ "id INT NOT NULL PRIMARY KEY AUTO_INCREMENT, "//
-				+ "note_id INT NOT NULL, "//
-				+ "reminder_date DATETIME, "//
-				+ "FOREIGN KEY (note_id) REFERENCES " + DATABASE + "." + TABLE_NOTES + "(id) ON DELETE CASCADE "//
-				+ ");";
-		DataSource dataSource = getDataSource();
+	/**
+	 * Create the tables (if they don't exist) and bring the schema to the latest version (see {@link DatabaseMigration}).
+	 */
+	private void migrateSchema() throws SQLException {
 		try (Connection connection = dataSource.getConnection()) {
 			connection.setAutoCommit(autoCommit);
-			try (Statement statement = connection.createStatement()) {
-				LOGGER.info("Creating table notes (if not exists); sending query: " + queryCreateTableNotes);
-				statement.execute(queryCreateTableNotes);
-				
-				LOGGER.info("Creating table execution dates (if not exists); sending query: " + queryCreateTableExecutionDates);
-				statement.execute(queryCreateTableExecutionDates);
-				
-				LOGGER.info("Creating table reminder dates (if not exists); sending query: " + queryCreateTableReminderDates);
-				statement.execute(queryCreateTableReminderDates);
-				
-				connection.commit();
-			}
-			catch (SQLException sqle) {
-				connection.rollback();
-				throw sqle;
-			}
+			int executed = new DatabaseMigrator(connection).migrate();
+			LOGGER.info("Executed " + executed + " schema migrations");
 		}
 	}
 	
-	private MysqlDataSource getDataSource() {
-		//https://www.journaldev.com/2509/java-datasource-jdbc-datasource-example
-		MysqlDataSource dataSource = getDataSourceWithoutDatabase();
-		dataSource.setDatabaseName(DATABASE);
-		return dataSource;
+	/**
+	 * Create the connection pool. The pool is filled up to the minimum number of idle connections at startup, connections that were idle for
+	 * some time are validated before they are borrowed and a request fails with a {@link java.sql.SQLTransientConnectionException} if no
+	 * connection is available within the configured connection timeout.
+	 */
+	private HikariDataSource createPooledDataSource() throws SQLException {
+		NoteBookConfiguration configuration = NoteBookConfiguration.getInstance();
+		MysqlDataSource mysqlDataSource = getDataSourceWithoutDatabase();
+		mysqlDataSource.setDatabaseName(DATABASE);
+		//send batches of inserts as multi-row inserts (one statement instead of one statement per row)
+		mysqlDataSource.setRewriteBatchedStatements(true);
+		//the dates of a note are read as one string (using GROUP_CONCAT), that is limited to 1024 characters by default
+		mysqlDataSource.setSessionVariables("group_concat_max_len=16777216");
+		//cache the prepared statements (on the server and in the driver), because the same statements are used by many requests
+		mysqlDataSource.setUseServerPrepStmts(true);
+		mysqlDataSource.setCachePrepStmts(true);
+		mysqlDataSource.setPrepStmtCacheSize(250);
+		mysqlDataSource.setPrepStmtCacheSqlLimit(4096);
+		
+		HikariConfig config = new HikariConfig();
+		config.setPoolName("notebook-pool");
+		config.setDataSource(mysqlDataSource);
+		config.setAutoCommit(autoCommit);
+		config.setMinimumIdle(configuration.getInt("database.pool.minimumIdle", 2));
+		config.setMaximumPoolSize(configuration.getInt("database.pool.maximumSize", 10));
+		config.setIdleTimeout(configuration.getLong("database.pool.idleTimeoutMillis", 600000));
+		config.setMaxLifetime(configuration.getLong("database.pool.maxLifetimeMillis", 1800000));
+		config.setConnectionTimeout(configuration.getLong("database.pool.connectionTimeoutMillis", 5000));
+		config.setValidationTimeout(configuration.getLong("database.pool.validationTimeoutMillis", 2000));
+		//fail on startup if no connection can be created (instead of failing on the first request)
+		config.setInitializationFailTimeout(1);
+		config.setMetricsTrackerFactory(poolStatistics);
+		
+		LOGGER.info("Creating connection pool (minimumIdle: " + config.getMinimumIdle() + "; maximumPoolSize: " + config.getMaximumPoolSize()
+				+ "; connectionTimeout: " + config.getConnectionTimeout() + "ms)");
+		try {
+			return new HikariDataSource(config);
+		}
+		catch (RuntimeException re) {
+			//hikari wraps the SQLException of the initial connection in a PoolInitializationException
+			throw new SQLException("The connection pool couldn't be initialized", re);
+		}
 	}
 	private MysqlDataSource getDataSourceWithoutDatabase() {
 		//https://www.journaldev.com/2509/java-datasource-jdbc-datasource-example
@@ -203,20 +623,24 @@ public class DatabaseConnection {
 	 */
 	public int createNote(Note note) throws SQLException {
 		LOGGER.info("Creating note: " + note);
-		String queryNote = "INSERT INTO " + DATABASE + "." + TABLE_NOTES + " (`id`, `headline`, `note_text`, `priority`) VALUES (\"0\", ?, ?, ?);";
+		String queryNote = "INSERT INTO " + DATABASE + "." + TABLE_NOTES
+				+ " (`id`, `headline`, `note_text`, `priority`, `first_execution_date`, `first_reminder_date`, `revision`) VALUES (\"0\", ?, ?, ?, ?, ?, ?);";
 		
 		int id = -1;
 		
-		DataSource dataSource = getDataSource();
-		try (Connection connection = dataSource.getConnection()) {
+		try (Connection connection = getConnection()) {
 			connection.setAutoCommit(autoCommit);
 			
 			//add the note content to the note table
 			try {
+				long revision = nextRevisions(connection, 1);
 				try (PreparedStatement statement = connection.prepareStatement(queryNote, Statement.RETURN_GENERATED_KEYS)) {
 					statement.setString(1, note.getHeadline());
 					statement.setString(2, note.getNoteText());
 					statement.setInt(3, note.getPriority());
+					statement.setObject(4, NoteSortKey.EXECUTION_DATE.getValue(note));
+					statement.setObject(5, NoteSortKey.REMINDER_DATE.getValue(note));
+					statement.setLong(6, revision);
 					
 					LOGGER.debug("Executing PreparedStatement: " + statement);
 					int affectedRows = statement.executeUpdate();
@@ -245,74 +669,653 @@ public class DatabaseConnection {
 				throw sqle;
 			}
 		}
+		notesChanged(Collections.singleton(id), NoteChangeType.CREATED);
 		
 		return id;
 	}
 	
+	/**
+	 * Receives a list of notes and creates them in the database (using batched inserts in one transaction).
+	 * 
+	 * @param notes
+	 * @return The new ids of the notes (in the same order as the notes)
+	 * 
+	 * @throws SQLException
+	 */
+	public List<Integer> createNotes(List<Note> notes) throws SQLException {
+		LOGGER.info("Creating " + notes.size() + " notes");
+		String queryNote = "INSERT INTO " + DATABASE + "." + TABLE_NOTES
+				+ " (`id`, `headline`, `note_text`, `priority`, `first_execution_date`, `first_reminder_date`, `revision`) VALUES (\"0\", ?, ?, ?, ?, ?, ?);";
+		
+		List<Integer> ids = new ArrayList<Integer>(notes.size());
+		if (notes.isEmpty()) {
+			return ids;
+		}
+		
+		try (Connection connection = getConnection()) {
+			connection.setAutoCommit(autoCommit);
+			
+			try {
+				//every note gets it's own revision (so the changes can be paged by the revision)
+				long revision = nextRevisions(connection, notes.size());
+				//add the note contents to the note table (the generated keys of a batch are in the order of the batch)
+				try (PreparedStatement statement = connection.prepareStatement(queryNote, Statement.RETURN_GENERATED_KEYS)) {
+					for (int start = 0; start < notes.size(); start += batchSize) {
+						List<Note> batch = notes.subList(start, Math.min(start + batchSize, notes.size()));
+						for (Note note : batch) {
+							statement.setString(1, note.getHeadline());
+							statement.setString(2, note.getNoteText());
+							statement.setInt(3, note.getPriority());
+							statement.setObject(4, NoteSortKey.EXECUTION_DATE.getValue(note));
+							statement.setObject(5, NoteSortKey.REMINDER_DATE.getValue(note));
+							statement.setLong(6, revision++);
+							statement.addBatch();
+						}
+						
+						executeInsertBatch(statement, TABLE_NOTES, batch.size());
+						try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+							while (generatedKeys.next()) {
+								ids.add(generatedKeys.getInt(1));
+							}
+						}
+					}
+				}
+				
+				if (ids.size() != notes.size()) {
+					throw new SQLException("Inserting data to note table failed. Obtained " + ids.size() + " IDs for " + notes.size() + " notes.");
+				}
+				
+				//add the execution and reminder dates in the respective tables
+				insertExecutionAndReminderDates(connection, notes, ids);
+				
+				connection.commit();
+			}
+			catch (SQLException sqle) {
+				connection.rollback();
+				throw sqle;
+			}
+		}
+		notesChanged(ids, NoteChangeType.CREATED);
+		
+		return ids;
+	}
+	
 	/**
 	 * Returns all notes in the database that match the NoteSelector.
+	 * <p>
+	 * Every note is read as one row, that contains the note's execution and reminder dates as (sorted) aggregated lists, so the number of rows
+	 * doesn't grow with the product of the execution and reminder dates.
+	 * 
+	 * @param selector
+	 * @return All matching notes as a list (ordered by the selector's sort key)
+	 * 
+	 * @throws SQLException
+	 */
+	public List<Note> getNotes(NoteSelector selector) throws SQLException {
+		LOGGER.info("Searching for notes: " + selector);
+		return queryNotes(selector, selector.getLimit());
+	}
+	
+	/**
+	 * Returns a page of the notes that match the NoteSelector (starting after the selector's cursor) and the cursor of the next page.
+	 * <p>
+	 * The page is selected by the position of the last note (keyset pagination) instead of an offset, so every page is selected using the
+	 * primary key index and takes the same time, no matter how many pages were requested before.
 	 * 
 	 * @param selector
-	 * @return All matching notes as a list
+	 * @return The page of notes (up to the selector's limit) and the cursor of the next page (or null if there are no more notes)
+	 * 
+	 * @throws SQLException
+	 */
+	public NotePage getNotePage(NoteSelector selector) throws SQLException {
+		LOGGER.info("Searching for a page of notes: " + selector);
+		Integer limit = selector.getLimit();
+		//select one more note, to find out whether there is a next page
+		List<Note> notes = queryNotes(selector, limit == null ? null : withNextPage(limit));
+		
+		String nextCursor = null;
+		if (limit != null && notes.size() > limit) {
+			notes = new ArrayList<Note>(notes.subList(0, limit));
+			nextCursor = NoteCursor.after(notes.get(limit - 1), selector.getSortKey()).encode();
+		}
+		return new NotePage(notes, nextCursor);
+	}
+	
+	/**
+	 * Reads the notes that match the NoteSelector one by one and passes them to the consumer, without keeping the result in memory. The rows
+	 * are streamed from the database (instead of reading the complete result set at once), so the memory usage doesn't depend on the number
+	 * of matching notes.
+	 * <p>
+	 * The connection is used until the last note was consumed, so the consumer should not block for a long time.
+	 * 
+	 * @param selector
+	 * @param consumer
+	 *        Receives the notes in the order of the selector's sort key
+	 * 
+	 * @throws SQLException
+	 * @throws E
+	 *         The exception of the consumer (the query is aborted)
+	 */
+	public <E extends Exception> void streamNotes(NoteSelector selector, NoteConsumer<E> consumer) throws SQLException, E {
+		LOGGER.info("Streaming notes: " + selector);
+		readNotes(selector, selector.getLimit(), true, consumer);
+	}
+	
+	private List<Note> queryNotes(NoteSelector selector, Integer limit) throws SQLException {
+		InMemoryNoteStore store = noteStore;
+		if (store != null && transactionConnection.get() == null && selector.isValid()) {
+			return store.getNotes(selector, limit);
+		}
+		if (queryCache != null && transactionConnection.get() == null) {
+			//the generation is requested before the query, so a result that may be outdated is not added to the cache
+			long generation = queryCache.getWriteGeneration();
+			List<Note> cached = queryCache.get(generation, selector, limit);
+			if (cached != null) {
+				return cached;
+			}
+			return queryCache.put(generation, selector, limit, queryNotesWithoutResultCache(selector, limit));
+		}
+		return queryNotesWithoutResultCache(selector, limit);
+	}
+	
+	private List<Note> queryNotesWithoutResultCache(NoteSelector selector, Integer limit) throws SQLException {
+		if (noteCache != null && isSelectedByIds(selector) && transactionConnection.get() == null && selector.isValid()) {
+			return queryNotesUsingCache(selector, limit);
+		}
+		List<Note> notes = new ArrayList<Note>();
+		readNotes(selector, limit, false, notes::add);
+		return notes;
+	}
+	
+	/**
+	 * Get the reminders that are due in the range [from, to) with their notes, ordered by the reminder date (and by the note id).
+	 */
+	public List<DueReminder> getDueReminders(ReminderRange range) throws SQLException {
+		LOGGER.info("Searching due reminders: " + range);
+		if (!range.isValid()) {
+			throw new SQLException("The given ReminderRange is not valid: " + range);
+		}
+		List<ReminderIndex.Reminder> reminders = findReminders(range.getFrom(), range.getTo());
+		if (reminders.isEmpty()) {
+			return new ArrayList<DueReminder>();
+		}
+		
+		List<Integer> ids = reminders.stream().map(ReminderIndex.Reminder::getNoteId).distinct().collect(Collectors.toList());
+		NoteSelector remindedNotesSelector = new NoteSelectorBuilder().setIds(ids).setIdRelation(NoteRelation.IN).build();
+		Map<Integer, Note> notesById = new HashMap<Integer, Note>();
+		for (Note note : queryNotes(remindedNotesSelector, null)) {
+			notesById.put(note.getId(), note);
+		}
+		
+		List<DueReminder> dueReminders = new ArrayList<DueReminder>(reminders.size());
+		for (ReminderIndex.Reminder reminder : reminders) {
+			Note note = notesById.get(reminder.getNoteId());
+			//the note may have been deleted in the meantime
+			if (note != null) {
+				dueReminders.add(new DueReminder(reminder.getDate(), note));
+			}
+		}
+		return dueReminders;
+	}
+	
+	/**
+	 * Find the reminders in the range using the reminder index. If the range is not in the window of the index, the window is moved to the
+	 * current time (or the reminders are read from the database, if the range is not near the current time).
+	 */
+	private List<ReminderIndex.Reminder> findReminders(LocalDateTime from, LocalDateTime to) throws SQLException {
+		ReminderIndex index = reminderIndex;
+		if (index != null) {
+			synchronized (index) {
+				if (!index.covers(from, to)) {
+					LocalDateTime now = LocalDateTime.now();
+					LocalDateTime windowStart = now.minus(reminderWindow);
+					LocalDateTime windowEnd = now.plus(reminderWindow);
+					if (!from.isBefore(windowStart) && !to.isAfter(windowEnd)) {
+						index.loadWindow(windowStart, windowEnd, readReminders(windowStart, windowEnd, null));
+						LOGGER.debug("Loaded " + index.size() + " reminders between " + windowStart + " and " + windowEnd);
+					}
+				}
+				if (index.covers(from, to)) {
+					return index.getReminders(from, to);
+				}
+			}
+		}
+		return readReminders(from, to, null);
+	}
+	
+	/**
+	 * Read the reminders in the range [from, to) and / or of the notes with the given ids, ordered by the date and the note id.
+	 * 
+	 * @param from
+	 *        The start of the range (or null if the reminders are selected by the ids)
+	 * @param to
+	 *        The end of the range (or null if the reminders are selected by the ids)
+	 * @param ids
+	 *        The ids of the notes (or null to read the reminders of all notes; at most {@link #MAX_IN_LIST_SIZE} ids)
+	 */
+	private List<ReminderIndex.Reminder> readReminders(LocalDateTime from, LocalDateTime to, Collection<Integer> ids) throws SQLException {
+		StringBuilder query = new StringBuilder("SELECT re.note_id, re.reminder_date FROM ").append(DATABASE).append(".")
+				.append(TABLE_REMINDER_DATES).append(" re WHERE 1");
+		if (from != null) {
+			query.append(" AND re.reminder_date >= ? AND re.reminder_date < ?");
+		}
+		if (ids != null) {
+			query.append(" AND re.note_id IN (?");
+			for (int i = 1; i < ids.size(); i++) {
+				query.append(", ?");
+			}
+			query.append(")");
+		}
+		query.append(" ORDER BY re.reminder_date, re.note_id;");
+		
+		List<ReminderIndex.Reminder> reminders = new ArrayList<ReminderIndex.Reminder>();
+		try (Connection connection = getConnection()) {
+			connection.setAutoCommit(autoCommit);
+			try (PreparedStatement statement = connection.prepareStatement(query.toString())) {
+				int index = 1;
+				if (from != null) {
+					statement.setObject(index++, from);
+					statement.setObject(index++, to);
+				}
+				if (ids != null) {
+					for (int id : ids) {
+						statement.setInt(index++, id);
+					}
+				}
+				LOGGER.debug("Executing PreparedStatement: " + statement);
+				
+				try (ResultSet rs = statement.executeQuery()) {
+					while (rs.next()) {
+						reminders.add(new ReminderIndex.Reminder(rs.getInt(1), rs.getObject(2, LocalDateTime.class)));
+					}
+				}
+				
+				connection.commit();
+			}
+			catch (SQLException sqle) {
+				connection.rollback();
+				throw sqle;
+			}
+		}
+		return reminders;
+	}
+	
+	/**
+	 * Returns the notes that were created or changed and the ids of the notes that were deleted after the revision of the request (ordered by
+	 * their revisions and up to the limit), so a client only needs to load the changes since it's last synchronization.
+	 * <p>
+	 * The changes are selected using the indexes on the revisions, so the costs depend on the number of changes (not on the number of notes).
+	 * 
+	 * @param request
+	 * @return The changes and the revision of the last returned change (to be sent with the next request)
 	 * 
 	 * @throws SQLException
 	 */
-	public List<Note> getNotes(NoteSelector selector) throws SQLException {
-		LOGGER.info("Searching for notes: " + selector);
+	public NoteChanges getChangesSince(NoteChangeRequest request) throws SQLException {
+		LOGGER.info("Searching changes: " + request);
+		if (!request.isValid()) {
+			throw new SQLException("The given NoteChangeRequest is not valid: " + request);
+		}
+		int limit = request.getLimit() == null ? maxChanges : Math.min(request.getLimit(), maxChanges);
+		
+		//all queries are executed in one transaction, so they read the same snapshot of the changes
+		try (Connection connection = getConnection()) {
+			connection.setAutoCommit(autoCommit);
+			try {
+				NoteChanges changes = readChanges(connection, request.getRevision(), limit);
+				connection.commit();
+				return changes;
+			}
+			catch (SQLException sqle) {
+				connection.rollback();
+				throw sqle;
+			}
+		}
+	}
+	
+	/**
+	 * The limit to select one more row than the limit (to find out whether there is a next page). The limit is not increased if it's the
+	 * maximum integer (that would overflow), because there can't be more rows anyway.
+	 */
+	/*private */static int withNextPage(int limit) {
+		return limit == Integer.MAX_VALUE ? limit : limit + 1;
+	}
+	
+	/**
+	 * Read the changes after the revision (up to the limit) from the notes and the tombstones.
+	 * <p>
+	 * The revision of the last returned change is the limit-th revision of the union of both tables. The revision that follows it (if any)
+	 * shows that there are more changes, so both are read in one query (LIMIT 2 OFFSET limit-1).
+	 * 
+	 * @throws SQLException
+	 */
+	/*private */static NoteChanges readChanges(Connection con, long revision, int limit) throws SQLException {
+		//the revision of the last change that is returned and the revision of the first change that is not returned (if any)
+		String queryLastRevisions = "SELECT r.revision FROM ("//
+				+ "(SELECT n.revision FROM " + DATABASE + "." + TABLE_NOTES + " n WHERE n.revision > ? ORDER BY n.revision LIMIT ?) UNION ALL "//
+				+ "(SELECT t.revision FROM " + DATABASE + "." + TABLE_NOTE_TOMBSTONES + " t WHERE t.revision > ? ORDER BY t.revision LIMIT ?)"//
+				+ ") r ORDER BY r.revision LIMIT 2 OFFSET ?;";
+		String queryNotes = createNoteQuery("WHERE n.revision > ? AND n.revision <= ? ORDER BY n.revision");
+		String queryTombstones = "SELECT t.note_id FROM " + DATABASE + "." + TABLE_NOTE_TOMBSTONES
+				+ " t WHERE t.revision > ? AND t.revision <= ? ORDER BY t.revision;";
+		
+		List<Note> notes = new ArrayList<Note>();
+		List<Integer> deletedIds = new ArrayList<Integer>();
+		long lastRevision = Long.MAX_VALUE;
+		boolean moreChanges = false;
+		
+		try (PreparedStatement statement = con.prepareStatement(queryLastRevisions)) {
+			statement.setLong(1, revision);
+			statement.setInt(2, withNextPage(limit));
+			statement.setLong(3, revision);
+			statement.setInt(4, withNextPage(limit));
+			statement.setInt(5, limit - 1);
+			LOGGER.debug("Executing PreparedStatement: " + statement);
+			try (ResultSet rs = statement.executeQuery()) {
+				if (rs.next()) {
+					lastRevision = rs.getLong(1);
+					moreChanges = rs.next();
+				}
+			}
+		}
+		
+		try (PreparedStatement statement = con.prepareStatement(queryNotes)) {
+			statement.setLong(1, revision);
+			statement.setLong(2, lastRevision);
+			LOGGER.debug("Executing PreparedStatement: " + statement);
+			try (ResultSet rs = statement.executeQuery()) {
+				while (rs.next()) {
+					notes.add(readNote(rs));
+				}
+			}
+		}
+		try (PreparedStatement statement = con.prepareStatement(queryTombstones)) {
+			statement.setLong(1, revision);
+			statement.setLong(2, lastRevision);
+			LOGGER.debug("Executing PreparedStatement: " + statement);
+			try (ResultSet rs = statement.executeQuery()) {
+				while (rs.next()) {
+					deletedIds.add(rs.getInt(1));
+				}
+			}
+		}
+		
+		//if there are less changes than the limit, the last revision is the revision of the last change
+		if (lastRevision == Long.MAX_VALUE) {
+			lastRevision = readLastRevision(con, revision);
+		}
+		
+		return new NoteChanges(notes, deletedIds, lastRevision, moreChanges);
+	}
+	
+	/**
+	 * Read the revision of the last change (of a note or tombstone) after the given revision (or the given revision if there are no changes).
+	 */
+	private static long readLastRevision(Connection con, long revision) throws SQLException {
+		String query = "SELECT GREATEST(?, "//
+				+ "COALESCE((SELECT MAX(n.revision) FROM " + DATABASE + "." + TABLE_NOTES + " n), 0), "//
+				+ "COALESCE((SELECT MAX(t.revision) FROM " + DATABASE + "." + TABLE_NOTE_TOMBSTONES + " t), 0));";
+		try (PreparedStatement statement = con.prepareStatement(query)) {
+			statement.setLong(1, revision);
+			LOGGER.debug("Executing PreparedStatement: " + statement);
+			try (ResultSet rs = statement.executeQuery()) {
+				rs.next();
+				return rs.getLong(1);
+			}
+		}
+	}
+	
+	/**
+	 * Search the notes which headline or text contain the words of the query (using the full-text index), ordered by their relevance.
+	 */
+	public NoteSearchPage searchNotes(NoteSearch search) throws SQLException {
+		LOGGER.info("Searching notes: " + search);
+		if (!search.isValid()) {
+			throw new SQLException("The given NoteSearch is not valid: " + search);
+		}
+		NoteSearchIndex index = searchIndex;
+		if (index != null && search.getMode() == NoteSearchMode.NATURAL_LANGUAGE) {
+			return searchNotesUsingIndex(search, index);
+		}
+		NoteSelector selector = search.getSelector() == null ? NoteSelector.empty() : search.getSelector();
+		Integer limit = search.getLimit();
+		
+		String match = createMatchQuery(search.getMode());
+		//the selector's WHERE clause is extended by the full-text condition
+		String selectionQuery = "WHERE " + match + " AND " + createSelectorQuery(selector).substring("WHERE ".length());
+		String query = createNoteQuery(", " + match + " AS relevance",
+				selectionQuery + " ORDER BY relevance DESC, n.id" + (limit == null ? "" : " LIMIT ? OFFSET ?"));
+		
+		List<NoteSearchHit> hits = new ArrayList<NoteSearchHit>();
+		try (Connection connection = getConnection()) {
+			connection.setAutoCommit(autoCommit);
+			try {
+				prepareSelectorIds(connection, selector, batchSize);
+			}
+			catch (SQLException sqle) {
+				connection.rollback();
+				throw sqle;
+			}
+			try (PreparedStatement statement = connection.prepareStatement(query)) {
+				statement.setString(1, search.getQuery());
+				statement.setString(2, search.getQuery());
+				int nextIndex = addSelectorValues(statement, selector, 3);
+				if (limit != null) {
+					//select one more note, to find out whether there is a next page
+					statement.setInt(nextIndex, withNextPage(limit));
+					statement.setInt(nextIndex + 1, search.getOffset());
+				}
+				LOGGER.debug("Executing PreparedStatement: " + statement);
+				
+				try (ResultSet rs = statement.executeQuery()) {
+					while (rs.next()) {
+						hits.add(new NoteSearchHit(readNote(rs), rs.getDouble(7)));
+					}
+				}
+				
+				connection.commit();
+			}
+			catch (SQLException sqle) {
+				connection.rollback();
+				throw sqle;
+			}
+		}
+		
+		Integer nextOffset = null;
+		if (limit != null && hits.size() > limit) {
+			hits = new ArrayList<NoteSearchHit>(hits.subList(0, limit));
+			nextOffset = search.getOffset() + limit;
+		}
+		return new NoteSearchPage(hits, nextOffset);
+	}
+	
+	/**
+	 * Search the notes using the search index (ranked by BM25). The index only finds the ids of the notes; the notes are read afterwards
+	 * (and filtered by the search's selector).
+	 */
+	private NoteSearchPage searchNotesUsingIndex(NoteSearch search, NoteSearchIndex index) throws SQLException {
+		Integer limit = search.getLimit();
+		NoteSelector filter = search.getSelector();
+		//without a filter only the hits of the page (and one more to find out whether there is a next page) are needed
+		//(the sum is clamped, because it overflows for very large offsets or limits)
+		int maxHits = filter != null || limit == null ? Integer.MAX_VALUE
+				: (int) Math.min(Integer.MAX_VALUE, (long) search.getOffset() + limit + 1);
+		List<NoteSearchIndex.Hit> hits = index.search(search.getQuery(), maxHits);
+		if (filter == null && limit != null) {
+			hits = hits.subList(Math.min(search.getOffset(), hits.size()), hits.size());
+		}
+		if (hits.isEmpty()) {
+			return new NoteSearchPage(new ArrayList<NoteSearchHit>(), null);
+		}
+		
+		//read the found notes (that match the filter)
+		NoteSelector foundNotesSelector = filter == null ? new NoteSelector() : filter.toCanonical();
+		foundNotesSelector.setIds(hits.stream().map(NoteSearchIndex.Hit::getNoteId).collect(Collectors.toList()));
+		foundNotesSelector.setIdRelation(NoteRelation.IN);
+		foundNotesSelector.setSortKey(NoteSortKey.ID);
+		foundNotesSelector.setDescending(false);
+		foundNotesSelector.setLimit(null);
+		List<Note> foundNotes = queryNotes(foundNotesSelector, null);
+		if (filter != null && filter.getIdRelation() != NoteRelation.NONE) {
+			//the id relation of the filter was replaced by the found ids
+			NoteSelector idFilter = new NoteSelectorBuilder().setIds(filter.getIds()).setIdRelation(filter.getIdRelation()).build();
+			foundNotes = idFilter.compile().filter(foundNotes, false);
+		}
+		Map<Integer, Note> notesById = new HashMap<Integer, Note>();
+		for (Note note : foundNotes) {
+			notesById.put(note.getId(), note);
+		}
+		
+		//create the hits in the order of the index (a filtered search selects the page after the filter)
+		List<NoteSearchHit> page = new ArrayList<NoteSearchHit>();
+		int skip = filter == null ? 0 : search.getOffset();
+		for (NoteSearchIndex.Hit hit : hits) {
+			Note note = notesById.get(hit.getNoteId());
+			if (note != null && skip-- <= 0) {
+				page.add(new NoteSearchHit(note, hit.getScore()));
+				if (limit != null && page.size() > limit) {
+					break;
+				}
+			}
+		}
+		
+		Integer nextOffset = null;
+		if (limit != null && page.size() > limit) {
+			page = new ArrayList<NoteSearchHit>(page.subList(0, limit));
+			nextOffset = search.getOffset() + limit;
+		}
+		return new NoteSearchPage(page, nextOffset);
+	}
+	
+	/**
+	 * Create the full-text condition (and relevance) for the search mode, with a placeholder for the query.
+	 */
+	/*private */static String createMatchQuery(NoteSearchMode mode) {
+		return "MATCH (n.headline, n.note_text) AGAINST (? " + mode.getModifier() + ")";
+	}
+	
+	/**
+	 * Take the selected notes from the {@link NoteCache} and read only the missing notes from the database.
+	 */
+	private List<Note> queryNotesUsingCache(NoteSelector selector, Integer limit) throws SQLException {
+		Map<Integer, Note> notes = new HashMap<Integer, Note>(noteCache.getAll(selector.getIds()));
+		List<Integer> missingIds = selector.getIds().stream().filter(id -> !notes.containsKey(id)).distinct().collect(Collectors.toList());
+		
+		if (!missingIds.isEmpty()) {
+			long generation = noteCache.getGeneration();
+			NoteSelector missingNotesSelector = new NoteSelectorBuilder().setIds(missingIds).setIdRelation(NoteRelation.IN).build();
+			List<Note> loadedNotes = new ArrayList<Note>(missingIds.size());
+			readNotes(missingNotesSelector, null, false, loadedNotes::add);
+			noteCache.putAll(loadedNotes, generation);
+			for (Note note : loadedNotes) {
+				notes.put(note.getId(), note);
+			}
+		}
+		
+		return selectCachedNotes(selector, notes.values(), limit);
+	}
+	
+	/**
+	 * Select the notes that match the selector from the cached notes, ordered by the sort key and paged like the database does (the cached
+	 * notes are in no particular order).
+	 */
+	/*private */static List<Note> selectCachedNotes(NoteSelector selector, Collection<Note> cachedNotes, Integer limit) {
+		return selector.getPage(selector.compile().filter(new ArrayList<Note>(cachedNotes), false), limit);
+	}
+	
+	private <E extends Exception> void readNotes(NoteSelector selector, Integer limit, boolean stream, NoteConsumer<E> consumer)
+			throws SQLException, E {
 		String selectionQuery = createSelectorQuery(selector);
-		String query = "SELECT n.id, n.headline, n.note_text, n.priority, ex.execution_date, re.reminder_date "//
-				+ "FROM " + DATABASE + "." + TABLE_NOTES + " n "//
-				+ "LEFT OUTER JOIN " + DATABASE + "." + TABLE_EXECUTION_DATES + " ex ON n.id = ex.note_id "//
-				+ "LEFT OUTER JOIN " + DATABASE + "." + TABLE_REMINDER_DATES + " re ON n.id = re.note_id "//
-				+ selectionQuery + ";";//selectionQuery contains the WHERE clause
+		//selectionQuery contains the WHERE clause
+		String query = createNoteQuery(selectionQuery + createOrderQuery(selector) + (limit == null ? "" : " LIMIT ?"));
 		
-		Map<Integer, Note> notes = new HashMap<Integer, Note>();
-		DataSource dataSource = getDataSource();
-		
-		try (Connection connection = dataSource.getConnection()) {
+		try (Connection connection = getConnection()) {
 			connection.setAutoCommit(autoCommit);
-			try (PreparedStatement statement = connection.prepareStatement(query)) {
-				connection.setAutoCommit(autoCommit);
-				
-				addSelectorValues(statement, selector, 1);
+			try {
+				prepareSelectorIds(connection, selector, batchSize);
+			}
+			catch (SQLException sqle) {
+				connection.rollback();
+				throw sqle;
+			}
+			try (PreparedStatement statement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+				if (stream) {
+					//the mysql driver reads the rows one by one (instead of the whole result) if the fetch size is Integer.MIN_VALUE
+					statement.setFetchSize(Integer.MIN_VALUE);
+				}
+				int nextIndex = addSelectorValues(statement, selector, 1);
+				if (limit != null) {
+					statement.setInt(nextIndex, limit);
+				}
 				LOGGER.debug("Executing PreparedStatement: " + statement);
 				
 				try (ResultSet rs = statement.executeQuery()) {
-					//read the rows of the result set
+					//read the rows of the result set (one row per note)
 					while (rs.next()) {
-						//get the fields from each row
-						int id = rs.getInt(1);
-						String headline = rs.getString(2);
-						String noteText = rs.getString(3);
-						int priority = rs.getInt(4);
-						LocalDateTime executionDate = rs.getObject(5, LocalDateTime.class);
-						LocalDateTime reminderDate = rs.getObject(6, LocalDateTime.class);
-						
-						//add the result data to the notes
-						Note note = notes.get(id);
-						if (note == null) {
-							note = new Note();
-						}
-						note.setId(id);
-						note.setHeadline(headline);
-						note.setNoteText(noteText);
-						note.setPriority(priority);
-						note.addExecutionDate(executionDate);
-						note.addReminderDate(reminderDate);
-						
-						notes.put(id, note);
+						consumer.accept(readNote(rs));
 					}
 				}
 				
 				connection.commit();
 			}
-			catch (SQLException sqle) {
+			catch (Exception e) {
 				connection.rollback();
-				throw sqle;
+				throw e;
 			}
 		}
-		
-		return new ArrayList<Note>(notes.values());
+	}
+	
+	/**
+	 * Create a query that selects one row per note (that can be read by {@link #readNote(ResultSet)}).
+	 * 
+	 * @param selectionQuery
+	 *        The WHERE clause of the query (and everything that follows it) that refers to the note table as 'n'
+	 */
+	private static String createNoteQuery(String selectionQuery) {
+		return createNoteQuery("", selectionQuery);
+	}
+	
+	/**
+	 * Create a query that selects the notes (like {@link #createNoteQuery(String)}) and additional columns after the columns of the note.
+	 * 
+	 * @param additionalColumns
+	 *        The additional columns (starting with a comma) that refer to the note table as 'n'
+	 */
+	private static String createNoteQuery(String additionalColumns, String selectionQuery) {
+		return "SELECT n.id, n.headline, n.note_text, n.priority, "//
+				+ "(SELECT GROUP_CONCAT(ex.execution_date ORDER BY ex.execution_date SEPARATOR ',') FROM " + DATABASE + "." + TABLE_EXECUTION_DATES
+				+ " ex WHERE ex.note_id = n.id), "//
+				+ "(SELECT GROUP_CONCAT(re.reminder_date ORDER BY re.reminder_date SEPARATOR ',') FROM " + DATABASE + "." + TABLE_REMINDER_DATES
+				+ " re WHERE re.note_id = n.id)" + additionalColumns + " "//
+				+ "FROM " + DATABASE + "." + TABLE_NOTES + " n "//
+				+ selectionQuery + ";";
+	}
+	
+	/**
+	 * Read a note from the current row of a result set of a query that was created by {@link #createNoteQuery(String)}.
+	 */
+	private static Note readNote(ResultSet rs) throws SQLException {
+		Note note = new Note();
+		note.setId(rs.getInt(1));
+		note.setHeadline(rs.getString(2));
+		note.setNoteText(rs.getString(3));
+		note.setPriority(rs.getInt(4));
+		note.setExecutionDates(parseDates(rs.getString(5)));
+		note.setReminderDates(parseDates(rs.getString(6)));
+		return note;
+	}
+	
+	/**
+	 * Parse the dates of a comma separated list that was created by GROUP_CONCAT
+	 */
+	/*private */static List<LocalDateTime> parseDates(String dates) {
+		List<LocalDateTime> parsed = new ArrayList<LocalDateTime>();
+		if (dates != null && !dates.isEmpty()) {
+			for (String date : dates.split(",")) {
+				parsed.add(LocalDateTime.parse(date, MYSQL_DATE_TIME_FORMAT));
+			}
+		}
+		return parsed;
 	}
 	
 	/**
@@ -325,21 +1328,25 @@ public class DatabaseConnection {
 	 */
 	public int updateNote(Note note) throws SQLException {
 		LOGGER.info("Updating note: " + note);
-		String queryNote = "UPDATE " + DATABASE + "." + TABLE_NOTES + " SET headline = ?, note_text = ?, priority = ? WHERE id = ?;";
+		String queryNote = "UPDATE " + DATABASE + "." + TABLE_NOTES
+				+ " SET headline = ?, note_text = ?, priority = ?, first_execution_date = ?, first_reminder_date = ?, revision = ? WHERE id = ?;";
 		
 		int affectedRows = 0;
 		
-		DataSource dataSource = getDataSource();
-		try (Connection connection = dataSource.getConnection()) {
+		try (Connection connection = getConnection()) {
 			connection.setAutoCommit(autoCommit);
 			
 			try {
 				//add the note content to the note table
+				long revision = nextRevisions(connection, 1);
 				try (PreparedStatement statement = connection.prepareStatement(queryNote)) {
 					statement.setString(1, note.getHeadline());
 					statement.setString(2, note.getNoteText());
 					statement.setInt(3, note.getPriority());
-					statement.setInt(4, note.getId());
+					statement.setObject(4, NoteSortKey.EXECUTION_DATE.getValue(note));
+					statement.setObject(5, NoteSortKey.REMINDER_DATE.getValue(note));
+					statement.setLong(6, revision);
+					statement.setInt(7, note.getId());
 					
 					LOGGER.debug("Executing PreparedStatement: " + statement);
 					affectedRows = statement.executeUpdate();
@@ -362,43 +1369,95 @@ public class DatabaseConnection {
 				throw sqle;
 			}
 		}
+		notesChanged(Collections.singleton(note.getId()), NoteChangeType.UPDATED);
 		
 		return affectedRows;
 	}
 	
 	/**
-	 * Deletes all notes that match the NoteSelector.
+	 * Changes only the fields of the note that are set in the patch and adds or removes single execution and reminder dates. If the patch
+	 * doesn't change anything, the database is not accessed.
 	 * 
-	 * @param selector
-	 * @return The number of affected rows
+	 * @param patch
+	 * @return The number of affected rows (of the note and the dates)
 	 * 
 	 * @throws SQLException
 	 */
-	public int deleteNotes(NoteSelector selector) throws SQLException {
-		LOGGER.info("Deleting notes: " + selector);
-		LOGGER.info("Searching for matching notes");
-		List<Note> matchingNotes = getNotes(selector);
-		List<Integer> matchingIds = matchingNotes.stream().map(note -> note.getId()).collect(Collectors.toList());
-		LOGGER.info("Found matching note ids: " + matchingIds);
-		
-		String deleteQuery = "DELETE FROM " + DATABASE + "." + TABLE_NOTES + " WHERE id = ?;";
+	public int patchNote(NotePatch patch) throws SQLException {
+		LOGGER.info("Patching note: " + patch);
+		if (patch.isEmpty()) {
+			LOGGER.info("The patch doesn't change anything");
+			return 0;
+		}
 		
 		int affectedRows = 0;
 		
-		DataSource dataSource = getDataSource();
-		try (Connection connection = dataSource.getConnection()) {
+		try (Connection connection = getConnection()) {
 			connection.setAutoCommit(autoCommit);
 			
-			//add the note content to the note table
-			try (PreparedStatement statement = connection.prepareStatement(deleteQuery)) {
-				for (int id : matchingIds) {
-					statement.setInt(1, id);
+			try {
+				//update only the changed fields of the note (and the revision, that is changed by every patch)
+				List<String> changedFields = new ArrayList<String>(4);
+				if (patch.getHeadline() != null) {
+					changedFields.add("headline = ?");
+				}
+				if (patch.getNoteText() != null) {
+					changedFields.add("note_text = ?");
+				}
+				if (patch.getPriority() != null) {
+					changedFields.add("priority = ?");
+				}
+				changedFields.add("revision = ?");
+				String queryNote = "UPDATE " + DATABASE + "." + TABLE_NOTES + " SET " + String.join(", ", changedFields) + " WHERE id = ?;";
+				
+				long revision = nextRevisions(connection, 1);
+				try (PreparedStatement statement = connection.prepareStatement(queryNote)) {
+					int index = 1;
+					if (patch.getHeadline() != null) {
+						statement.setString(index++, patch.getHeadline());
+					}
+					if (patch.getNoteText() != null) {
+						statement.setString(index++, patch.getNoteText());
+					}
+					if (patch.getPriority() != null) {
+						statement.setInt(index++, patch.getPriority());
+					}
+					statement.setLong(index++, revision);
+					statement.setInt(index, patch.getId());
+					
 					LOGGER.debug("Executing PreparedStatement: " + statement);
-					affectedRows += statement.executeUpdate();
+					int affectedNoteRows = statement.executeUpdate();
 					
-					if (affectedRows == 0) {
+					if (affectedNoteRows == 0) {
 						throw new SQLException("Updating data to note table failed. No affected rows.");
 					}
+					//only the changed fields are counted (not the changed revision of a patch that only changes dates)
+					if (patch.isFieldChanged()) {
+						affectedRows = affectedNoteRows;
+					}
+				}
+				
+				//remove and add only the changed dates
+				if (patch.isDateChanged()) {
+					String queryRemoveExecutionDates = "DELETE FROM " + DATABASE + "." + TABLE_EXECUTION_DATES
+							+ " WHERE note_id = ? AND execution_date = ?;";
+					String queryRemoveReminderDates = "DELETE FROM " + DATABASE + "." + TABLE_REMINDER_DATES
+							+ " WHERE note_id = ? AND reminder_date = ?;";
+					String queryExecutionDates = "INSERT INTO " + DATABASE + "." + TABLE_EXECUTION_DATES
+							+ " (`id`, `note_id`, `execution_date`) VALUES (\"0\", ?, ?);";
+					String queryReminderDates = "INSERT INTO " + DATABASE + "." + TABLE_REMINDER_DATES
+							+ " (`id`, `note_id`, `reminder_date`) VALUES (\"0\", ?, ?);";
+					
+					affectedRows += deleteDates(connection, queryRemoveExecutionDates, patch.getId(), patch.getRemovedExecutionDates());
+					affectedRows += deleteDates(connection, queryRemoveReminderDates, patch.getId(), patch.getRemovedReminderDates());
+					
+					List<NotePatch> patches = Collections.singletonList(patch);
+					List<Integer> ids = Collections.singletonList(patch.getId());
+					insertDates(connection, queryExecutionDates, TABLE_EXECUTION_DATES, patches, ids, NotePatch::getAddedExecutionDates);
+					insertDates(connection, queryReminderDates, TABLE_REMINDER_DATES, patches, ids, NotePatch::getAddedReminderDates);
+					affectedRows += sizeOf(patch.getAddedExecutionDates()) + sizeOf(patch.getAddedReminderDates());
+					
+					updateFirstDates(connection, patch.getId());
 				}
 				
 				connection.commit();
@@ -408,14 +1467,112 @@ public class DatabaseConnection {
 				throw sqle;
 			}
 		}
+		notesChanged(Collections.singleton(patch.getId()), NoteChangeType.UPDATED);
 		
 		return affectedRows;
 	}
 	
+	/**
+	 * Deletes all notes that match the NoteSelector (using a single DELETE statement; the dates are deleted by the foreign keys).
+	 * 
+	 * @param selector
+	 * @return The number of affected rows (that is checked to be the number of the deleted ids)
+	 * 
+	 * @throws SQLException
+	 */
+	public int deleteNotes(NoteSelector selector) throws SQLException {
+		LOGGER.info("Deleting notes: " + selector);
+		if (selector.getLimit() != null) {
+			throw new SQLException("A limit can't be used to delete notes: " + selector);
+		}
+		
+		List<Integer> deletedIds;
+		
+		try (Connection connection = getConnection()) {
+			connection.setAutoCommit(autoCommit);
+			
+			try {
+				deletedIds = deleteSelectedNotes(connection, selector, batchSize);
+				connection.commit();
+			}
+			catch (SQLException sqle) {
+				connection.rollback();
+				throw sqle;
+			}
+		}
+		notesChanged(deletedIds, NoteChangeType.DELETED);
+		
+		return deletedIds.size();
+	}
+	
+	/**
+	 * Delete the notes that match the selector and add their tombstones.
+	 * <p>
+	 * The revision counter is locked before the notes (like in all other changes of the notes), so concurrent changes of the same notes can't
+	 * deadlock. Because every change holds the lock of the counter, the selected ids are exactly the notes that are deleted (otherwise the
+	 * deletion fails, so the transaction is rolled back instead of adding wrong tombstones).
+	 * 
+	 * @return The ids of the deleted notes (one for every affected row of the DELETE statement)
+	 * 
+	 * @throws SQLException
+	 *         If the number of affected rows differs from the number of selected ids
+	 */
+	/*private */static List<Integer> deleteSelectedNotes(Connection con, NoteSelector selector, int batchSize) throws SQLException {
+		String deleteQuery = "DELETE n FROM " + DATABASE + "." + TABLE_NOTES + " n " + createSelectorQuery(selector) + ";";
+		
+		lockRevisionCounter(con);
+		prepareSelectorIds(con, selector, batchSize);
+		//only the existing notes get tombstones (not all ids of the selector)
+		List<Integer> deletedIds = selectNoteIds(con, selector);
+		if (deletedIds.isEmpty()) {
+			LOGGER.info("Deleted 0 notes");
+			return deletedIds;
+		}
+		
+		try (PreparedStatement statement = con.prepareStatement(deleteQuery)) {
+			addSelectorValues(statement, selector, 1);
+			LOGGER.debug("Executing PreparedStatement: " + statement);
+			int affectedRows = statement.executeUpdate();
+			LOGGER.info("Deleted " + affectedRows + " notes");
+			if (affectedRows != deletedIds.size()) {
+				throw new SQLException("The number of deleted notes (" + affectedRows + ") doesn't match the selected notes: " + deletedIds);
+			}
+		}
+		insertTombstones(con, deletedIds, batchSize);
+		
+		return deletedIds;
+	}
+	
+	/**
+	 * Select (and lock) the ids of the notes that match the selector (to inform the {@link NoteChangeListener}s about the deleted notes).
+	 */
+	private static List<Integer> selectNoteIds(Connection con, NoteSelector selector) throws SQLException {
+		String query = "SELECT n.id FROM " + DATABASE + "." + TABLE_NOTES + " n " + createSelectorQuery(selector) + " FOR UPDATE;";
+		List<Integer> ids = new ArrayList<Integer>();
+		try (PreparedStatement statement = con.prepareStatement(query)) {
+			addSelectorValues(statement, selector, 1);
+			LOGGER.debug("Executing PreparedStatement: " + statement);
+			try (ResultSet rs = statement.executeQuery()) {
+				while (rs.next()) {
+					ids.add(rs.getInt(1));
+				}
+			}
+		}
+		return ids;
+	}
+	
+	/**
+	 * Check whether the selector selects the notes only by their ids (so the notes can be taken from the {@link NoteCache}).
+	 */
+	/*private */static boolean isSelectedByIds(NoteSelector selector) {
+		return (selector.getIdRelation() == NoteRelation.EQUALS || selector.getIdRelation() == NoteRelation.IN)
+				&& selector.getPriorityRelation() == NoteRelation.NONE && selector.getDateRelation() == NoteRelation.NONE;
+	}
+	
 	/**
 	 * Creates a SQL WHERE clause from the NoteSelector object
 	 * <p>
-	 * Assuming the note table is called 'n' and the execution date table is called 'ex'
+	 * Assuming the note table is called 'n'
 	 * 
 	 * @param selector
 	 * @return
@@ -432,13 +1589,26 @@ public class DatabaseConnection {
 		
 		sb.append("WHERE ");
 		if (selector.getIdRelation() == NoteRelation.NONE && selector.getPriorityRelation() == NoteRelation.NONE
-				&& selector.getDateRelation() == NoteRelation.NONE) {
+				&& selector.getDateRelation() == NoteRelation.NONE && selector.getCursor() == null) {
 			sb.append("1");//no further selection
 		}
 		else {
 			if (selector.getIdRelation() != NoteRelation.NONE) {
 				if (selector.getIdRelation() == NoteRelation.IN) {
-					sb.append("n.id ").append(NoteRelation.IN.getSign()).append(" (?)");
+					sb.append("n.id ").append(NoteRelation.IN.getSign());
+					int inListSize = getInListSize(selector.getIds().size());
+					if (inListSize > 0) {
+						//the number of placeholders is rounded up to a power of two, so there are only a few different statements to prepare
+						sb.append(" (?");
+						for (int i = 1; i < inListSize; i++) {
+							sb.append(", ?");
+						}
+						sb.append(")");
+					}
+					else {
+						//too many ids for an IN list; the ids are inserted into a temporary table (see prepareSelectorIds)
+						sb.append(" (SELECT id FROM ").append(DATABASE).append(".").append(TABLE_SELECTOR_IDS).append(")");
+					}
 				}
 				else {
 					sb.append("n.id ").append(selector.getIdRelation().getSign()).append(" ?");
@@ -456,32 +1626,81 @@ public class DatabaseConnection {
 				if (added) {
 					sb.append(" AND ");
 				}
-				sb.append("ex.execution_date ").append(selector.getDateRelation().getSign()).append(" ?");
+				//a note matches if any of it's execution dates matches
+				sb.append("EXISTS (SELECT 1 FROM ").append(DATABASE).append(".").append(TABLE_EXECUTION_DATES)
+						.append(" ex WHERE ex.note_id = n.id AND ex.execution_date ").append(selector.getDateRelation().getSign()).append(" ?)");
+				added = true;
+			}
+			if (selector.getCursor() != null) {
+				if (added) {
+					sb.append(" AND ");
+				}
+				//keyset pagination: only the notes after the last note of the previous page
+				String comparison = selector.isDescending() ? " < " : " > ";
+				if (selector.getSortKey() == NoteSortKey.ID) {
+					sb.append("n.id").append(comparison).append("?");
+				}
+				else {
+					sb.append("(").append(getSortColumn(selector.getSortKey())).append(", n.id)").append(comparison).append("(?, ?)");
+				}
 			}
 		}
 		
 		return sb.toString();
 	}
+	/**
+	 * Create the ORDER BY clause for the selector's sort key (notes with the same value are ordered by their id, so the order is unique and
+	 * can be used for keyset pagination).
+	 */
+	/*private */static String createOrderQuery(NoteSelector selector) {
+		String direction = selector.isDescending() ? " DESC" : "";
+		if (selector.getSortKey() == NoteSortKey.ID) {
+			return " ORDER BY n.id" + direction;
+		}
+		return " ORDER BY " + getSortColumn(selector.getSortKey()) + direction + ", n.id" + direction;
+	}
+	
+	private static String getSortColumn(NoteSortKey sortKey) {
+		switch (sortKey) {
+			case ID:
+				return "n.id";
+			case PRIORITY:
+				return "n.priority";
+			case EXECUTION_DATE:
+				return "n.first_execution_date";
+			case REMINDER_DATE:
+				return "n.first_reminder_date";
+			default:
+				throw new IllegalArgumentException("Unknown sort key: " + sortKey);
+		}
+	}
+	
 	/**
 	 * Add the selector values to the prepared statement.
 	 * 
+	 * @return The index of the next parameter after the selector values
+	 * 
 	 * @throws SQLException
 	 */
-	private static void addSelectorValues(PreparedStatement statement, NoteSelector selector, int firstIndex) throws SQLException {
+	private static int addSelectorValues(PreparedStatement statement, NoteSelector selector, int firstIndex) throws SQLException {
 		if (!selector.isValid()) {
 			throw new SQLException("The given NoteSelector can't be converted to a valid query: " + selector);
 		}
 		
 		int added = 0;
 		if (selector.getIdRelation() != NoteRelation.NONE) {
-			if (selector.getIds().size() == 1) {
-				statement.setInt(firstIndex + added, selector.getIds().get(0));
-				added++;
+			if (selector.getIdRelation() == NoteRelation.IN) {
+				List<Integer> ids = selector.getIds();
+				int inListSize = getInListSize(ids.size());
+				//fill up the placeholders by repeating the last id (which doesn't change the result)
+				for (int i = 0; i < inListSize; i++) {
+					statement.setInt(firstIndex + added, ids.get(Math.min(i, ids.size() - 1)));
+					added++;
+				}
 			}
 			else {
-				//ids use an IN relation
-				String allIdsAsCsv = selector.getIds().stream().map(i -> Integer.toString(i)).collect(Collectors.joining(","));
-				statement.setString(firstIndex + added, allIdsAsCsv);
+				statement.setInt(firstIndex + added, selector.getIds().get(0));
+				added++;
 			}
 		}
 		if (selector.getPriorityRelation() != NoteRelation.NONE) {
@@ -492,6 +1711,160 @@ public class DatabaseConnection {
 			statement.setObject(firstIndex + added, selector.getDate());
 			added++;
 		}
+		if (selector.getCursor() != null) {
+			NoteCursor cursor = NoteCursor.decode(selector.getCursor());
+			if (selector.getSortKey() != NoteSortKey.ID) {
+				statement.setObject(firstIndex + added, cursor.getLastValue());
+				added++;
+			}
+			statement.setInt(firstIndex + added, cursor.getLastId());
+			added++;
+		}
+		
+		return firstIndex + added;
+	}
+	
+	/**
+	 * Lock the row of the revision counter (until the transaction is committed) without taking a revision. Changes that lock notes before they
+	 * know the number of revisions they need (like a delete) lock the counter first, so all changes take the locks in the same order.
+	 * 
+	 * @throws SQLException
+	 */
+	private static void lockRevisionCounter(Connection con) throws SQLException {
+		String query = "SELECT revision FROM " + DATABASE + "." + TABLE_REVISION_COUNTER + " WHERE id = 1 FOR UPDATE;";
+		try (PreparedStatement statement = con.prepareStatement(query)) {
+			LOGGER.debug("Executing PreparedStatement: " + statement);
+			try (ResultSet rs = statement.executeQuery()) {
+				if (!rs.next()) {
+					throw new SQLException("The revision counter is missing in the table " + TABLE_REVISION_COUNTER);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Take the next revisions from the revision counter. The row of the counter stays locked until the transaction is committed, so the
+	 * changes are committed in the order of their revisions (and a client never misses a change with a lower revision than it's last one).
+	 * 
+	 * @param count
+	 *        The number of revisions that are needed (e.g. one for every created note)
+	 * @return The first of the revisions (the others follow consecutively)
+	 * 
+	 * @throws SQLException
+	 */
+	/*private */static long nextRevisions(Connection con, int count) throws SQLException {
+		String query = "UPDATE " + DATABASE + "." + TABLE_REVISION_COUNTER + " SET revision = LAST_INSERT_ID(revision + ?) WHERE id = 1;";
+		try (PreparedStatement statement = con.prepareStatement(query)) {
+			statement.setInt(1, count);
+			LOGGER.debug("Executing PreparedStatement: " + statement);
+			if (statement.executeUpdate() == 0) {
+				throw new SQLException("The revision counter is missing in the table " + TABLE_REVISION_COUNTER);
+			}
+		}
+		try (Statement statement = con.createStatement(); ResultSet rs = statement.executeQuery("SELECT LAST_INSERT_ID();")) {
+			rs.next();
+			return rs.getLong(1) - count + 1;
+		}
+	}
+	
+	/**
+	 * Add tombstones for the deleted notes (with new revisions), so clients that synchronize their notes can remove them.
+	 * 
+	 * @throws SQLException
+	 */
+	/*private */static void insertTombstones(Connection con, Collection<Integer> ids, int batchSize) throws SQLException {
+		String query = "INSERT INTO " + DATABASE + "." + TABLE_NOTE_TOMBSTONES
+				+ " (note_id, revision) VALUES (?, ?) ON DUPLICATE KEY UPDATE revision = VALUES(revision);";
+		long revision = nextRevisions(con, ids.size());
+		try (PreparedStatement statement = con.prepareStatement(query)) {
+			int batchedRows = 0;
+			for (int id : ids) {
+				statement.setInt(1, id);
+				statement.setLong(2, revision++);
+				statement.addBatch();
+				batchedRows++;
+				
+				if (batchedRows == batchSize) {
+					statement.executeBatch();
+					batchedRows = 0;
+				}
+			}
+			if (batchedRows > 0) {
+				statement.executeBatch();
+			}
+		}
+	}
+	
+	/**
+	 * Recalculate the earliest execution and reminder date of a note (that are stored in the notes table to order the notes by these dates).
+	 * 
+	 * @throws SQLException
+	 */
+	private void updateFirstDates(Connection con, int id) throws SQLException {
+		String query = "UPDATE " + DATABASE + "." + TABLE_NOTES + " n SET "//
+				+ "n.first_execution_date = COALESCE((SELECT MIN(ex.execution_date) FROM " + DATABASE + "." + TABLE_EXECUTION_DATES
+				+ " ex WHERE ex.note_id = n.id), ?), "//
+				+ "n.first_reminder_date = COALESCE((SELECT MIN(re.reminder_date) FROM " + DATABASE + "." + TABLE_REMINDER_DATES
+				+ " re WHERE re.note_id = n.id), ?) "//
+				+ "WHERE n.id = ?;";
+		try (PreparedStatement statement = con.prepareStatement(query)) {
+			statement.setObject(1, NoteSortKey.NO_DATE);
+			statement.setObject(2, NoteSortKey.NO_DATE);
+			statement.setInt(3, id);
+			LOGGER.debug("Executing PreparedStatement: " + statement);
+			statement.executeUpdate();
+		}
+	}
+	
+	/**
+	 * Get the number of placeholders that are used for an IN list of ids.
+	 * 
+	 * @return The number of ids rounded up to the next power of two, or 0 if there are too many ids for an IN list
+	 */
+	/*private */static int getInListSize(int numIds) {
+		if (numIds > MAX_IN_LIST_SIZE) {
+			return 0;
+		}
+		return Integer.highestOneBit(Math.max(numIds, 1) * 2 - 1);
+	}
+	
+	/**
+	 * Insert the ids of the selector into a temporary table, if they are too many to be used in an IN list. The temporary table is only
+	 * visible for the given connection.
+	 * 
+	 * @throws SQLException
+	 */
+	private static void prepareSelectorIds(Connection con, NoteSelector selector, int batchSize) throws SQLException {
+		if (selector.getIdRelation() != NoteRelation.IN || selector.getIds() == null || getInListSize(selector.getIds().size()) > 0) {
+			return;
+		}
+		
+		String queryCreateTable = "CREATE TEMPORARY TABLE IF NOT EXISTS " + DATABASE + "." + TABLE_SELECTOR_IDS
+				+ " (id INT NOT NULL PRIMARY KEY) ENGINE=MEMORY;";
+		String queryClearTable = "DELETE FROM " + DATABASE + "." + TABLE_SELECTOR_IDS + ";";
+		String queryInsertIds = "INSERT IGNORE INTO " + DATABASE + "." + TABLE_SELECTOR_IDS + " (id) VALUES (?);";
+		
+		LOGGER.debug("Inserting " + selector.getIds().size() + " selector ids into a temporary table");
+		try (Statement statement = con.createStatement()) {
+			statement.execute(queryCreateTable);
+			statement.execute(queryClearTable);
+		}
+		try (PreparedStatement statement = con.prepareStatement(queryInsertIds)) {
+			int batchedRows = 0;
+			for (int id : selector.getIds()) {
+				statement.setInt(1, id);
+				statement.addBatch();
+				batchedRows++;
+				
+				if (batchedRows == batchSize) {
+					statement.executeBatch();
+					batchedRows = 0;
+				}
+			}
+			if (batchedRows > 0) {
+				statement.executeBatch();
+			}
+		}
 	}
 	
 	/**
@@ -506,44 +1879,100 @@ public class DatabaseConnection {
 	 * @throws SQLException
 	 */
 	private void insertExecutionAndReminderDates(Connection con, Note note, int id) throws SQLException {
+		insertExecutionAndReminderDates(con, Collections.singletonList(note), Collections.singletonList(id));
+	}
+	
+	/**
+	 * Insert the execution dates and reminder dates of multiple notes to the database (using batches)
+	 *
+	 * @param con
+	 * @param notes
+	 *        The notes that contain the dates that are to be added
+	 * @param ids
+	 *        The ids of the notes in the database (in the same order as the notes)
+	 * 
+	 * @throws SQLException
+	 */
+	private void insertExecutionAndReminderDates(Connection con, List<Note> notes, List<Integer> ids) throws SQLException {
 		String queryExecutionDates = "INSERT INTO " + DATABASE + "." + TABLE_EXECUTION_DATES
 				+ " (`id`, `note_id`, `execution_date`) VALUES (\"0\", ?, ?);";
 		String queryReminderDates = "INSERT INTO " + DATABASE + "." + TABLE_REMINDER_DATES
 				+ " (`id`, `note_id`, `reminder_date`) VALUES (\"0\", ?, ?);";
 		
 		//add the note execution dates to the execution dates table
-		if (note.getExecutionDates() != null && !note.getExecutionDates().isEmpty()) {
-			try (PreparedStatement statement = con.prepareStatement(queryExecutionDates)) {
-				for (LocalDateTime executionTime : note.getExecutionDates()) {
-					statement.setInt(1, id);
-					statement.setObject(2, executionTime);//detection and conversation of LocalDateTime is done automatically
-					
-					LOGGER.debug("Executing PreparedStatement: " + statement);
-					int affectedRows = statement.executeUpdate();
-					
-					if (affectedRows == 0) {
-						throw new SQLException("Inserting data to execution_dates table failed. No ID obtained.");
+		insertDates(con, queryExecutionDates, TABLE_EXECUTION_DATES, notes, ids, Note::getExecutionDates);
+		
+		//add the note reminder dates to the reminder dates table
+		insertDates(con, queryReminderDates, TABLE_REMINDER_DATES, notes, ids, Note::getReminderDates);
+	}
+	
+	private <T> void insertDates(Connection con, String query, String table, List<T> notes, List<Integer> ids,
+			Function<T, List<LocalDateTime>> dates) throws SQLException {
+		if (notes.stream().map(dates).allMatch(noteDates -> noteDates == null || noteDates.isEmpty())) {
+			return;
+		}
+		
+		try (PreparedStatement statement = con.prepareStatement(query)) {
+			int batchedRows = 0;
+			for (int i = 0; i < notes.size(); i++) {
+				List<LocalDateTime> noteDates = dates.apply(notes.get(i));
+				if (noteDates != null) {
+					for (LocalDateTime date : noteDates) {
+						statement.setInt(1, ids.get(i));
+						statement.setObject(2, date);//detection and conversation of LocalDateTime is done automatically
+						statement.addBatch();
+						batchedRows++;
+						
+						if (batchedRows == batchSize) {
+							executeInsertBatch(statement, table, batchedRows);
+							batchedRows = 0;
+						}
 					}
 				}
 			}
+			if (batchedRows > 0) {
+				executeInsertBatch(statement, table, batchedRows);
+			}
+		}
+	}
+	
+	private void executeInsertBatch(PreparedStatement statement, String table, int batchedRows) throws SQLException {
+		LOGGER.debug("Executing batch of " + batchedRows + " inserts to the table " + table);
+		int[] affectedRows = statement.executeBatch();
+		for (int rows : affectedRows) {
+			if (rows == 0) {
+				throw new SQLException("Inserting data to " + table + " table failed. No affected rows.");
+			}
+		}
+	}
+	
+	/**
+	 * Delete single dates of a note (using a batch)
+	 * 
+	 * @return The number of deleted rows
+	 */
+	private int deleteDates(Connection con, String query, int id, List<LocalDateTime> dates) throws SQLException {
+		if (dates == null || dates.isEmpty()) {
+			return 0;
 		}
 		
-		//add the note execution dates to the execution dates table
-		if (note.getReminderDates() != null && !note.getReminderDates().isEmpty()) {
-			try (PreparedStatement statement = con.prepareStatement(queryReminderDates)) {
-				for (LocalDateTime reminderTime : note.getReminderDates()) {
-					statement.setInt(1, id);
-					statement.setObject(2, reminderTime);//detection and conversation of LocalDateTime is done automatically
-					
-					LOGGER.debug("Executing PreparedStatement: " + statement);
-					int affectedRows = statement.executeUpdate();
-					
-					if (affectedRows == 0) {
-						throw new SQLException("Inserting data to reminder_dates table failed. No ID obtained.");
-					}
-				}
+		int deletedRows = 0;
+		try (PreparedStatement statement = con.prepareStatement(query)) {
+			for (LocalDateTime date : dates) {
+				statement.setInt(1, id);
+				statement.setObject(2, date);
+				statement.addBatch();
+			}
+			LOGGER.debug("Executing batch of " + dates.size() + " deletes: " + query);
+			for (int rows : statement.executeBatch()) {
+				deletedRows += Math.max(rows, 0);
 			}
 		}
+		return deletedRows;
+	}
+	
+	private static int sizeOf(List<?> list) {
+		return list == null ? 0 : list.size();
 	}
 	
 	/**
@@ -0,0 +1,135 @@
+package net.jfabricationgames.notebook.db;
+
+import static net.jfabricationgames.notebook.db.DatabaseConnection.DATABASE;
+import static net.jfabricationgames.notebook.db.DatabaseConnection.TABLE_EXECUTION_DATES;
+import static net.jfabricationgames.notebook.db.DatabaseConnection.TABLE_NOTES;
+import static net.jfabricationgames.notebook.db.DatabaseConnection.TABLE_NOTE_TOMBSTONES;
+import static net.jfabricationgames.notebook.db.DatabaseConnection.TABLE_REMINDER_DATES;
+import static net.jfabricationgames.notebook.db.DatabaseConnection.TABLE_REVISION_COUNTER;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The versioned changes of the database schema. The migrations are executed in the order of their versions (by the
+ * {@link DatabaseMigrator}) and every migration is executed only once for a database.
+ * <p>
+ * Existing migrations mussn't be changed (because they were already executed on existing databases); every change of the schema has to be
+ * added as a new migration with the next version.
+ *
+ * @author Tobias Faßbender
+ */
+public enum DatabaseMigration {
+	
+	/**
+	 * The initial tables (that were created before there were migrations, so the tables may already exist)
+	 */
+	V1_CREATE_TABLES(1, "create the tables notes, execution_dates and reminder_dates", //
+			"CREATE TABLE IF NOT EXISTS " + DATABASE + "." + TABLE_NOTES + " ("//
+					+ "id INT NOT NULL PRIMARY KEY AUTO_INCREMENT, "//
+					+ "headline VARCHAR(150), "//
+					+ "note_text TEXT, "//
+					+ "priority INT "//
+					+ ");", //
+			"CREATE TABLE IF NOT EXISTS " + DATABASE + "." + TABLE_EXECUTION_DATES + " ("//
+					+ "id INT NOT NULL PRIMARY KEY AUTO_INCREMENT, "//
+					+ "note_id INT NOT NULL, "//
+					+ "execution_date DATETIME, "//
+					+ "FOREIGN KEY (note_id) REFERENCES " + DATABASE + "." + TABLE_NOTES + "(id) ON DELETE CASCADE "//
+					+ ");", //
+			"CREATE TABLE IF NOT EXISTS " + DATABASE + "." + TABLE_REMINDER_DATES + " ("//
+					+ "id INT NOT NULL PRIMARY KEY AUTO_INCREMENT, "//
+					+ "note_id INT NOT NULL, "//
+					+ "reminder_date DATETIME, "//
+					+ "FOREIGN KEY (note_id) REFERENCES " + DATABASE + "." + TABLE_NOTES + "(id) ON DELETE CASCADE "//
+					+ ");"), //
+	/**
+	 * Indexes for the date and priority selectors (that were full table scans before)
+	 */
+	V2_ADD_SELECTOR_INDEXES(2, "add indexes for the date and priority selectors", //
+			"CREATE INDEX idx_execution_date_note_id ON " + DATABASE + "." + TABLE_EXECUTION_DATES + " (execution_date, note_id);", //
+			"CREATE INDEX idx_reminder_date_note_id ON " + DATABASE + "." + TABLE_REMINDER_DATES + " (reminder_date, note_id);", //
+			"CREATE INDEX idx_priority_id ON " + DATABASE + "." + TABLE_NOTES + " (priority, id);"), //
+	/**
+	 * The earliest execution and reminder date of every note (to order the notes by these dates using an index). Notes without dates use the
+	 * date {@link net.jfabricationgames.notebook.note.NoteSortKey#NO_DATE}, so they are ordered after all other notes.
+	 */
+	V3_ADD_FIRST_DATES(3, "add the earliest execution and reminder date to the notes", //
+			"ALTER TABLE " + DATABASE + "." + TABLE_NOTES + " "//
+					+ "ADD COLUMN first_execution_date DATETIME NOT NULL DEFAULT '9999-12-31 23:59:59', "//
+					+ "ADD COLUMN first_reminder_date DATETIME NOT NULL DEFAULT '9999-12-31 23:59:59';", //
+			"UPDATE " + DATABASE + "." + TABLE_NOTES + " n SET "//
+					+ "n.first_execution_date = COALESCE((SELECT MIN(ex.execution_date) FROM " + DATABASE + "." + TABLE_EXECUTION_DATES
+					+ " ex WHERE ex.note_id = n.id), '9999-12-31 23:59:59'), "//
+					+ "n.first_reminder_date = COALESCE((SELECT MIN(re.reminder_date) FROM " + DATABASE + "." + TABLE_REMINDER_DATES
+					+ " re WHERE re.note_id = n.id), '9999-12-31 23:59:59');", //
+			"CREATE INDEX idx_first_execution_date_id ON " + DATABASE + "." + TABLE_NOTES + " (first_execution_date, id);", //
+			"CREATE INDEX idx_first_reminder_date_id ON " + DATABASE + "." + TABLE_NOTES + " (first_reminder_date, id);"), //
+	/**
+	 * A full-text index for the search in the headlines and texts of the notes (see
+	 * {@link DatabaseConnection#searchNotes(net.jfabricationgames.notebook.note.NoteSearch)})
+	 */
+	V4_ADD_FULLTEXT_INDEX(4, "add a full-text index on the headline and text of the notes", //
+			"CREATE FULLTEXT INDEX ft_headline_note_text ON " + DATABASE + "." + TABLE_NOTES + " (headline, note_text);"), //
+	/**
+	 * A revision of every note and tombstones of the deleted notes, to synchronize clients incrementally (see
+	 * {@link DatabaseConnection#getChangesSince(net.jfabricationgames.notebook.note.NoteChangeRequest)}). The revisions are taken from a single
+	 * counter, so the revisions of the notes and the tombstones are unique.
+	 * <p>
+	 * The tables and the counter row are only created if they don't exist, so the migration can be executed again if it failed after the
+	 * first statements (the DDL statements commit the previous statements in mysql).
+	 */
+	V5_ADD_REVISIONS(5, "add revisions to the notes and tombstones of the deleted notes", //
+			"CREATE TABLE IF NOT EXISTS " + DATABASE + "." + TABLE_REVISION_COUNTER + " ("//
+					+ "id INT NOT NULL PRIMARY KEY, "//
+					+ "revision BIGINT NOT NULL "//
+					+ ");", //
+			"INSERT IGNORE INTO " + DATABASE + "." + TABLE_REVISION_COUNTER + " (id, revision) VALUES (1, 0);", //
+			"ALTER TABLE " + DATABASE + "." + TABLE_NOTES + " ADD COLUMN revision BIGINT NOT NULL DEFAULT 0;", //
+			"CREATE INDEX idx_revision ON " + DATABASE + "." + TABLE_NOTES + " (revision);", //
+			"CREATE TABLE IF NOT EXISTS " + DATABASE + "." + TABLE_NOTE_TOMBSTONES + " ("//
+					+ "note_id INT NOT NULL PRIMARY KEY, "//
+					+ "revision BIGINT NOT NULL, "//
+					+ "INDEX idx_tombstone_revision (revision) "//
+					+ ");"), //
+	/**
+	 * Revisions for the notes that existed before {@link #V5_ADD_REVISIONS} (that have the revision 0, so they were never returned as
+	 * changes). Every note gets a revision after the current counter (ordered by the ids) and the counter is moved to the last of them.
+	 */
+	V6_BACKFILL_REVISIONS(6, "add revisions to the notes that existed before the revisions were added", //
+			"UPDATE " + DATABASE + "." + TABLE_NOTES + " n, " + DATABASE + "." + TABLE_REVISION_COUNTER + " c "//
+					+ "SET n.revision = c.revision + n.id WHERE c.id = 1 AND n.revision = 0;", //
+			"UPDATE " + DATABASE + "." + TABLE_REVISION_COUNTER + " SET revision = GREATEST(revision, "//
+					+ "(SELECT COALESCE(MAX(n.revision), 0) FROM " + DATABASE + "." + TABLE_NOTES + " n)) WHERE id = 1;");
+	
+	private final int version;
+	private final String description;
+	private final List<String> statements;
+	
+	private DatabaseMigration(int version, String description, String... statements) {
+		this.version = version;
+		this.description = description;
+		this.statements = Collections.unmodifiableList(Arrays.asList(statements));
+	}
+	
+	/**
+	 * Get the version of the newest migration (the version of a database after all migrations were executed)
+	 */
+	public static int getLatestVersion() {
+		DatabaseMigration[] migrations = values();
+		return migrations[migrations.length - 1].getVersion();
+	}
+	
+	public int getVersion() {
+		return version;
+	}
+	
+	public String getDescription() {
+		return description;
+	}
+	
+	public List<String> getStatements() {
+		return statements;
+	}
+}
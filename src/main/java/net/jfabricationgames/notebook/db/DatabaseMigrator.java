@@ -0,0 +1,139 @@
+package net.jfabricationgames.notebook.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Brings the database schema to the latest version by executing all {@link DatabaseMigration}s that were not yet executed. The executed
+ * versions are stored in the table schema_version.
+ * <p>
+ * A named lock is held while migrating, so multiple instances of the service, that are started at the same time, don't execute the same
+ * migration twice.
+ *
+ * @author Tobias Faßbender
+ */
+class DatabaseMigrator {
+	
+	private static final Logger LOGGER = LogManager.getLogger(DatabaseMigrator.class);
+	
+	public static final String TABLE_SCHEMA_VERSION = "schema_version";
+	
+	private static final String MIGRATION_LOCK = DatabaseConnection.DATABASE + ".schema_migration";
+	private static final int MIGRATION_LOCK_TIMEOUT_SECONDS = 60;
+	
+	/**
+	 * The mysql error codes for a column or an index that already exists (the column or index of a migration may already be created if the
+	 * migration failed after creating it; DDL statements can't be rolled back in mysql)
+	 */
+	private static final int ER_DUP_FIELDNAME = 1060;
+	private static final int ER_DUP_KEYNAME = 1061;
+	
+	private final Connection connection;
+	
+	public DatabaseMigrator(Connection connection) {
+		this.connection = connection;
+	}
+	
+	/**
+	 * Execute all migrations that were not yet executed on the database.
+	 *
+	 * @return The number of executed migrations
+	 *
+	 * @throws SQLException
+	 */
+	public int migrate() throws SQLException {
+		acquireLock();
+		try {
+			createSchemaVersionTableIfNotExists();
+			int currentVersion = getCurrentVersion();
+			LOGGER.info("Current schema version is " + currentVersion + "; latest version is " + DatabaseMigration.getLatestVersion());
+			
+			int executed = 0;
+			for (DatabaseMigration migration : DatabaseMigration.values()) {
+				if (migration.getVersion() > currentVersion) {
+					execute(migration);
+					executed++;
+				}
+			}
+			return executed;
+		}
+		finally {
+			releaseLock();
+		}
+	}
+	
+	private void execute(DatabaseMigration migration) throws SQLException {
+		LOGGER.info("Executing migration " + migration.getVersion() + " (" + migration.getDescription() + ")");
+		try (Statement statement = connection.createStatement()) {
+			for (String query : migration.getStatements()) {
+				LOGGER.info("Sending query: " + query);
+				try {
+					statement.execute(query);
+				}
+				catch (SQLException sqle) {
+					if (sqle.getErrorCode() != ER_DUP_FIELDNAME && sqle.getErrorCode() != ER_DUP_KEYNAME) {
+						throw sqle;
+					}
+					LOGGER.warn("The column or index already exists; skipping the query: " + query);
+				}
+			}
+		}
+		
+		String queryAddVersion = "INSERT INTO " + DatabaseConnection.DATABASE + "." + TABLE_SCHEMA_VERSION
+				+ " (version, description, executed) VALUES (?, ?, NOW());";
+		try (PreparedStatement statement = connection.prepareStatement(queryAddVersion)) {
+			statement.setInt(1, migration.getVersion());
+			statement.setString(2, migration.getDescription());
+			statement.execute();
+			connection.commit();
+		}
+		catch (SQLException sqle) {
+			connection.rollback();
+			throw sqle;
+		}
+	}
+	
+	private void createSchemaVersionTableIfNotExists() throws SQLException {
+		String queryCreateTable = "CREATE TABLE IF NOT EXISTS " + DatabaseConnection.DATABASE + "." + TABLE_SCHEMA_VERSION + " ("//
+				+ "version INT NOT NULL PRIMARY KEY, "//
+				+ "description VARCHAR(255), "//
+				+ "executed DATETIME NOT NULL"//
+				+ ");";
+		try (Statement statement = connection.createStatement()) {
+			statement.execute(queryCreateTable);
+		}
+	}
+	
+	private int getCurrentVersion() throws SQLException {
+		String query = "SELECT MAX(version) FROM " + DatabaseConnection.DATABASE + "." + TABLE_SCHEMA_VERSION + ";";
+		try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(query)) {
+			//MAX of an empty table is NULL, which is read as 0
+			return rs.next() ? rs.getInt(1) : 0;
+		}
+	}
+	
+	private void acquireLock() throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, ?);")) {
+			statement.setString(1, MIGRATION_LOCK);
+			statement.setInt(2, MIGRATION_LOCK_TIMEOUT_SECONDS);
+			try (ResultSet rs = statement.executeQuery()) {
+				if (!rs.next() || rs.getInt(1) != 1) {
+					throw new SQLException("The lock for the schema migration couldn't be acquired within " + MIGRATION_LOCK_TIMEOUT_SECONDS + " seconds");
+				}
+			}
+		}
+	}
+	
+	private void releaseLock() throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement("SELECT RELEASE_LOCK(?);")) {
+			statement.setString(1, MIGRATION_LOCK);
+			statement.execute();
+		}
+	}
+}
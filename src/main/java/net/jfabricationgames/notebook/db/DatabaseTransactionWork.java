@@ -0,0 +1,12 @@
+package net.jfabricationgames.notebook.db;
+
+import java.sql.SQLException;
+
+/**
+ * Some work that is executed in one database transaction (see {@link DatabaseConnection#executeInTransaction(DatabaseTransactionWork)}).
+ */
+@FunctionalInterface
+public interface DatabaseTransactionWork<T> {
+	
+	public T execute() throws SQLException;
+}
@@ -0,0 +1,276 @@
+package net.jfabricationgames.notebook.db;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import net.jfabricationgames.notebook.note.Note;
+import net.jfabricationgames.notebook.note.NoteRelation;
+import net.jfabricationgames.notebook.note.NoteSelector;
+
+/**
+ * Holds all notes in memory and selects the notes that match a {@link NoteSelector} using indexes (by id, by priority and by the execution
+ * and reminder dates), so no query is sent to the database.
+ * <p>
+ * The store is filled and updated by the {@link DatabaseConnection} (the database stays the persistent storage, every change is written to
+ * the database first and then to the store). The notes in the store are shared between the requests, so they mussn't be changed.
+ *
+ * @author Tobias Faßbender
+ */
+public class InMemoryNoteStore {
+	
+	private final Map<Integer, Note> notesById = new HashMap<Integer, Note>();
+	private final NavigableMap<Integer, Set<Integer>> idsByPriority = new TreeMap<Integer, Set<Integer>>();
+	private final NavigableMap<LocalDateTime, Set<Integer>> idsByExecutionDate = new TreeMap<LocalDateTime, Set<Integer>>();
+	private final NavigableMap<LocalDateTime, Set<Integer>> idsByReminderDate = new TreeMap<LocalDateTime, Set<Integer>>();
+	
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	
+	/**
+	 * Add a note to the store (or replace the stored note with the same id).
+	 */
+	public void put(Note note) {
+		lock.writeLock().lock();
+		try {
+			removeFromIndexes(note.getId());
+			addToIndexes(note);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Replace the notes with the given ids by their current state (ids without a note in the current state are removed).
+	 */
+	public void replace(Collection<Integer> ids, Collection<Note> currentNotes) {
+		lock.writeLock().lock();
+		try {
+			for (int id : ids) {
+				removeFromIndexes(id);
+			}
+			for (Note note : currentNotes) {
+				removeFromIndexes(note.getId());
+				addToIndexes(note);
+			}
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return notesById.size();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Get the notes that match the selector (ordered by the selector's sort key, after the selector's cursor and up to the limit).
+	 */
+	public List<Note> getNotes(NoteSelector selector, Integer limit) {
+		if (!selector.isValid()) {
+			throw new IllegalArgumentException("The given NoteSelector is not valid: " + selector);
+		}
+		
+		List<Note> matching = new ArrayList<Note>();
+		lock.readLock().lock();
+		try {
+			Set<Integer> ids = selector.getIdRelation() == NoteRelation.IN ? new HashSet<Integer>(selector.getIds()) : null;
+			for (Note note : selectCandidates(selector)) {
+				if (matches(selector, ids, note)) {
+					matching.add(note);
+				}
+			}
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+		
+		return selector.getPage(matching, limit);
+	}
+	
+	/**
+	 * Get the notes that have a reminder date in the range [from, to) (ordered by the id).
+	 */
+	public List<Note> getNotesByReminderDate(LocalDateTime from, LocalDateTime to) {
+		lock.readLock().lock();
+		try {
+			Set<Integer> ids = new TreeSet<Integer>(getIds(idsByReminderDate.subMap(from, true, to, false)));
+			return getNotes(ids);
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Select the notes that can match the selector using the most selective index.
+	 */
+	private Collection<Note> selectCandidates(NoteSelector selector) {
+		if (selector.getIdRelation() == NoteRelation.EQUALS || selector.getIdRelation() == NoteRelation.IN) {
+			return getNotes(new HashSet<Integer>(selector.getIds()));
+		}
+		if (selector.getPriorityRelation() != NoteRelation.NONE) {
+			return getNotes(getIds(selectRange(idsByPriority, selector.getPriorityRelation(), selector.getPriority())));
+		}
+		if (selector.getDateRelation() != NoteRelation.NONE) {
+			return getNotes(getIds(selectRange(idsByExecutionDate, selector.getDateRelation(), selector.getDate())));
+		}
+		return notesById.values();
+	}
+	
+	private List<Note> getNotes(Set<Integer> ids) {
+		List<Note> notes = new ArrayList<Note>(ids.size());
+		for (int id : ids) {
+			Note note = notesById.get(id);
+			if (note != null) {
+				notes.add(note);
+			}
+		}
+		return notes;
+	}
+	
+	private static Set<Integer> getIds(NavigableMap<?, Set<Integer>> range) {
+		Set<Integer> ids = new HashSet<Integer>();
+		for (Set<Integer> bucket : range.values()) {
+			ids.addAll(bucket);
+		}
+		return ids;
+	}
+	
+	/**
+	 * Select the entries of an index, which keys have the relation to the value.
+	 */
+	/*private */static <K> NavigableMap<K, Set<Integer>> selectRange(NavigableMap<K, Set<Integer>> index, NoteRelation relation, K value) {
+		switch (relation) {
+			case EQUALS:
+				return index.subMap(value, true, value, true);
+			case GREATER:
+			case AFTER:
+				return index.tailMap(value, false);
+			case GREATER_EQUALS:
+				return index.tailMap(value, true);
+			case LESS:
+			case BEFORE:
+				return index.headMap(value, false);
+			case LESS_EQUALS:
+				return index.headMap(value, true);
+			default:
+				throw new IllegalArgumentException("The relation " + relation + " can't be used for a range");
+		}
+	}
+	
+	/**
+	 * Check whether the note matches all relations of the selector (a note matches a date relation if any of it's execution dates matches,
+	 * like in the database).
+	 */
+	private static boolean matches(NoteSelector selector, Set<Integer> ids, Note note) {
+		if (selector.getIdRelation() != NoteRelation.NONE) {
+			boolean idMatches = selector.getIdRelation() == NoteRelation.IN ? ids.contains(note.getId())
+					: matches(selector.getIdRelation(), Integer.compare(note.getId(), selector.getIds().get(0)));
+			if (!idMatches) {
+				return false;
+			}
+		}
+		if (selector.getPriorityRelation() != NoteRelation.NONE
+				&& !matches(selector.getPriorityRelation(), Integer.compare(note.getPriority(), selector.getPriority()))) {
+			return false;
+		}
+		if (selector.getDateRelation() != NoteRelation.NONE) {
+			boolean dateMatches = false;
+			if (note.getExecutionDates() != null) {
+				for (LocalDateTime date : note.getExecutionDates()) {
+					dateMatches |= matches(selector.getDateRelation(), date.compareTo(selector.getDate()));
+				}
+			}
+			if (!dateMatches) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Check whether the result of a comparison satisfies the relation.
+	 */
+	private static boolean matches(NoteRelation relation, int comparison) {
+		switch (relation) {
+			case EQUALS:
+				return comparison == 0;
+			case GREATER:
+			case AFTER:
+				return comparison > 0;
+			case GREATER_EQUALS:
+				return comparison >= 0;
+			case LESS:
+			case BEFORE:
+				return comparison < 0;
+			case LESS_EQUALS:
+				return comparison <= 0;
+			default:
+				throw new IllegalArgumentException("Unexpected relation: " + relation);
+		}
+	}
+	
+	private void addToIndexes(Note note) {
+		notesById.put(note.getId(), note);
+		addToIndex(idsByPriority, note.getPriority(), note.getId());
+		if (note.getExecutionDates() != null) {
+			for (LocalDateTime date : note.getExecutionDates()) {
+				addToIndex(idsByExecutionDate, date, note.getId());
+			}
+		}
+		if (note.getReminderDates() != null) {
+			for (LocalDateTime date : note.getReminderDates()) {
+				addToIndex(idsByReminderDate, date, note.getId());
+			}
+		}
+	}
+	
+	private void removeFromIndexes(int id) {
+		Note note = notesById.remove(id);
+		if (note == null) {
+			return;
+		}
+		removeFromIndex(idsByPriority, note.getPriority(), id);
+		if (note.getExecutionDates() != null) {
+			for (LocalDateTime date : note.getExecutionDates()) {
+				removeFromIndex(idsByExecutionDate, date, id);
+			}
+		}
+		if (note.getReminderDates() != null) {
+			for (LocalDateTime date : note.getReminderDates()) {
+				removeFromIndex(idsByReminderDate, date, id);
+			}
+		}
+	}
+	
+	private static <K> void addToIndex(NavigableMap<K, Set<Integer>> index, K key, int id) {
+		index.computeIfAbsent(key, k -> new TreeSet<Integer>()).add(id);
+	}
+	
+	private static <K> void removeFromIndex(NavigableMap<K, Set<Integer>> index, K key, int id) {
+		Set<Integer> ids = index.get(key);
+		if (ids != null) {
+			ids.remove(id);
+			if (ids.isEmpty()) {
+				index.remove(key);
+			}
+		}
+	}
+}
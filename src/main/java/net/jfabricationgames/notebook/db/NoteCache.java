@@ -0,0 +1,98 @@
+package net.jfabricationgames.notebook.db;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import net.jfabricationgames.notebook.config.NoteBookConfiguration;
+import net.jfabricationgames.notebook.note.Note;
+
+/**
+ * A bounded cache of the notes that were read by their ids. The cache is limited by the (estimated) size of the notes and uses the
+ * admission policy of caffeine (W-TinyLFU), so a large query doesn't replace the frequently read notes. Cached notes are removed when they
+ * are changed by the {@link DatabaseConnection} and after a configured time.
+ * <p>
+ * The cached notes are shared between the requests, so they mussn't be changed.
+ *
+ * @author Tobias Faßbender
+ */
+public class NoteCache implements NoteChangeListener {
+	
+	/**
+	 * The estimated size of a note without texts and dates (in bytes)
+	 */
+	private static final int NOTE_WEIGHT = 64;
+	private static final int DATE_WEIGHT = 48;
+	
+	private final Cache<Integer, Note> cache;
+	
+	/**
+	 * Counts the changes, so notes that were read before a change are not added to the cache after it
+	 */
+	private long generation;
+	
+	public NoteCache(NoteBookConfiguration configuration) {
+		cache = Caffeine.newBuilder()//
+				.maximumWeight(configuration.getLong("cache.notes.maximumWeight", 64L * 1024 * 1024))//
+				.weigher((Integer id, Note note) -> estimateWeight(note))//
+				.expireAfterWrite(configuration.getLong("cache.notes.expireAfterWriteSeconds", 300), TimeUnit.SECONDS)//
+				.recordStats()//
+				.build();
+	}
+	
+	/*private */static int estimateWeight(Note note) {
+		return NOTE_WEIGHT + 2 * (length(note.getHeadline()) + length(note.getNoteText()))
+				+ DATE_WEIGHT * (size(note.getExecutionDates()) + size(note.getReminderDates()));
+	}
+	private static int length(String text) {
+		return text == null ? 0 : text.length();
+	}
+	private static int size(List<LocalDateTime> dates) {
+		return dates == null ? 0 : dates.size();
+	}
+	
+	/**
+	 * Get the cached notes with the given ids (notes that are not cached are missing in the result).
+	 */
+	public Map<Integer, Note> getAll(Collection<Integer> ids) {
+		return cache.getAllPresent(ids);
+	}
+	
+	/**
+	 * Get the current generation, that has to be passed to {@link #putAll(Collection, long)} for the notes that are read afterwards.
+	 */
+	public synchronized long getGeneration() {
+		return generation;
+	}
+	
+	/**
+	 * Add notes to the cache, if no notes were changed since the generation was requested (otherwise the notes may be outdated).
+	 */
+	public synchronized void putAll(Collection<Note> notes, long readGeneration) {
+		if (readGeneration != generation) {
+			return;
+		}
+		for (Note note : notes) {
+			cache.put(note.getId(), note);
+		}
+	}
+	
+	@Override
+	public synchronized void notesChanged(Set<Integer> ids) {
+		generation++;
+		cache.invalidateAll(ids);
+	}
+	
+	/**
+	 * Get a snapshot of the statistics of the cache as a bean that can be serialized to JSON.
+	 */
+	public CacheStatistics getStatistics() {
+		return CacheStatistics.of(cache);
+	}
+}
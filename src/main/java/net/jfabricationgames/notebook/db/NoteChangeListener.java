@@ -0,0 +1,24 @@
+package net.jfabricationgames.notebook.db;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Is informed about the notes that were created, changed or deleted by the {@link DatabaseConnection}. The listeners are informed after the
+ * changes were committed (or after the transaction was rolled back, in which case the notes may be unchanged).
+ */
+@FunctionalInterface
+public interface NoteChangeListener {
+	
+	public void notesChanged(Set<Integer> ids);
+	
+	/**
+	 * Is informed about the kind of the changes, after {@link #notesChanged(Set)} was called (only if the changes were committed).
+	 * 
+	 * @param changes
+	 *        The kind of the change of every changed note (a note that was changed multiple times in one transaction is contained once)
+	 */
+	public default void notesCommitted(Map<Integer, NoteChangeType> changes) {
+		//most listeners only need the ids of the changed notes
+	}
+}
@@ -0,0 +1,74 @@
+package net.jfabricationgames.notebook.db;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The {@link NoteChangeListener}s of the {@link DatabaseConnection} and the write version, that counts the changes of the notes.
+ *
+ * @author Tobias Faßbender
+ */
+class NoteChangeListeners {
+	
+	private static final Logger LOGGER = LogManager.getLogger(NoteChangeListeners.class);
+	
+	private final List<NoteChangeListener> listeners = new CopyOnWriteArrayList<NoteChangeListener>();
+	/**
+	 * Counts the changes of the notes (after all listeners were informed), so the results of the queries can be validated without reading the
+	 * notes
+	 */
+	private final AtomicLong writeVersion = new AtomicLong();
+	
+	public void add(NoteChangeListener listener) {
+		listeners.add(listener);
+	}
+	
+	public void remove(NoteChangeListener listener) {
+		listeners.remove(listener);
+	}
+	
+	/**
+	 * Get the write version, that is increased after the listeners were informed about a change.
+	 */
+	public long getWriteVersion() {
+		return writeVersion.get();
+	}
+	
+	/**
+	 * Inform all listeners about the changes and increase the write version afterwards.
+	 * <p>
+	 * The version is increased after the caches were invalidated by their listeners, so a result that is read after the new version was
+	 * requested can't contain cached notes from before the change (a result that is read before is tagged with the old version).
+	 */
+	public void fireNotesChanged(Map<Integer, NoteChangeType> changes, boolean committed) {
+		if (changes.isEmpty()) {
+			return;
+		}
+		Set<Integer> changedIds = Collections.unmodifiableSet(new HashSet<Integer>(changes.keySet()));
+		Map<Integer, NoteChangeType> committedChanges = Collections.unmodifiableMap(changes);
+		try {
+			for (NoteChangeListener listener : listeners) {
+				try {
+					listener.notesChanged(changedIds);
+					if (committed) {
+						listener.notesCommitted(committedChanges);
+					}
+				}
+				catch (RuntimeException re) {
+					LOGGER.error("A NoteChangeListener failed", re);
+				}
+			}
+		}
+		finally {
+			writeVersion.incrementAndGet();
+		}
+	}
+}
@@ -0,0 +1,23 @@
+package net.jfabricationgames.notebook.db;
+
+/**
+ * The kind of a change of a note (see {@link NoteChangeListener#notesCommitted(java.util.Map)}).
+ *
+ * @author Tobias Faßbender
+ */
+public enum NoteChangeType {
+	
+	CREATED, //
+	UPDATED, //
+	DELETED;
+	
+	/**
+	 * Combine this change with a later change of the same note in the same transaction (e.g. a note that is created and updated is created).
+	 */
+	public NoteChangeType merge(NoteChangeType later) {
+		if (this == CREATED && later == UPDATED) {
+			return CREATED;
+		}
+		return later;
+	}
+}
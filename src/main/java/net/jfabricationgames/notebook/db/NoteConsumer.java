@@ -0,0 +1,13 @@
+package net.jfabricationgames.notebook.db;
+
+import net.jfabricationgames.notebook.note.Note;
+
+/**
+ * Receives the notes of a query one by one while the result is read from the database (see
+ * {@link DatabaseConnection#streamNotes(net.jfabricationgames.notebook.note.NoteSelector, NoteConsumer)}).
+ */
+@FunctionalInterface
+public interface NoteConsumer<E extends Exception> {
+	
+	public void accept(Note note) throws E;
+}
@@ -0,0 +1,130 @@
+package net.jfabricationgames.notebook.db;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import net.jfabricationgames.notebook.config.NoteBookConfiguration;
+import net.jfabricationgames.notebook.note.Note;
+import net.jfabricationgames.notebook.note.NoteSelector;
+
+/**
+ * A cache for the results of queries, that are identified by the canonical form of their {@link NoteSelector} (see
+ * {@link NoteSelector#toCanonical()}).
+ * <p>
+ * Every change of a note increases the write generation, that is a part of the key of every result. So a result is only used until the
+ * next note is changed and a result that was read while a note was changed is never used.
+ *
+ * @author Tobias Faßbender
+ */
+public class NoteQueryCache implements NoteChangeListener {
+	
+	private final Cache<QueryKey, List<Note>> cache;
+	
+	private final AtomicLong writeGeneration = new AtomicLong();
+	
+	public NoteQueryCache(NoteBookConfiguration configuration) {
+		cache = Caffeine.newBuilder()//
+				.maximumWeight(configuration.getLong("cache.queries.maximumNotes", 100000))//
+				.weigher((QueryKey key, List<Note> notes) -> notes.size() + 1)//
+				.expireAfterWrite(configuration.getLong("cache.queries.expireAfterWriteSeconds", 300), TimeUnit.SECONDS)//
+				.recordStats()//
+				.build();
+	}
+	
+	/**
+	 * Get the current write generation, that has to be passed to {@link #get(long, NoteSelector, Integer)} and
+	 * {@link #put(long, NoteSelector, Integer, List)} (it has to be requested before the query is executed).
+	 */
+	public long getWriteGeneration() {
+		return writeGeneration.get();
+	}
+	
+	/**
+	 * Get the cached result of the query (or null if the result is not cached).
+	 */
+	public List<Note> get(long generation, NoteSelector selector, Integer limit) {
+		return cache.getIfPresent(new QueryKey(generation, selector.toCanonical(), limit));
+	}
+	
+	/**
+	 * Add the result of a query to the cache (the result is unmodifiable afterwards).
+	 *
+	 * @return The (unmodifiable) result
+	 */
+	public List<Note> put(long generation, NoteSelector selector, Integer limit, List<Note> notes) {
+		List<Note> result = Collections.unmodifiableList(notes);
+		if (generation == writeGeneration.get()) {
+			cache.put(new QueryKey(generation, selector.toCanonical(), limit), result);
+		}
+		return result;
+	}
+	
+	@Override
+	public void notesChanged(Set<Integer> ids) {
+		writeGeneration.incrementAndGet();
+		//the results of the old generations can't be used anymore
+		cache.invalidateAll();
+	}
+	
+	/**
+	 * Get a snapshot of the statistics of the cache as a bean that can be serialized to JSON.
+	 */
+	public CacheStatistics getStatistics() {
+		return CacheStatistics.of(cache);
+	}
+	
+	private static class QueryKey {
+		
+		private final long generation;
+		private final NoteSelector selector;
+		private final Integer limit;
+		
+		public QueryKey(long generation, NoteSelector selector, Integer limit) {
+			this.generation = generation;
+			this.selector = selector;
+			this.limit = limit;
+		}
+		
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + (int) (generation ^ (generation >>> 32));
+			result = prime * result + ((selector == null) ? 0 : selector.hashCode());
+			result = prime * result + ((limit == null) ? 0 : limit.hashCode());
+			return result;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			QueryKey other = (QueryKey) obj;
+			if (generation != other.generation)
+				return false;
+			if (selector == null) {
+				if (other.selector != null)
+					return false;
+			}
+			else if (!selector.equals(other.selector))
+				return false;
+			if (limit == null) {
+				if (other.limit != null)
+					return false;
+			}
+			else if (!limit.equals(other.limit))
+				return false;
+			return true;
+		}
+	}
+}
@@ -0,0 +1,149 @@
+package net.jfabricationgames.notebook.db;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The reminder dates of the notes in a time window (e.g. a week before and after now), ordered by the date, so the reminders that are due
+ * in a range are found in O(log n) instead of scanning the reminder dates in the database.
+ * <p>
+ * The index is filled and updated by the {@link DatabaseConnection}: the window is loaded when a range outside of the current window is
+ * requested and the reminders of changed notes are replaced after every change. The index is not thread safe (the DatabaseConnection
+ * synchronizes on it).
+ *
+ * @author Tobias Faßbender
+ */
+public class ReminderIndex {
+	
+	private final NavigableMap<LocalDateTime, Set<Integer>> idsByDate = new TreeMap<LocalDateTime, Set<Integer>>();
+	private final Map<Integer, List<LocalDateTime>> datesById = new HashMap<Integer, List<LocalDateTime>>();
+	
+	/**
+	 * The range [windowStart, windowEnd) of the indexed reminders (null if no window is loaded)
+	 */
+	private LocalDateTime windowStart;
+	private LocalDateTime windowEnd;
+	
+	/**
+	 * Whether a window is loaded (otherwise all requests have to load the window first)
+	 */
+	public boolean isLoaded() {
+		return windowStart != null;
+	}
+	
+	/**
+	 * Check whether the range [from, to) is in the window of the index.
+	 */
+	public boolean covers(LocalDateTime from, LocalDateTime to) {
+		return windowStart != null && !from.isBefore(windowStart) && !to.isAfter(windowEnd);
+	}
+	
+	private boolean isInWindow(LocalDateTime date) {
+		return windowStart != null && !date.isBefore(windowStart) && date.isBefore(windowEnd);
+	}
+	
+	/**
+	 * Replace the indexed reminders by the reminders of a new window.
+	 */
+	public void loadWindow(LocalDateTime start, LocalDateTime end, Collection<Reminder> reminders) {
+		clear();
+		for (Reminder reminder : reminders) {
+			add(reminder);
+		}
+		windowStart = start;
+		windowEnd = end;
+	}
+	
+	/**
+	 * Remove all reminders and the window (so the window has to be loaded again).
+	 */
+	public void clear() {
+		idsByDate.clear();
+		datesById.clear();
+		windowStart = null;
+		windowEnd = null;
+	}
+	
+	/**
+	 * Replace the reminders of the notes with the given ids by their current reminders (only the reminders in the window are added).
+	 */
+	public void replace(Collection<Integer> ids, Collection<Reminder> currentReminders) {
+		for (int id : ids) {
+			List<LocalDateTime> dates = datesById.remove(id);
+			if (dates != null) {
+				for (LocalDateTime date : dates) {
+					Set<Integer> idsAtDate = idsByDate.get(date);
+					idsAtDate.remove(id);
+					if (idsAtDate.isEmpty()) {
+						idsByDate.remove(date);
+					}
+				}
+			}
+		}
+		for (Reminder reminder : currentReminders) {
+			if (isInWindow(reminder.getDate())) {
+				add(reminder);
+			}
+		}
+	}
+	
+	private void add(Reminder reminder) {
+		idsByDate.computeIfAbsent(reminder.getDate(), date -> new TreeSet<Integer>()).add(reminder.getNoteId());
+		datesById.computeIfAbsent(reminder.getNoteId(), id -> new ArrayList<LocalDateTime>()).add(reminder.getDate());
+	}
+	
+	/**
+	 * Get the reminders in the range [from, to), ordered by the date and the note id (the range has to be covered by the window).
+	 */
+	public List<Reminder> getReminders(LocalDateTime from, LocalDateTime to) {
+		if (!covers(from, to)) {
+			throw new IllegalArgumentException("The range [" + from + ", " + to + ") is not in the window of the index");
+		}
+		List<Reminder> reminders = new ArrayList<Reminder>();
+		for (Map.Entry<LocalDateTime, Set<Integer>> entry : idsByDate.subMap(from, true, to, false).entrySet()) {
+			for (int id : entry.getValue()) {
+				reminders.add(new Reminder(id, entry.getKey()));
+			}
+		}
+		return reminders;
+	}
+	
+	public int size() {
+		return datesById.values().stream().mapToInt(List::size).sum();
+	}
+	
+	/**
+	 * A reminder date of a note.
+	 */
+	public static class Reminder {
+		
+		private final int noteId;
+		private final LocalDateTime date;
+		
+		public Reminder(int noteId, LocalDateTime date) {
+			this.noteId = noteId;
+			this.date = date;
+		}
+		
+		@Override
+		public String toString() {
+			return "Reminder [noteId=" + noteId + ", date=" + date + "]";
+		}
+		
+		public int getNoteId() {
+			return noteId;
+		}
+		
+		public LocalDateTime getDate() {
+			return date;
+		}
+	}
+}
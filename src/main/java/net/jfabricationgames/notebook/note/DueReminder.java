@@ -0,0 +1,43 @@
+package net.jfabricationgames.notebook.note;
+
+import java.time.LocalDateTime;
+
+/**
+ * A reminder date of a note that is due in a {@link ReminderRange} (a note with multiple reminders in the range is contained once for
+ * every reminder).
+ *
+ * @author Tobias Faßbender
+ */
+public class DueReminder {
+	
+	private LocalDateTime reminderDate;
+	private Note note;
+	
+	public DueReminder() {
+		//default constructor for java bean convention
+	}
+	
+	public DueReminder(LocalDateTime reminderDate, Note note) {
+		this.reminderDate = reminderDate;
+		this.note = note;
+	}
+	
+	@Override
+	public String toString() {
+		return "DueReminder [reminderDate=" + reminderDate + ", note=" + note + "]";
+	}
+	
+	public LocalDateTime getReminderDate() {
+		return reminderDate;
+	}
+	public void setReminderDate(LocalDateTime reminderDate) {
+		this.reminderDate = reminderDate;
+	}
+	
+	public Note getNote() {
+		return note;
+	}
+	public void setNote(Note note) {
+		this.note = note;
+	}
+}
@@ -0,0 +1,53 @@
+package net.jfabricationgames.notebook.note;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Requests the changes of the notes (changed notes and ids of deleted notes) after a revision, to synchronize a client incrementally.
+ *
+ * @author Tobias Faßbender
+ */
+public class NoteChangeRequest {
+	
+	/**
+	 * The revision of the last synchronization (the revision of the last {@link NoteChanges}, or 0 for the first synchronization)
+	 */
+	private long revision;
+	/**
+	 * The maximum number of changes (null to use the configured maximum)
+	 */
+	private Integer limit;
+	
+	public NoteChangeRequest() {
+		//default constructor for java bean convention
+	}
+	
+	public NoteChangeRequest(long revision, Integer limit) {
+		this.revision = revision;
+		this.limit = limit;
+	}
+	
+	@JsonIgnore
+	public boolean isValid() {
+		return revision >= 0 && (limit == null || limit > 0);
+	}
+	
+	@Override
+	public String toString() {
+		return "NoteChangeRequest [revision=" + revision + ", limit=" + limit + "]";
+	}
+	
+	public long getRevision() {
+		return revision;
+	}
+	public void setRevision(long revision) {
+		this.revision = revision;
+	}
+	
+	public Integer getLimit() {
+		return limit;
+	}
+	public void setLimit(Integer limit) {
+		this.limit = limit;
+	}
+}
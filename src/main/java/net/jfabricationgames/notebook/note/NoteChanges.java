@@ -0,0 +1,66 @@
+package net.jfabricationgames.notebook.note;
+
+import java.util.List;
+
+/**
+ * The changes of the notes after a revision: the created or changed notes (in their current state) and the ids of the deleted notes.
+ *
+ * @author Tobias Faßbender
+ */
+public class NoteChanges {
+	
+	private List<Note> notes;
+	private List<Integer> deletedIds;
+	/**
+	 * The revision of the last change in this result (to be sent with the next request)
+	 */
+	private long revision;
+	/**
+	 * Whether there are more changes after the revision (that were not returned because of the limit)
+	 */
+	private boolean moreChanges;
+	
+	public NoteChanges() {
+		//default constructor for java bean convention
+	}
+	
+	public NoteChanges(List<Note> notes, List<Integer> deletedIds, long revision, boolean moreChanges) {
+		this.notes = notes;
+		this.deletedIds = deletedIds;
+		this.revision = revision;
+		this.moreChanges = moreChanges;
+	}
+	
+	@Override
+	public String toString() {
+		return "NoteChanges [notes=" + notes + ", deletedIds=" + deletedIds + ", revision=" + revision + ", moreChanges=" + moreChanges + "]";
+	}
+	
+	public List<Note> getNotes() {
+		return notes;
+	}
+	public void setNotes(List<Note> notes) {
+		this.notes = notes;
+	}
+	
+	public List<Integer> getDeletedIds() {
+		return deletedIds;
+	}
+	public void setDeletedIds(List<Integer> deletedIds) {
+		this.deletedIds = deletedIds;
+	}
+	
+	public long getRevision() {
+		return revision;
+	}
+	public void setRevision(long revision) {
+		this.revision = revision;
+	}
+	
+	public boolean isMoreChanges() {
+		return moreChanges;
+	}
+	public void setMoreChanges(boolean moreChanges) {
+		this.moreChanges = moreChanges;
+	}
+}
@@ -0,0 +1,119 @@
+package net.jfabricationgames.notebook.note;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * The position after the last note of a page (used for keyset pagination, so the next page is selected by the position of the last note
+ * instead of an offset, that would have to be skipped by the database). In a descending order the next page contains the notes before the
+ * position (e.g. the notes with lower ids).
+ * <p>
+ * The position consists of the value of the {@link NoteSortKey} and the id of the last note. The cursor is sent to the clients as an opaque
+ * string, that is created by {@link #encode()} and read by {@link #decode(String)}.
+ *
+ * @author Tobias Faßbender
+ */
+public class NoteCursor {
+	
+	private static final String ID_PREFIX = "id=";
+	private static final String KEY_PREFIX = "&key=";
+	private static final String VALUE_PREFIX = "&value=";
+	
+	private final int lastId;
+	private final NoteSortKey sortKey;
+	private final Comparable<?> lastValue;
+	
+	/**
+	 * Create a cursor for notes that are ordered by their id.
+	 */
+	public NoteCursor(int lastId) {
+		this(lastId, NoteSortKey.ID, lastId);
+	}
+	
+	public NoteCursor(int lastId, NoteSortKey sortKey, Comparable<?> lastValue) {
+		this.lastId = lastId;
+		this.sortKey = sortKey;
+		this.lastValue = lastValue;
+	}
+	
+	/**
+	 * Create a cursor that points behind the note (using the value of the sort key).
+	 */
+	public static NoteCursor after(Note note, NoteSortKey sortKey) {
+		return new NoteCursor(note.getId(), sortKey, sortKey.getValue(note));
+	}
+	
+	/**
+	 * Create a cursor from it's string representation (see {@link #encode()}).
+	 *
+	 * @throws IllegalArgumentException
+	 *         An IllegalArgumentException is thrown if the string is not a valid cursor
+	 */
+	public static NoteCursor decode(String cursor) throws IllegalArgumentException {
+		if (cursor == null) {
+			throw new IllegalArgumentException("The cursor mussn't be null");
+		}
+		String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+		if (!decoded.startsWith(ID_PREFIX)) {
+			throw new IllegalArgumentException("Invalid cursor: " + cursor);
+		}
+		try {
+			int keyStart = decoded.indexOf(KEY_PREFIX);
+			if (keyStart == -1) {
+				return new NoteCursor(Integer.parseInt(decoded.substring(ID_PREFIX.length())));
+			}
+			int valueStart = decoded.indexOf(VALUE_PREFIX, keyStart);
+			if (valueStart == -1) {
+				throw new IllegalArgumentException("Invalid cursor: " + cursor);
+			}
+			int lastId = Integer.parseInt(decoded.substring(ID_PREFIX.length(), keyStart));
+			NoteSortKey sortKey = NoteSortKey.valueOf(decoded.substring(keyStart + KEY_PREFIX.length(), valueStart));
+			return new NoteCursor(lastId, sortKey, sortKey.parseValue(decoded.substring(valueStart + VALUE_PREFIX.length())));
+		}
+		catch (RuntimeException re) {
+			//NumberFormatException, DateTimeParseException or IllegalArgumentException of an unknown sort key
+			throw new IllegalArgumentException("Invalid cursor: " + cursor, re);
+		}
+	}
+	
+	/**
+	 * Check whether the string is a cursor that can be decoded.
+	 */
+	public static boolean isValid(String cursor) {
+		try {
+			decode(cursor);
+			return true;
+		}
+		catch (IllegalArgumentException iae) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Encode the cursor to an opaque string that can be sent to the client.
+	 */
+	public String encode() {
+		String position = ID_PREFIX + lastId;
+		if (sortKey != NoteSortKey.ID) {
+			position += KEY_PREFIX + sortKey.name() + VALUE_PREFIX + lastValue;
+		}
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	@Override
+	public String toString() {
+		return "NoteCursor [lastId=" + lastId + ", sortKey=" + sortKey + ", lastValue=" + lastValue + "]";
+	}
+	
+	public int getLastId() {
+		return lastId;
+	}
+	
+	public NoteSortKey getSortKey() {
+		return sortKey;
+	}
+	
+	public Comparable<?> getLastValue() {
+		return lastValue;
+	}
+}
@@ -0,0 +1,65 @@
+package net.jfabricationgames.notebook.note;
+
+import java.time.LocalDateTime;
+
+/**
+ * An event that is sent to the subscribers of the service when a note was changed or a reminder is due.
+ * <p>
+ * The events are numbered by a sequence, that is used to continue a subscription after a reconnect (as the id of a server-sent event or
+ * the parameter 'after' of a long poll).
+ *
+ * @author Tobias Faßbender
+ */
+public class NoteEvent {
+	
+	private long sequence;
+	private NoteEventType type;
+	private Integer noteId;
+	/**
+	 * The reminder date that was reached (only for REMINDER_DUE events)
+	 */
+	private LocalDateTime reminderDate;
+	
+	public NoteEvent() {
+		//default constructor for java bean convention
+	}
+	
+	public NoteEvent(NoteEventType type, Integer noteId, LocalDateTime reminderDate) {
+		this.type = type;
+		this.noteId = noteId;
+		this.reminderDate = reminderDate;
+	}
+	
+	@Override
+	public String toString() {
+		return "NoteEvent [sequence=" + sequence + ", type=" + type + ", noteId=" + noteId + ", reminderDate=" + reminderDate + "]";
+	}
+	
+	public long getSequence() {
+		return sequence;
+	}
+	public void setSequence(long sequence) {
+		this.sequence = sequence;
+	}
+	
+	public NoteEventType getType() {
+		return type;
+	}
+	public void setType(NoteEventType type) {
+		this.type = type;
+	}
+	
+	public Integer getNoteId() {
+		return noteId;
+	}
+	public void setNoteId(Integer noteId) {
+		this.noteId = noteId;
+	}
+	
+	public LocalDateTime getReminderDate() {
+		return reminderDate;
+	}
+	public void setReminderDate(LocalDateTime reminderDate) {
+		this.reminderDate = reminderDate;
+	}
+}
@@ -0,0 +1,57 @@
+package net.jfabricationgames.notebook.note;
+
+import java.util.List;
+
+/**
+ * The events that are returned by a long poll: the events after the requested sequence and the sequence to request the next events.
+ *
+ * @author Tobias Faßbender
+ */
+public class NoteEventBatch {
+	
+	private List<NoteEvent> events;
+	/**
+	 * The sequence of the last event (to be sent as parameter 'after' of the next poll)
+	 */
+	private long lastSequence;
+	/**
+	 * Whether some events after the requested sequence are not available anymore (so the client has to reload the notes)
+	 */
+	private boolean eventsMissed;
+	
+	public NoteEventBatch() {
+		//default constructor for java bean convention
+	}
+	
+	public NoteEventBatch(List<NoteEvent> events, long lastSequence, boolean eventsMissed) {
+		this.events = events;
+		this.lastSequence = lastSequence;
+		this.eventsMissed = eventsMissed;
+	}
+	
+	@Override
+	public String toString() {
+		return "NoteEventBatch [events=" + events + ", lastSequence=" + lastSequence + ", eventsMissed=" + eventsMissed + "]";
+	}
+	
+	public List<NoteEvent> getEvents() {
+		return events;
+	}
+	public void setEvents(List<NoteEvent> events) {
+		this.events = events;
+	}
+	
+	public long getLastSequence() {
+		return lastSequence;
+	}
+	public void setLastSequence(long lastSequence) {
+		this.lastSequence = lastSequence;
+	}
+	
+	public boolean isEventsMissed() {
+		return eventsMissed;
+	}
+	public void setEventsMissed(boolean eventsMissed) {
+		this.eventsMissed = eventsMissed;
+	}
+}
@@ -0,0 +1,21 @@
+package net.jfabricationgames.notebook.note;
+
+/**
+ * The kinds of {@link NoteEvent}s that are sent to the subscribers of the service.
+ *
+ * @author Tobias Faßbender
+ */
+public enum NoteEventType {
+	
+	NOTE_CREATED, //
+	NOTE_UPDATED, //
+	NOTE_DELETED, //
+	/**
+	 * A reminder date of the note was reached
+	 */
+	REMINDER_DUE, //
+	/**
+	 * The subscriber was too slow (or reconnected too late) and some events were dropped, so the client has to reload the notes
+	 */
+	EVENTS_MISSED;
+}
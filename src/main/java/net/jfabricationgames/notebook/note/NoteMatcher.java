@@ -0,0 +1,147 @@
+package net.jfabricationgames.notebook.note;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * The relations of a {@link NoteSelector}, compiled to primitive bounds, so the notes can be matched without unboxing, searching lists or
+ * creating objects for every note (see {@link NoteSelector#compile()}).
+ * <p>
+ * A matcher is immutable, so it can be reused for many lists and by multiple threads (also if the selector is changed afterwards).
+ *
+ * @author Tobias Faßbender
+ */
+public final class NoteMatcher implements Predicate<Note> {
+	
+	/**
+	 * The minimum number of notes for which a parallel matching makes sense (for smaller lists the overhead of the fork-join pool is too big)
+	 */
+	public static final int PARALLEL_THRESHOLD = 10000;
+	
+	//inclusive bounds of the id and the priority (as long, so the bounds of GREATER and LESS can't overflow)
+	private final long minId;
+	private final long maxId;
+	private final long minPriority;
+	private final long maxPriority;
+	
+	/**
+	 * The sorted and distinct ids of an IN relation (or null if the relation is not IN)
+	 */
+	private final int[] ids;
+	
+	/**
+	 * The date of the date relation (or null if the relation is NONE) and the accepted signs of the comparison of a note's date to it
+	 */
+	private final LocalDateTime date;
+	private final int minDateComparison;
+	private final int maxDateComparison;
+	
+	/*private */NoteMatcher(NoteSelector selector) {
+		NoteRelation idRelation = selector.getIdRelation();
+		if (idRelation == NoteRelation.IN) {
+			ids = selector.getIds().stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+			//the bounds reject most of the notes without a search
+			minId = ids[0];
+			maxId = ids[ids.length - 1];
+		}
+		else {
+			ids = null;
+			long value = idRelation == NoteRelation.NONE ? 0 : selector.getIds().get(0);
+			minId = getMinimum(idRelation, value);
+			maxId = getMaximum(idRelation, value);
+		}
+		
+		minPriority = getMinimum(selector.getPriorityRelation(), selector.getPriority());
+		maxPriority = getMaximum(selector.getPriorityRelation(), selector.getPriority());
+		
+		if (selector.getDateRelation() != NoteRelation.NONE) {
+			date = selector.getDate();
+			minDateComparison = (int) Math.max(-1, getMinimum(selector.getDateRelation(), 0));
+			maxDateComparison = (int) Math.min(1, getMaximum(selector.getDateRelation(), 0));
+		}
+		else {
+			date = null;
+			minDateComparison = -1;
+			maxDateComparison = 1;
+		}
+	}
+	
+	private static long getMinimum(NoteRelation relation, long value) {
+		switch (relation) {
+			case EQUALS:
+			case GREATER_EQUALS:
+				return value;
+			case GREATER:
+			case AFTER:
+				return value + 1;
+			default:
+				return Long.MIN_VALUE;
+		}
+	}
+	
+	private static long getMaximum(NoteRelation relation, long value) {
+		switch (relation) {
+			case EQUALS:
+			case LESS_EQUALS:
+				return value;
+			case LESS:
+			case BEFORE:
+				return value - 1;
+			default:
+				return Long.MAX_VALUE;
+		}
+	}
+	
+	/**
+	 * Check whether the note matches all relations of the selector (a note matches a date relation if any of it's execution dates matches,
+	 * like in the database).
+	 */
+	@Override
+	public boolean test(Note note) {
+		int id = note.getId();
+		if (id < minId || id > maxId || (ids != null && Arrays.binarySearch(ids, id) < 0)) {
+			return false;
+		}
+		int priority = note.getPriority();
+		if (priority < minPriority || priority > maxPriority) {
+			return false;
+		}
+		if (date != null) {
+			List<LocalDateTime> executionDates = note.getExecutionDates();
+			if (executionDates == null) {
+				return false;
+			}
+			for (LocalDateTime executionDate : executionDates) {
+				int comparison = Integer.signum(executionDate.compareTo(date));
+				if (comparison >= minDateComparison && comparison <= maxDateComparison) {
+					return true;
+				}
+			}
+			return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Get the matching notes (in the order of the list).
+	 * 
+	 * @param parallel
+	 *        Match the notes in the common fork-join pool (only useful for large lists; see {@link #PARALLEL_THRESHOLD})
+	 */
+	public List<Note> filter(List<Note> notes, boolean parallel) {
+		if (parallel) {
+			return notes.parallelStream().filter(this).collect(Collectors.toList());
+		}
+		List<Note> matching = new ArrayList<Note>();
+		for (Note note : notes) {
+			if (test(note)) {
+				matching.add(note);
+			}
+		}
+		return matching;
+	}
+}
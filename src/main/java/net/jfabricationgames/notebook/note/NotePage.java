@@ -0,0 +1,42 @@
+package net.jfabricationgames.notebook.note;
+
+import java.util.List;
+
+/**
+ * A page of notes that match a {@link NoteSelector} and the cursor to request the next page (or null if there are no more notes).
+ *
+ * @author Tobias Faßbender
+ */
+public class NotePage {
+	
+	private List<Note> notes;
+	private String nextCursor;
+	
+	public NotePage() {
+		//default constructor for java bean convention
+	}
+	
+	public NotePage(List<Note> notes, String nextCursor) {
+		this.notes = notes;
+		this.nextCursor = nextCursor;
+	}
+	
+	@Override
+	public String toString() {
+		return "NotePage [notes=" + notes + ", nextCursor=" + nextCursor + "]";
+	}
+	
+	public List<Note> getNotes() {
+		return notes;
+	}
+	public void setNotes(List<Note> notes) {
+		this.notes = notes;
+	}
+	
+	public String getNextCursor() {
+		return nextCursor;
+	}
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+}
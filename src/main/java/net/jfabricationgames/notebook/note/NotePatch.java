@@ -0,0 +1,194 @@
+package net.jfabricationgames.notebook.note;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * The changes of a note. Fields that are null are not changed. The execution and reminder dates are changed by adding or removing single
+ * dates (instead of replacing all dates of the note).
+ * 
+ * @author Tobias Faßbender
+ */
+public class NotePatch {
+	
+	private int id;
+	private String headline;
+	private String noteText;
+	private Integer priority;
+	private List<LocalDateTime> addedExecutionDates;
+	private List<LocalDateTime> removedExecutionDates;
+	private List<LocalDateTime> addedReminderDates;
+	private List<LocalDateTime> removedReminderDates;
+	
+	public NotePatch() {
+		//default constructor for java bean convention
+	}
+	
+	public NotePatch(int id) {
+		this.id = id;
+	}
+	
+	/**
+	 * Whether any of the fields of the note (headline, text or priority) is changed
+	 */
+	@JsonIgnore
+	public boolean isFieldChanged() {
+		return headline != null || noteText != null || priority != null;
+	}
+	
+	/**
+	 * Whether any of the execution or reminder dates is added or removed
+	 */
+	@JsonIgnore
+	public boolean isDateChanged() {
+		return !isEmpty(addedExecutionDates) || !isEmpty(removedExecutionDates) || !isEmpty(addedReminderDates) || !isEmpty(removedReminderDates);
+	}
+	
+	/**
+	 * Whether the patch doesn't change anything
+	 */
+	@JsonIgnore
+	public boolean isEmpty() {
+		return !isFieldChanged() && !isDateChanged();
+	}
+	
+	private static boolean isEmpty(List<LocalDateTime> dates) {
+		return dates == null || dates.isEmpty();
+	}
+	
+	@Override
+	public String toString() {
+		return "NotePatch [id=" + id + ", headline=" + headline + ", noteText=" + noteText + ", priority=" + priority + ", addedExecutionDates="
+				+ addedExecutionDates + ", removedExecutionDates=" + removedExecutionDates + ", addedReminderDates=" + addedReminderDates
+				+ ", removedReminderDates=" + removedReminderDates + "]";
+	}
+	
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((addedExecutionDates == null) ? 0 : addedExecutionDates.hashCode());
+		result = prime * result + ((addedReminderDates == null) ? 0 : addedReminderDates.hashCode());
+		result = prime * result + ((headline == null) ? 0 : headline.hashCode());
+		result = prime * result + id;
+		result = prime * result + ((noteText == null) ? 0 : noteText.hashCode());
+		result = prime * result + ((priority == null) ? 0 : priority.hashCode());
+		result = prime * result + ((removedExecutionDates == null) ? 0 : removedExecutionDates.hashCode());
+		result = prime * result + ((removedReminderDates == null) ? 0 : removedReminderDates.hashCode());
+		return result;
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		NotePatch other = (NotePatch) obj;
+		if (addedExecutionDates == null) {
+			if (other.addedExecutionDates != null)
+				return false;
+		}
+		else if (!addedExecutionDates.equals(other.addedExecutionDates))
+			return false;
+		if (addedReminderDates == null) {
+			if (other.addedReminderDates != null)
+				return false;
+		}
+		else if (!addedReminderDates.equals(other.addedReminderDates))
+			return false;
+		if (headline == null) {
+			if (other.headline != null)
+				return false;
+		}
+		else if (!headline.equals(other.headline))
+			return false;
+		if (id != other.id)
+			return false;
+		if (noteText == null) {
+			if (other.noteText != null)
+				return false;
+		}
+		else if (!noteText.equals(other.noteText))
+			return false;
+		if (priority == null) {
+			if (other.priority != null)
+				return false;
+		}
+		else if (!priority.equals(other.priority))
+			return false;
+		if (removedExecutionDates == null) {
+			if (other.removedExecutionDates != null)
+				return false;
+		}
+		else if (!removedExecutionDates.equals(other.removedExecutionDates))
+			return false;
+		if (removedReminderDates == null) {
+			if (other.removedReminderDates != null)
+				return false;
+		}
+		else if (!removedReminderDates.equals(other.removedReminderDates))
+			return false;
+		return true;
+	}
+	
+	public int getId() {
+		return id;
+	}
+	public void setId(int id) {
+		this.id = id;
+	}
+	
+	public String getHeadline() {
+		return headline;
+	}
+	public void setHeadline(String headline) {
+		this.headline = headline;
+	}
+	
+	public String getNoteText() {
+		return noteText;
+	}
+	public void setNoteText(String noteText) {
+		this.noteText = noteText;
+	}
+	
+	public Integer getPriority() {
+		return priority;
+	}
+	public void setPriority(Integer priority) {
+		this.priority = priority;
+	}
+	
+	public List<LocalDateTime> getAddedExecutionDates() {
+		return addedExecutionDates;
+	}
+	public void setAddedExecutionDates(List<LocalDateTime> addedExecutionDates) {
+		this.addedExecutionDates = addedExecutionDates;
+	}
+	
+	public List<LocalDateTime> getRemovedExecutionDates() {
+		return removedExecutionDates;
+	}
+	public void setRemovedExecutionDates(List<LocalDateTime> removedExecutionDates) {
+		this.removedExecutionDates = removedExecutionDates;
+	}
+	
+	public List<LocalDateTime> getAddedReminderDates() {
+		return addedReminderDates;
+	}
+	public void setAddedReminderDates(List<LocalDateTime> addedReminderDates) {
+		this.addedReminderDates = addedReminderDates;
+	}
+	
+	public List<LocalDateTime> getRemovedReminderDates() {
+		return removedReminderDates;
+	}
+	public void setRemovedReminderDates(List<LocalDateTime> removedReminderDates) {
+		this.removedReminderDates = removedReminderDates;
+	}
+}
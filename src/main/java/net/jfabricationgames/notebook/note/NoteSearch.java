@@ -0,0 +1,92 @@
+package net.jfabricationgames.notebook.note;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * A full-text search for notes, which headline or text contain the words of the query. The results can be filtered by a
+ * {@link NoteSelector} and are ordered by their relevance.
+ *
+ * @author Tobias Faßbender
+ */
+public class NoteSearch {
+	
+	private String query;
+	private NoteSearchMode mode;
+	
+	/**
+	 * The relations that the found notes have to match additionally (or null to search all notes). The order, limit and cursor of the
+	 * selector are not used, because the results are ordered by their relevance.
+	 */
+	private NoteSelector selector;
+	
+	/**
+	 * The maximum number of notes that are returned (or null for all notes) and the number of notes that are skipped
+	 */
+	private Integer limit;
+	private int offset;
+	
+	public NoteSearch() {
+		//default constructor for java bean convention
+		mode = NoteSearchMode.NATURAL_LANGUAGE;
+	}
+	
+	public NoteSearch(String query, NoteSearchMode mode) {
+		this.query = query;
+		this.mode = mode;
+	}
+	
+	@JsonIgnore
+	public boolean isValid() {
+		boolean valid = true;
+		
+		valid &= (query != null && !query.trim().isEmpty());
+		valid &= (mode != null);
+		//the selector only filters the notes (the pages are selected by the limit and offset of the search)
+		valid &= (selector == null || (selector.isValid() && selector.getCursor() == null));
+		valid &= (limit == null || limit > 0);
+		//an offset can only be used with a limit
+		valid &= (offset >= 0 && (offset == 0 || limit != null));
+		
+		return valid;
+	}
+	
+	@Override
+	public String toString() {
+		return "NoteSearch [query=" + query + ", mode=" + mode + ", selector=" + selector + ", limit=" + limit + ", offset=" + offset + "]";
+	}
+	
+	public String getQuery() {
+		return query;
+	}
+	public void setQuery(String query) {
+		this.query = query;
+	}
+	
+	public NoteSearchMode getMode() {
+		return mode;
+	}
+	public void setMode(NoteSearchMode mode) {
+		this.mode = mode;
+	}
+	
+	public NoteSelector getSelector() {
+		return selector;
+	}
+	public void setSelector(NoteSelector selector) {
+		this.selector = selector;
+	}
+	
+	public Integer getLimit() {
+		return limit;
+	}
+	public void setLimit(Integer limit) {
+		this.limit = limit;
+	}
+	
+	public int getOffset() {
+		return offset;
+	}
+	public void setOffset(int offset) {
+		this.offset = offset;
+	}
+}
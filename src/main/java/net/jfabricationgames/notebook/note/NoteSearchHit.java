@@ -0,0 +1,40 @@
+package net.jfabricationgames.notebook.note;
+
+/**
+ * A note that was found by a {@link NoteSearch} and it's relevance for the query (higher is more relevant).
+ *
+ * @author Tobias Faßbender
+ */
+public class NoteSearchHit {
+	
+	private Note note;
+	private double relevance;
+	
+	public NoteSearchHit() {
+		//default constructor for java bean convention
+	}
+	
+	public NoteSearchHit(Note note, double relevance) {
+		this.note = note;
+		this.relevance = relevance;
+	}
+	
+	@Override
+	public String toString() {
+		return "NoteSearchHit [note=" + note + ", relevance=" + relevance + "]";
+	}
+	
+	public Note getNote() {
+		return note;
+	}
+	public void setNote(Note note) {
+		this.note = note;
+	}
+	
+	public double getRelevance() {
+		return relevance;
+	}
+	public void setRelevance(double relevance) {
+		this.relevance = relevance;
+	}
+}
@@ -0,0 +1,31 @@
+package net.jfabricationgames.notebook.note;
+
+/**
+ * The ways in which the query of a {@link NoteSearch} is interpreted (the modes of the MySQL full-text search).
+ *
+ * @author Tobias Faßbender
+ */
+public enum NoteSearchMode {
+	
+	/**
+	 * The query is a list of words; notes that contain any of the words match (ordered by the relevance)
+	 */
+	NATURAL_LANGUAGE("IN NATURAL LANGUAGE MODE"), //
+	/**
+	 * The query can use operators: +word (required), -word (excluded), word* (prefix) and "a phrase" (the words in this order)
+	 */
+	BOOLEAN("IN BOOLEAN MODE");
+	
+	private final String modifier;
+	
+	private NoteSearchMode(String modifier) {
+		this.modifier = modifier;
+	}
+	
+	/**
+	 * The search modifier of the MATCH ... AGAINST expression
+	 */
+	public String getModifier() {
+		return modifier;
+	}
+}
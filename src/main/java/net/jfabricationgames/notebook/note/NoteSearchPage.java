@@ -0,0 +1,43 @@
+package net.jfabricationgames.notebook.note;
+
+import java.util.List;
+
+/**
+ * A page of the results of a {@link NoteSearch} (ordered by the relevance) and the offset of the next page (or null if there are no more
+ * results).
+ *
+ * @author Tobias Faßbender
+ */
+public class NoteSearchPage {
+	
+	private List<NoteSearchHit> hits;
+	private Integer nextOffset;
+	
+	public NoteSearchPage() {
+		//default constructor for java bean convention
+	}
+	
+	public NoteSearchPage(List<NoteSearchHit> hits, Integer nextOffset) {
+		this.hits = hits;
+		this.nextOffset = nextOffset;
+	}
+	
+	@Override
+	public String toString() {
+		return "NoteSearchPage [hits=" + hits + ", nextOffset=" + nextOffset + "]";
+	}
+	
+	public List<NoteSearchHit> getHits() {
+		return hits;
+	}
+	public void setHits(List<NoteSearchHit> hits) {
+		this.hits = hits;
+	}
+	
+	public Integer getNextOffset() {
+		return nextOffset;
+	}
+	public void setNextOffset(Integer nextOffset) {
+		this.nextOffset = nextOffset;
+	}
+}
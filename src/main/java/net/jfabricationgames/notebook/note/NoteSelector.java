@@ -1,6 +1,7 @@
 package net.jfabricationgames.notebook.note;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -29,6 +30,21 @@ public class NoteSelector {
 	private NoteRelation dateRelation;
 	private NoteRelation priorityRelation;
 	
+	/**
+	 * The order of the selected notes (notes with the same value are ordered by their id)
+	 */
+	private NoteSortKey sortKey;
+	private boolean descending;
+	
+	/**
+	 * The maximum number of notes that are selected (or null for all matching notes)
+	 */
+	private Integer limit;
+	/**
+	 * The position after which the notes are selected (see {@link NoteCursor}) or null to select from the first note
+	 */
+	private String cursor;
+	
 	private transient static final Logger LOGGER = LogManager.getLogger(NoteSelector.class);
 	
 	public NoteSelector() {
@@ -36,6 +52,7 @@ public class NoteSelector {
 		idRelation = NoteRelation.NONE;
 		dateRelation = NoteRelation.NONE;
 		priorityRelation = NoteRelation.NONE;
+		sortKey = NoteSortKey.ID;
 	}
 	
 	/**
@@ -56,7 +73,7 @@ public class NoteSelector {
 	@Override
 	public String toString() {
 		return "NoteSelector [ids=" + ids + ", date=" + date + ", priority=" + priority + ", idRelation=" + idRelation + ", dateRelation="
-				+ dateRelation + ", priorityRelation=" + priorityRelation + "]";
+				+ dateRelation + ", priorityRelation=" + priorityRelation + ", sortKey=" + sortKey + ", descending=" + descending + ", limit=" + limit + ", cursor=" + cursor + "]";
 	}
 	
 	@Override
@@ -69,6 +86,10 @@ public class NoteSelector {
 		result = prime * result + ((ids == null) ? 0 : ids.hashCode());
 		result = prime * result + priority;
 		result = prime * result + ((priorityRelation == null) ? 0 : priorityRelation.hashCode());
+		result = prime * result + ((sortKey == null) ? 0 : sortKey.hashCode());
+		result = prime * result + (descending ? 1231 : 1237);
+		result = prime * result + ((limit == null) ? 0 : limit.hashCode());
+		result = prime * result + ((cursor == null) ? 0 : cursor.hashCode());
 		return result;
 	}
 	
@@ -101,9 +122,50 @@ public class NoteSelector {
 			return false;
 		if (priorityRelation != other.priorityRelation)
 			return false;
+		if (sortKey != other.sortKey)
+			return false;
+		if (descending != other.descending)
+			return false;
+		if (limit == null) {
+			if (other.limit != null)
+				return false;
+		}
+		else if (!limit.equals(other.limit))
+			return false;
+		if (cursor == null) {
+			if (other.cursor != null)
+				return false;
+		}
+		else if (!cursor.equals(other.cursor))
+			return false;
 		return true;
 	}
 	
+	/**
+	 * Create a copy of this selector in a canonical form, so selectors that select the same notes are equal: values of relations that are
+	 * NONE are removed and the ids of an IN relation are sorted and distinct.
+	 */
+	public NoteSelector toCanonical() {
+		NoteSelector canonical = new NoteSelector();
+		if (idRelation != NoteRelation.NONE && ids != null) {
+			canonical.setIds(idRelation == NoteRelation.IN ? ids.stream().distinct().sorted().collect(Collectors.toList()) : new ArrayList<Integer>(ids));
+		}
+		if (dateRelation != NoteRelation.NONE) {
+			canonical.setDate(date);
+		}
+		if (priorityRelation != NoteRelation.NONE) {
+			canonical.setPriority(priority);
+		}
+		canonical.setIdRelation(idRelation);
+		canonical.setDateRelation(dateRelation);
+		canonical.setPriorityRelation(priorityRelation);
+		canonical.setSortKey(sortKey);
+		canonical.setDescending(descending);
+		canonical.setLimit(limit);
+		canonical.setCursor(cursor);
+		return canonical;
+	}
+	
 	public static NoteSelector empty() {
 		return new NoteSelectorBuilder().build();
 	}
@@ -122,92 +184,73 @@ public class NoteSelector {
 		//id relation and priority relation mussn't use BEFORE or AFTER
 		valid &= (idRelation != NoteRelation.BEFORE && idRelation != NoteRelation.AFTER);
 		valid &= (priorityRelation != NoteRelation.BEFORE && priorityRelation != NoteRelation.AFTER);
+		//the limit has to be positive and the cursor has to be created by a previous page
+		valid &= (limit == null || limit > 0);
+		valid &= (cursor == null || NoteCursor.isValid(cursor));
+		//the cursor has to be created for the same order
+		valid &= (sortKey != null);
+		valid &= (cursor == null || !NoteCursor.isValid(cursor) || NoteCursor.decode(cursor).getSortKey() == sortKey);
 		
 		return valid;
 	}
 	
 	public List<Note> getMatching(List<Note> notes) {
+		return getMatching(notes, limit);
+	}
+	
+	/**
+	 * Get the matching notes (in the order of the sort key), but use a different limit than the selector's limit. The notes are matched in
+	 * parallel if the list contains at least {@link NoteMatcher#PARALLEL_THRESHOLD} notes.
+	 */
+	public List<Note> getMatching(List<Note> notes, Integer limit) {
+		return getMatching(notes, limit, notes.size() >= NoteMatcher.PARALLEL_THRESHOLD);
+	}
+	
+	/**
+	 * Get the matching notes (in the order of the sort key), but use a different limit than the selector's limit.
+	 * 
+	 * @param parallel
+	 *        Match the notes in the common fork-join pool (see {@link NoteMatcher#filter(List, boolean)})
+	 */
+	public List<Note> getMatching(List<Note> notes, Integer limit, boolean parallel) {
+		List<Note> matching = compile().filter(notes, parallel);
+		return getPage(matching, limit);
+	}
+	
+	/**
+	 * Compile the relations of this selector to a {@link NoteMatcher}, that can be reused to match many notes (the matcher doesn't change
+	 * if this selector is changed afterwards).
+	 */
+	public NoteMatcher compile() {
 		if (!isValid()) {
 			throw new IllegalStateException("This NoteSelector is not valid and can't be used to match notes.");
 		}
-		Stream<Note> noteStream = notes.stream();
-		
-		//match id relation
-		if (idRelation != NoteRelation.NONE) {
-			switch (idRelation) {
-				case EQUALS:
-					noteStream = noteStream.filter(note -> note.getId() == ids.get(0));
-					break;
-				case GREATER:
-					noteStream = noteStream.filter(note -> note.getId() > ids.get(0));
-					break;
-				case GREATER_EQUALS:
-					noteStream = noteStream.filter(note -> note.getId() >= ids.get(0));
-					break;
-				case IN:
-					noteStream = noteStream.filter(note -> ids.contains(note.getId()));
-					break;
-				case LESS:
-					noteStream = noteStream.filter(note -> note.getId() < ids.get(0));
-					break;
-				case LESS_EQUALS:
-					noteStream = noteStream.filter(note -> note.getId() <= ids.get(0));
-					break;
-				default:
-					throw new IllegalStateException("Unexpected id relation. This NoteSelector seems to be not valid.");
-			}
-		}
-		//match date relation
-		if (dateRelation != NoteRelation.NONE) {
-			switch (dateRelation) {
-				case AFTER:
-				case GREATER:
-					noteStream = noteStream.filter(note -> note.getExecutionDates().get(0).isAfter(date));
-					break;
-				case BEFORE:
-				case LESS:
-					noteStream = noteStream.filter(note -> note.getExecutionDates().get(0).isBefore(date));
-					break;
-				case EQUALS:
-					noteStream = noteStream.filter(note -> note.getExecutionDates().get(0).equals(date));
-					break;
-				case GREATER_EQUALS:
-					noteStream = noteStream
-							.filter(note -> note.getExecutionDates().get(0).isAfter(date) || note.getExecutionDates().get(0).equals(date));
-					break;
-				case LESS_EQUALS:
-					noteStream = noteStream
-							.filter(note -> note.getExecutionDates().get(0).isBefore(date) || note.getExecutionDates().get(0).equals(date));
-					break;
-				default:
-					throw new IllegalStateException("Unexpected date relation. This NoteSelector seems to be not valid.");
-			}
+		return new NoteMatcher(this);
+	}
+	
+	/**
+	 * Order the notes by the sort key and select the page (after the cursor and up to the limit), without checking the relations (the notes
+	 * have to match the selector already).
+	 */
+	public List<Note> getPage(List<Note> matchingNotes, Integer limit) {
+		//the notes are always ordered (like the results of the database), even if there is no limit
+		return selectPage(matchingNotes.stream().sorted(sortKey.getComparator(descending)), limit).collect(Collectors.toList());
+	}
+	
+	/**
+	 * Select the notes after the cursor and up to the limit (the notes have to be ordered by the sort key already).
+	 */
+	private Stream<Note> selectPage(Stream<Note> noteStream, Integer limit) {
+		if (cursor != null) {
+			NoteCursor position = NoteCursor.decode(cursor);
+			int direction = descending ? -1 : 1;
+			noteStream = noteStream.filter(note -> direction
+					* NoteSortKey.compare(sortKey.getValue(note), note.getId(), position.getLastValue(), position.getLastId()) > 0);
 		}
-		//match priority relation
-		if (priorityRelation != NoteRelation.NONE) {
-			switch (priorityRelation) {
-				case EQUALS:
-					noteStream = noteStream.filter(note -> note.getPriority() == priority);
-					break;
-				case GREATER:
-					noteStream = noteStream.filter(note -> note.getPriority() > priority);
-					break;
-				case GREATER_EQUALS:
-					noteStream = noteStream.filter(note -> note.getPriority() >= priority);
-					break;
-				case LESS:
-					noteStream = noteStream.filter(note -> note.getPriority() < priority);
-					break;
-				case LESS_EQUALS:
-					noteStream = noteStream.filter(note -> note.getPriority() <= priority);
-					break;
-				default:
-					throw new IllegalStateException("Unexpected priority relation. This NoteSelector seems to be not valid.");
-			}
+		if (limit != null) {
+			noteStream = noteStream.limit(limit);
 		}
-		
-		List<Note> matching = noteStream.collect(Collectors.toList());
-		return matching;
+		return noteStream;
 	}
 	
 	public List<Integer> getIds() {
@@ -251,4 +294,32 @@ public class NoteSelector {
 	public void setPriorityRelation(NoteRelation priorityRelation) {
 		this.priorityRelation = priorityRelation;
 	}
+	
+	public Integer getLimit() {
+		return limit;
+	}
+	public void setLimit(Integer limit) {
+		this.limit = limit;
+	}
+	
+	public String getCursor() {
+		return cursor;
+	}
+	public void setCursor(String cursor) {
+		this.cursor = cursor;
+	}
+	
+	public NoteSortKey getSortKey() {
+		return sortKey;
+	}
+	public void setSortKey(NoteSortKey sortKey) {
+		this.sortKey = sortKey;
+	}
+	
+	public boolean isDescending() {
+		return descending;
+	}
+	public void setDescending(boolean descending) {
+		this.descending = descending;
+	}
 }
\ No newline at end of file
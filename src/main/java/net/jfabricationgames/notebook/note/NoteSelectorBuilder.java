@@ -61,6 +61,26 @@ public class NoteSelectorBuilder {
 		return this;
 	}
 	
+	public NoteSelectorBuilder setSortKey(NoteSortKey sortKey) {
+		selector.setSortKey(sortKey);
+		return this;
+	}
+	
+	public NoteSelectorBuilder setDescending(boolean descending) {
+		selector.setDescending(descending);
+		return this;
+	}
+	
+	public NoteSelectorBuilder setLimit(Integer limit) {
+		selector.setLimit(limit);
+		return this;
+	}
+	
+	public NoteSelectorBuilder setCursor(String cursor) {
+		selector.setCursor(cursor);
+		return this;
+	}
+	
 	public NoteSelector build() {
 		return selector;
 	}
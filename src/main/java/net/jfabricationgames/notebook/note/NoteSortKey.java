@@ -0,0 +1,87 @@
+package net.jfabricationgames.notebook.note;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The keys by which the notes that match a {@link NoteSelector} can be ordered. Notes with the same value are ordered by their id.
+ *
+ * @author Tobias Faßbender
+ */
+public enum NoteSortKey {
+	
+	ID, //
+	PRIORITY, //
+	/**
+	 * The earliest execution date of the note (notes without execution dates are ordered after all other notes)
+	 */
+	EXECUTION_DATE, //
+	/**
+	 * The earliest reminder date of the note (notes without reminder dates are ordered after all other notes)
+	 */
+	REMINDER_DATE;
+	
+	/**
+	 * The date that is used as earliest date of a note without dates (so it's ordered after all notes with dates)
+	 */
+	public static final LocalDateTime NO_DATE = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+	
+	/**
+	 * Get the value of the note that is used for the ordering (an Integer for ID and PRIORITY or a LocalDateTime for the dates).
+	 */
+	public Comparable<?> getValue(Note note) {
+		switch (this) {
+			case ID:
+				return note.getId();
+			case PRIORITY:
+				return note.getPriority();
+			case EXECUTION_DATE:
+				return getEarliestDate(note.getExecutionDates());
+			case REMINDER_DATE:
+				return getEarliestDate(note.getReminderDates());
+			default:
+				throw new IllegalStateException("Unknown sort key: " + this);
+		}
+	}
+	
+	/**
+	 * Parse a value (that was converted to a string) of this sort key.
+	 */
+	public Comparable<?> parseValue(String value) {
+		switch (this) {
+			case ID:
+			case PRIORITY:
+				return Integer.valueOf(value);
+			case EXECUTION_DATE:
+			case REMINDER_DATE:
+				return LocalDateTime.parse(value);
+			default:
+				throw new IllegalStateException("Unknown sort key: " + this);
+		}
+	}
+	
+	/**
+	 * Create a comparator that orders notes by this key (and by the id if the values are equal).
+	 */
+	public Comparator<Note> getComparator(boolean descending) {
+		Comparator<Note> comparator = (note1, note2) -> compare(getValue(note1), note1.getId(), getValue(note2), note2.getId());
+		return descending ? comparator.reversed() : comparator;
+	}
+	
+	/**
+	 * Compare two positions (the value of this key and the id) in ascending order.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public static int compare(Comparable<?> value1, int id1, Comparable<?> value2, int id2) {
+		int comparison = ((Comparable) value1).compareTo(value2);
+		return comparison != 0 ? comparison : Integer.compare(id1, id2);
+	}
+	
+	private static LocalDateTime getEarliestDate(List<LocalDateTime> dates) {
+		if (dates == null || dates.isEmpty()) {
+			return NO_DATE;
+		}
+		return dates.stream().min(Comparator.naturalOrder()).get();
+	}
+}
@@ -0,0 +1,49 @@
+package net.jfabricationgames.notebook.note;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * The time range [from, to) in which the reminders of notes are due.
+ *
+ * @author Tobias Faßbender
+ */
+public class ReminderRange {
+	
+	private LocalDateTime from;
+	private LocalDateTime to;
+	
+	public ReminderRange() {
+		//default constructor for java bean convention
+	}
+	
+	public ReminderRange(LocalDateTime from, LocalDateTime to) {
+		this.from = from;
+		this.to = to;
+	}
+	
+	@JsonIgnore
+	public boolean isValid() {
+		return from != null && to != null && from.isBefore(to);
+	}
+	
+	@Override
+	public String toString() {
+		return "ReminderRange [from=" + from + ", to=" + to + "]";
+	}
+	
+	public LocalDateTime getFrom() {
+		return from;
+	}
+	public void setFrom(LocalDateTime from) {
+		this.from = from;
+	}
+	
+	public LocalDateTime getTo() {
+		return to;
+	}
+	public void setTo(LocalDateTime to) {
+		this.to = to;
+	}
+}
@@ -0,0 +1,66 @@
+package net.jfabricationgames.notebook.search;
+
+/**
+ * Identifies the state of the notes in the database, for which a segment file of the {@link NoteSearchIndex} was written (the number of
+ * notes, the highest id and a checksum of the ids and texts). A segment file is only used after a restart, if the notes in the database
+ * still have the same fingerprint.
+ *
+ * @author Tobias Faßbender
+ */
+public class IndexFingerprint {
+	
+	private final long noteCount;
+	private final long maxId;
+	private final long checksum;
+	
+	public IndexFingerprint(long noteCount, long maxId, long checksum) {
+		this.noteCount = noteCount;
+		this.maxId = maxId;
+		this.checksum = checksum;
+	}
+	
+	@Override
+	public String toString() {
+		return "IndexFingerprint [noteCount=" + noteCount + ", maxId=" + maxId + ", checksum=" + checksum + "]";
+	}
+	
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (int) (checksum ^ (checksum >>> 32));
+		result = prime * result + (int) (maxId ^ (maxId >>> 32));
+		result = prime * result + (int) (noteCount ^ (noteCount >>> 32));
+		return result;
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		IndexFingerprint other = (IndexFingerprint) obj;
+		if (checksum != other.checksum)
+			return false;
+		if (maxId != other.maxId)
+			return false;
+		if (noteCount != other.noteCount)
+			return false;
+		return true;
+	}
+	
+	public long getNoteCount() {
+		return noteCount;
+	}
+	
+	public long getMaxId() {
+		return maxId;
+	}
+	
+	public long getChecksum() {
+		return checksum;
+	}
+}
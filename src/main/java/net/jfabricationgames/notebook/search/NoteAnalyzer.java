@@ -0,0 +1,90 @@
+package net.jfabricationgames.notebook.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import net.jfabricationgames.notebook.note.Note;
+
+/**
+ * Splits the texts of the notes and the search queries into the terms of the {@link NoteSearchIndex}: the text is split at every character
+ * that is not a letter or digit, the words are converted to lower case (without accents) and very short words and stop words are removed.
+ *
+ * @author Tobias Faßbender
+ */
+public class NoteAnalyzer {
+	
+	/**
+	 * Words that are shorter are not indexed
+	 */
+	public static final int MIN_TERM_LENGTH = 2;
+	/**
+	 * Longer words are cut (so a single long word can't use much space in the index)
+	 */
+	public static final int MAX_TERM_LENGTH = 64;
+	
+	private static final Set<String> STOP_WORDS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(//
+			"a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it", "of", "on", "or", "the", "to", "was", "with", //
+			"der", "die", "das", "und", "ein", "eine", "ist", "im", "zu", "mit", "von", "den", "auf")));
+	
+	/**
+	 * Get the terms of the headline and the text of the note (in the order of the text; terms can occur multiple times).
+	 */
+	public List<String> analyze(Note note) {
+		List<String> terms = new ArrayList<String>();
+		addTerms(note.getHeadline(), terms);
+		addTerms(note.getNoteText(), terms);
+		return terms;
+	}
+	
+	/**
+	 * Get the terms of a text (in the order of the text; terms can occur multiple times).
+	 */
+	public List<String> analyze(String text) {
+		List<String> terms = new ArrayList<String>();
+		addTerms(text, terms);
+		return terms;
+	}
+	
+	private void addTerms(String text, List<String> terms) {
+		if (text == null) {
+			return;
+		}
+		String normalized = removeAccents(text.toLowerCase(Locale.ROOT));
+		int start = -1;
+		for (int i = 0; i <= normalized.length(); i++) {
+			boolean wordCharacter = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+			if (wordCharacter && start < 0) {
+				start = i;
+			}
+			else if (!wordCharacter && start >= 0) {
+				addTerm(normalized.substring(start, Math.min(i, start + MAX_TERM_LENGTH)), terms);
+				start = -1;
+			}
+		}
+	}
+	
+	private void addTerm(String term, List<String> terms) {
+		if (term.length() >= MIN_TERM_LENGTH && !STOP_WORDS.contains(term)) {
+			terms.add(term);
+		}
+	}
+	
+	private static String removeAccents(String text) {
+		//decompose the characters and remove the combining marks (e.g. 'ä' becomes 'a')
+		String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+		StringBuilder sb = new StringBuilder(decomposed.length());
+		for (int i = 0; i < decomposed.length(); i++) {
+			char c = decomposed.charAt(i);
+			if (Character.getType(c) != Character.NON_SPACING_MARK) {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,553 @@
+package net.jfabricationgames.notebook.search;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import net.jfabricationgames.notebook.note.Note;
+
+/**
+ * An inverted index of the headlines and texts of the notes, that finds the notes which contain the words of a query and ranks them by
+ * BM25, without reading the texts of the notes.
+ * <p>
+ * The index consists of an immutable {@link SearchSegment} (a memory mapped file) and the postings of the notes that were indexed since the
+ * segment was written (in the heap). Every indexed note gets a new document number (so the postings are always appended in ascending
+ * order); the document of a changed or deleted note is only marked as deleted. When too many notes were indexed since the segment was
+ * written, the segment and the new postings are merged into a new segment file (without the deleted documents) in the background. The
+ * segment file is written from a snapshot of the index without holding the lock, so the merge doesn't delay the searches or the updates of
+ * the index (that are executed after every change of the notes); the lock is only held to replace the segment and to apply the changes
+ * since the snapshot to the new segment.
+ * <p>
+ * The index is thread safe. It's updated by the DatabaseConnection after the notes were changed in the database.
+ *
+ * @author Tobias Faßbender
+ */
+public class NoteSearchIndex {
+	
+	private static final Logger LOGGER = LogManager.getLogger(NoteSearchIndex.class);
+	
+	/**
+	 * The parameters of BM25: the saturation of the term frequency and the normalization of the document length
+	 */
+	public static final double K1 = 1.2;
+	public static final double B = 0.75;
+	
+	public static final String SEGMENT_FILE_NAME = "notes.segment";
+	
+	private final Path segmentFile;
+	private final int mergeDocuments;
+	private final Executor mergeExecutor;
+	private final NoteAnalyzer analyzer = new NoteAnalyzer();
+	
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	//serializes the merges, because they write the same segment file (the index is not locked while the file is written)
+	private final Object mergeLock = new Object();
+	private final AtomicBoolean mergeScheduled = new AtomicBoolean();
+	
+	private SearchSegment segment = SearchSegment.empty();
+	
+	//the documents of the segment and the documents that were added afterwards (the document number is the index)
+	private int[] noteIds = new int[16];
+	private int[] documentLengths = new int[16];
+	private int documentCount;
+	private final BitSet deletedDocuments = new BitSet();
+	private final Map<Integer, Integer> documentsByNoteId = new HashMap<Integer, Integer>();
+	private long totalLength;
+	
+	/**
+	 * The postings of the documents that were added after the segment was written
+	 */
+	private final Map<String, PostingsBuffer> addedPostings = new HashMap<String, PostingsBuffer>();
+	
+	/**
+	 * @param directory
+	 *        The directory of the segment file (it's created if it doesn't exist)
+	 * @param mergeDocuments
+	 *        The number of documents that are added to the heap before they are merged into a new segment file
+	 */
+	public NoteSearchIndex(Path directory, int mergeDocuments) {
+		//a single merge thread, that is only kept alive while merges are executed
+		this(directory, mergeDocuments, new ThreadPoolExecutor(0, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), runnable -> {
+			Thread thread = new Thread(runnable, "notebook-search-merge");
+			thread.setDaemon(true);
+			return thread;
+		}));
+	}
+	
+	/**
+	 * @param mergeExecutor
+	 *        Executes the merges of the index into a new segment file
+	 */
+	/*private */NoteSearchIndex(Path directory, int mergeDocuments, Executor mergeExecutor) {
+		this.segmentFile = directory.resolve(SEGMENT_FILE_NAME);
+		this.mergeDocuments = Math.max(1, mergeDocuments);
+		this.mergeExecutor = mergeExecutor;
+	}
+	
+	/**
+	 * Load the segment file, if it exists and was written for notes with the given fingerprint.
+	 * 
+	 * @return true if the segment file was loaded or false if the index is empty (and all notes have to be added)
+	 */
+	public boolean open(IndexFingerprint currentFingerprint) throws IOException {
+		if (!Files.exists(segmentFile)) {
+			return false;
+		}
+		SearchSegment loaded = SearchSegment.open(segmentFile);
+		if (loaded.getFingerprint() == null || !loaded.getFingerprint().equals(currentFingerprint)) {
+			LOGGER.info("The search segment was written for other notes (" + loaded.getFingerprint() + " instead of " + currentFingerprint
+					+ "); the index is rebuilt");
+			return false;
+		}
+		
+		lock.writeLock().lock();
+		try {
+			clear();
+			useSegment(loaded);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+		return true;
+	}
+	
+	/**
+	 * Write the index to the segment file, so it can be loaded after a restart.
+	 * 
+	 * @param currentFingerprint
+	 *        The fingerprint of the notes in the database (the index has to contain the current state of all notes)
+	 */
+	public void save(IndexFingerprint currentFingerprint) throws IOException {
+		synchronized (mergeLock) {
+			//the index mussn't be changed while the segment is written, because the fingerprint has to match the indexed notes
+			lock.writeLock().lock();
+			try {
+				merge(snapshot(), currentFingerprint);
+			}
+			finally {
+				lock.writeLock().unlock();
+			}
+		}
+	}
+	
+	/**
+	 * Add the note to the index or replace the indexed version of the note.
+	 */
+	public void update(Note note) {
+		lock.writeLock().lock();
+		try {
+			deleteDocument(note.getId());
+			addDocument(note);
+			if (documentCount - segment.size() >= mergeDocuments && mergeScheduled.compareAndSet(false, true)) {
+				mergeExecutor.execute(this::mergeAddedDocuments);
+			}
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Merge the documents that were added to the heap into a new segment file (if they were not merged by {@link #save(IndexFingerprint)}
+	 * in the meantime).
+	 */
+	private void mergeAddedDocuments() {
+		synchronized (mergeLock) {
+			try {
+				MergeSnapshot snapshot = snapshot();
+				if (snapshot.getAddedDocuments() >= mergeDocuments) {
+					merge(snapshot, null);
+				}
+			}
+			catch (IOException ioe) {
+				//the postings stay in the heap and the merge is tried again with the next note
+				LOGGER.warn("The search index couldn't be merged into a new segment", ioe);
+			}
+			finally {
+				//the documents that were added while the segment was written are merged after the next update
+				mergeScheduled.set(false);
+			}
+		}
+	}
+	
+	/**
+	 * Remove the note from the index (if it's indexed).
+	 */
+	public void delete(int noteId) {
+		lock.writeLock().lock();
+		try {
+			deleteDocument(noteId);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * The number of indexed notes
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return documentsByNoteId.size();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Find the notes that contain any of the words of the query, ordered by their BM25 score (and by the note id if the scores are equal).
+	 * 
+	 * @param maxHits
+	 *        The maximum number of notes that are returned
+	 */
+	public List<Hit> search(String query, int maxHits) {
+		//every term is scored once, even if it occurs multiple times in the query
+		List<String> terms = new ArrayList<String>(new LinkedHashSet<String>(analyzer.analyze(query)));
+		
+		lock.readLock().lock();
+		try {
+			int liveDocuments = documentsByNoteId.size();
+			if (liveDocuments == 0 || terms.isEmpty()) {
+				return Collections.emptyList();
+			}
+			double averageLength = Math.max(1, (double) totalLength / liveDocuments);
+			
+			Map<Integer, double[]> scores = new HashMap<Integer, double[]>();
+			for (String term : terms) {
+				PostingsBuffer added = addedPostings.get(term);
+				int documentFrequency = getDocumentFrequency(term, added);
+				if (documentFrequency == 0) {
+					continue;
+				}
+				double idf = Math.log(1 + (liveDocuments - documentFrequency + 0.5) / (documentFrequency + 0.5));
+				addScores(segment.getPostings(term), idf, averageLength, scores);
+				addScores(added == null ? null : added.reader(), idf, averageLength, scores);
+			}
+			
+			return selectTopHits(scores, maxHits);
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * The number of live documents that contain the term. The stored document frequencies include the deleted documents (until they are
+	 * merged), so the live documents are counted if documents were deleted (otherwise the frequency could exceed the number of live
+	 * documents and the idf could get negative).
+	 */
+	private int getDocumentFrequency(String term, PostingsBuffer added) {
+		if (deletedDocuments.isEmpty()) {
+			return segment.getDocumentFrequency(term) + (added == null ? 0 : added.getDocumentFrequency());
+		}
+		return countLiveDocuments(segment.getPostings(term)) + countLiveDocuments(added == null ? null : added.reader());
+	}
+	
+	private int countLiveDocuments(PostingsReader postings) {
+		if (postings == null) {
+			return 0;
+		}
+		int liveDocuments = 0;
+		while (postings.next()) {
+			if (!deletedDocuments.get(postings.getDocument())) {
+				liveDocuments++;
+			}
+		}
+		return liveDocuments;
+	}
+	
+	private void addScores(PostingsReader postings, double idf, double averageLength, Map<Integer, double[]> scores) {
+		if (postings == null) {
+			return;
+		}
+		while (postings.next()) {
+			int document = postings.getDocument();
+			if (deletedDocuments.get(document)) {
+				continue;
+			}
+			double termFrequency = postings.getTermFrequency();
+			double lengthNormalization = 1 - B + B * documentLengths[document] / averageLength;
+			double score = idf * termFrequency * (K1 + 1) / (termFrequency + K1 * lengthNormalization);
+			scores.computeIfAbsent(document, d -> new double[1])[0] += score;
+		}
+	}
+	
+	private List<Hit> selectTopHits(Map<Integer, double[]> scores, int maxHits) {
+		Comparator<Hit> order = Comparator.comparingDouble(Hit::getScore).reversed().thenComparingInt(Hit::getNoteId);
+		if (scores.size() <= maxHits) {
+			List<Hit> hits = new ArrayList<Hit>(scores.size());
+			scores.forEach((document, score) -> hits.add(new Hit(noteIds[document], score[0])));
+			hits.sort(order);
+			return hits;
+		}
+		
+		//keep only the best hits in a heap, that has the worst of them at the top
+		PriorityQueue<Hit> best = new PriorityQueue<Hit>(maxHits + 1, order.reversed());
+		scores.forEach((document, score) -> {
+			best.add(new Hit(noteIds[document], score[0]));
+			if (best.size() > maxHits) {
+				best.poll();
+			}
+		});
+		List<Hit> hits = new ArrayList<Hit>(best);
+		hits.sort(order);
+		return hits;
+	}
+	
+	private void addDocument(Note note) {
+		Map<String, int[]> termFrequencies = new HashMap<String, int[]>();
+		List<String> terms = analyzer.analyze(note);
+		for (String term : terms) {
+			termFrequencies.computeIfAbsent(term, t -> new int[1])[0]++;
+		}
+		
+		int document = documentCount++;
+		ensureCapacity(documentCount);
+		noteIds[document] = note.getId();
+		documentLengths[document] = terms.size();
+		documentsByNoteId.put(note.getId(), document);
+		totalLength += terms.size();
+		
+		for (Map.Entry<String, int[]> entry : termFrequencies.entrySet()) {
+			addedPostings.computeIfAbsent(entry.getKey(), t -> new PostingsBuffer()).add(document, entry.getValue()[0]);
+		}
+	}
+	
+	private void deleteDocument(int noteId) {
+		Integer document = documentsByNoteId.remove(noteId);
+		if (document != null) {
+			deletedDocuments.set(document);
+			totalLength -= documentLengths[document];
+		}
+	}
+	
+	private void ensureCapacity(int capacity) {
+		if (capacity > noteIds.length) {
+			int newCapacity = Math.max(capacity, noteIds.length * 2);
+			noteIds = Arrays.copyOf(noteIds, newCapacity);
+			documentLengths = Arrays.copyOf(documentLengths, newCapacity);
+		}
+	}
+	
+	/**
+	 * Copy the state of the index, that is merged into a new segment file. The segment is immutable and the added postings are only appended,
+	 * so the snapshot only copies the document arrays and the views of the postings.
+	 */
+	/*private */MergeSnapshot snapshot() {
+		lock.readLock().lock();
+		try {
+			Map<String, ByteBuffer> postings = new HashMap<String, ByteBuffer>();
+			for (Map.Entry<String, PostingsBuffer> entry : addedPostings.entrySet()) {
+				postings.put(entry.getKey(), entry.getValue().getBytes());
+			}
+			return new MergeSnapshot(segment, Arrays.copyOf(noteIds, documentCount), Arrays.copyOf(documentLengths, documentCount),
+					(BitSet) deletedDocuments.clone(), postings);
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Write the segment and the added postings of the snapshot (without the deleted documents) to a new segment file and use it as the segment
+	 * of the index. The write lock is only held to replace the segment (unless the caller holds it), so the index can be searched and updated
+	 * while the file is written. The caller has to hold the merge lock.
+	 */
+	/*private */void merge(MergeSnapshot snapshot, IndexFingerprint fingerprint) throws IOException {
+		//the documents get new numbers without the deleted documents (in the same order)
+		int snapshotDocuments = snapshot.noteIds.length;
+		int[] newDocuments = new int[snapshotDocuments];
+		int liveDocuments = 0;
+		for (int document = 0; document < snapshotDocuments; document++) {
+			newDocuments[document] = snapshot.deletedDocuments.get(document) ? -1 : liveDocuments++;
+		}
+		int[] mergedNoteIds = new int[liveDocuments];
+		int[] mergedLengths = new int[liveDocuments];
+		for (int document = 0; document < snapshotDocuments; document++) {
+			if (newDocuments[document] >= 0) {
+				mergedNoteIds[newDocuments[document]] = snapshot.noteIds[document];
+				mergedLengths[newDocuments[document]] = snapshot.documentLengths[document];
+			}
+		}
+		
+		//the postings of the segment are copied first, because the added documents have higher numbers
+		SortedMap<String, PostingsBuffer> mergedPostings = new TreeMap<String, PostingsBuffer>();
+		for (String term : snapshot.segment.getTerms()) {
+			copyPostings(snapshot.segment.getPostings(term), newDocuments, mergedPostings, term);
+		}
+		for (Map.Entry<String, ByteBuffer> entry : snapshot.addedPostings.entrySet()) {
+			copyPostings(new PostingsReader(entry.getValue().duplicate()), newDocuments, mergedPostings, entry.getKey());
+		}
+		mergedPostings.values().removeIf(PostingsBuffer::isEmpty);
+		
+		Files.createDirectories(segmentFile.getParent());
+		SearchSegment.write(segmentFile, fingerprint, mergedNoteIds, mergedLengths, mergedPostings);
+		SearchSegment merged = SearchSegment.open(segmentFile);
+		
+		lock.writeLock().lock();
+		try {
+			useMergedSegment(merged, snapshotDocuments, newDocuments);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+		LOGGER.debug("Merged the search index into a new segment with " + merged.size() + " notes");
+	}
+	
+	/**
+	 * Replace the segment by the merged segment and apply the changes since the snapshot: the documents of the snapshot that were deleted
+	 * afterwards are deleted in the merged segment and the documents that were added afterwards get the numbers after the merged segment.
+	 */
+	private void useMergedSegment(SearchSegment merged, int snapshotDocuments, int[] newDocuments) {
+		int[] laterNoteIds = Arrays.copyOfRange(noteIds, snapshotDocuments, documentCount);
+		int[] laterLengths = Arrays.copyOfRange(documentLengths, snapshotDocuments, documentCount);
+		BitSet deleted = (BitSet) deletedDocuments.clone();
+		Map<String, PostingsBuffer> postings = new HashMap<String, PostingsBuffer>(addedPostings);
+		
+		clear();
+		useSegment(merged);
+		
+		for (int document = deleted.nextSetBit(0); document >= 0 && document < snapshotDocuments; document = deleted.nextSetBit(document + 1)) {
+			if (newDocuments[document] >= 0) {
+				deleteDocument(noteIds[newDocuments[document]]);
+			}
+		}
+		
+		int firstLaterDocument = documentCount;
+		ensureCapacity(firstLaterDocument + laterNoteIds.length);
+		for (int i = 0; i < laterNoteIds.length; i++) {
+			int document = documentCount++;
+			noteIds[document] = laterNoteIds[i];
+			documentLengths[document] = laterLengths[i];
+			if (deleted.get(snapshotDocuments + i)) {
+				deletedDocuments.set(document);
+			}
+			else {
+				documentsByNoteId.put(laterNoteIds[i], document);
+				totalLength += laterLengths[i];
+			}
+		}
+		if (laterNoteIds.length > 0) {
+			for (Map.Entry<String, PostingsBuffer> entry : postings.entrySet()) {
+				PostingsReader reader = entry.getValue().reader();
+				while (reader.next()) {
+					if (reader.getDocument() >= snapshotDocuments) {
+						addedPostings.computeIfAbsent(entry.getKey(), t -> new PostingsBuffer())
+								.add(reader.getDocument() - snapshotDocuments + firstLaterDocument, reader.getTermFrequency());
+					}
+				}
+			}
+		}
+	}
+	
+	private static void copyPostings(PostingsReader postings, int[] newDocuments, SortedMap<String, PostingsBuffer> mergedPostings, String term) {
+		PostingsBuffer merged = mergedPostings.computeIfAbsent(term, t -> new PostingsBuffer());
+		while (postings.next()) {
+			int newDocument = newDocuments[postings.getDocument()];
+			if (newDocument >= 0) {
+				merged.add(newDocument, postings.getTermFrequency());
+			}
+		}
+	}
+	
+	private void clear() {
+		segment = SearchSegment.empty();
+		documentCount = 0;
+		deletedDocuments.clear();
+		documentsByNoteId.clear();
+		totalLength = 0;
+		addedPostings.clear();
+	}
+	
+	private void useSegment(SearchSegment newSegment) {
+		segment = newSegment;
+		ensureCapacity(newSegment.size());
+		for (int document = 0; document < newSegment.size(); document++) {
+			noteIds[document] = newSegment.getNoteId(document);
+			documentLengths[document] = newSegment.getDocumentLength(document);
+			documentsByNoteId.put(noteIds[document], document);
+			totalLength += documentLengths[document];
+		}
+		documentCount = newSegment.size();
+	}
+	
+	/**
+	 * The state of the index that is written to a new segment file by a merge.
+	 */
+	/*private */static class MergeSnapshot {
+		
+		private final SearchSegment segment;
+		private final int[] noteIds;
+		private final int[] documentLengths;
+		private final BitSet deletedDocuments;
+		private final Map<String, ByteBuffer> addedPostings;
+		
+		private MergeSnapshot(SearchSegment segment, int[] noteIds, int[] documentLengths, BitSet deletedDocuments,
+				Map<String, ByteBuffer> addedPostings) {
+			this.segment = segment;
+			this.noteIds = noteIds;
+			this.documentLengths = documentLengths;
+			this.deletedDocuments = deletedDocuments;
+			this.addedPostings = addedPostings;
+		}
+		
+		/**
+		 * The number of documents that were added after the segment was written
+		 */
+		public int getAddedDocuments() {
+			return noteIds.length - segment.size();
+		}
+	}
+	
+	/**
+	 * A note that was found by a search and it's BM25 score.
+	 */
+	public static class Hit {
+		
+		private final int noteId;
+		private final double score;
+		
+		public Hit(int noteId, double score) {
+			this.noteId = noteId;
+			this.score = score;
+		}
+		
+		@Override
+		public String toString() {
+			return "Hit [noteId=" + noteId + ", score=" + score + "]";
+		}
+		
+		public int getNoteId() {
+			return noteId;
+		}
+		
+		public double getScore() {
+			return score;
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package net.jfabricationgames.notebook.search;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The postings of a term (the documents that contain the term and how often they contain it) in a growing byte array.
+ * <p>
+ * The postings are compressed: every posting is stored as two variable length integers (7 bits per byte), the difference of the document
+ * number to the previous document and the frequency of the term in the document. So the documents have to be added in ascending order.
+ *
+ * @author Tobias Faßbender
+ */
+final class PostingsBuffer {
+	
+	private byte[] data = new byte[8];
+	private int size;
+	private int lastDocument = -1;
+	private int documentFrequency;
+	
+	public void add(int document, int termFrequency) {
+		if (document <= lastDocument) {
+			throw new IllegalArgumentException("The documents have to be added in ascending order (" + document + " after " + lastDocument + ")");
+		}
+		writeVarInt(document - lastDocument);
+		writeVarInt(termFrequency);
+		lastDocument = document;
+		documentFrequency++;
+	}
+	
+	private void writeVarInt(int value) {
+		if (size + 5 > data.length) {
+			data = Arrays.copyOf(data, Math.max(data.length * 2, size + 5));
+		}
+		while ((value & ~0x7F) != 0) {
+			data[size++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		data[size++] = (byte) value;
+	}
+	
+	/**
+	 * Get a read only view of the encoded postings (that can be read by a {@link PostingsReader} or written to a segment file).
+	 */
+	public ByteBuffer getBytes() {
+		return ByteBuffer.wrap(data, 0, size).slice().asReadOnlyBuffer();
+	}
+	
+	public PostingsReader reader() {
+		return new PostingsReader(getBytes());
+	}
+	
+	/**
+	 * The number of documents in the postings
+	 */
+	public int getDocumentFrequency() {
+		return documentFrequency;
+	}
+	
+	public boolean isEmpty() {
+		return documentFrequency == 0;
+	}
+}
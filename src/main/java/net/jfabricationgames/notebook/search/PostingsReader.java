@@ -0,0 +1,54 @@
+package net.jfabricationgames.notebook.search;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads the postings that were encoded by a {@link PostingsBuffer} (from the heap or from a memory mapped segment file), without creating
+ * objects for the postings.
+ *
+ * @author Tobias Faßbender
+ */
+final class PostingsReader {
+	
+	private final ByteBuffer bytes;
+	private int document = -1;
+	private int termFrequency;
+	
+	public PostingsReader(ByteBuffer bytes) {
+		this.bytes = bytes;
+	}
+	
+	/**
+	 * Move to the next posting.
+	 * 
+	 * @return false if there are no more postings
+	 */
+	public boolean next() {
+		if (!bytes.hasRemaining()) {
+			return false;
+		}
+		document += readVarInt();
+		termFrequency = readVarInt();
+		return true;
+	}
+	
+	private int readVarInt() {
+		int value = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = bytes.get();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return value;
+	}
+	
+	public int getDocument() {
+		return document;
+	}
+	
+	public int getTermFrequency() {
+		return termFrequency;
+	}
+}
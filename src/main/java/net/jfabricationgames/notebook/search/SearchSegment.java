@@ -0,0 +1,203 @@
+package net.jfabricationgames.notebook.search;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * An immutable part of the {@link NoteSearchIndex} that is stored in a file. The file is memory mapped, so the postings are read by the
+ * operating system when they are needed (only the documents and the dictionary of the terms are read into the heap).
+ * <p>
+ * The file contains (in this order): a header with the format version and the {@link IndexFingerprint}, the documents (note id and number
+ * of terms), the dictionary (term, document frequency and position of the postings) and the postings of all terms.
+ *
+ * @author Tobias Faßbender
+ */
+final class SearchSegment {
+	
+	private static final int MAGIC = 0x4E425358;
+	private static final int FORMAT_VERSION = 1;
+	
+	private final IndexFingerprint fingerprint;
+	private final int[] noteIds;
+	private final int[] documentLengths;
+	private final Map<String, TermInfo> terms;
+	private final ByteBuffer postings;
+	
+	private SearchSegment(IndexFingerprint fingerprint, int[] noteIds, int[] documentLengths, Map<String, TermInfo> terms, ByteBuffer postings) {
+		this.fingerprint = fingerprint;
+		this.noteIds = noteIds;
+		this.documentLengths = documentLengths;
+		this.terms = terms;
+		this.postings = postings;
+	}
+	
+	public static SearchSegment empty() {
+		return new SearchSegment(null, new int[0], new int[0], Collections.emptyMap(), ByteBuffer.allocate(0));
+	}
+	
+	/**
+	 * Write a segment file. The file is written to a temporary file first and moved afterwards, so an existing segment file is replaced
+	 * atomically.
+	 * 
+	 * @param fingerprint
+	 *        The fingerprint of the notes in the database (or null if the segment mussn't be used after a restart)
+	 */
+	public static void write(Path file, IndexFingerprint fingerprint, int[] noteIds, int[] documentLengths,
+			SortedMap<String, PostingsBuffer> postings) throws IOException {
+		Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+		try (OutputStream fileStream = Files.newOutputStream(temporaryFile);
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileStream, 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeBoolean(fingerprint != null);
+			out.writeLong(fingerprint == null ? 0 : fingerprint.getNoteCount());
+			out.writeLong(fingerprint == null ? 0 : fingerprint.getMaxId());
+			out.writeLong(fingerprint == null ? 0 : fingerprint.getChecksum());
+			
+			out.writeInt(noteIds.length);
+			for (int i = 0; i < noteIds.length; i++) {
+				out.writeInt(noteIds[i]);
+				out.writeInt(documentLengths[i]);
+			}
+			
+			out.writeInt(postings.size());
+			long offset = 0;
+			for (Map.Entry<String, PostingsBuffer> entry : postings.entrySet()) {
+				byte[] term = entry.getKey().getBytes(StandardCharsets.UTF_8);
+				int length = entry.getValue().getBytes().remaining();
+				out.writeInt(term.length);
+				out.write(term);
+				out.writeInt(entry.getValue().getDocumentFrequency());
+				out.writeLong(offset);
+				out.writeInt(length);
+				offset += length;
+			}
+			
+			for (PostingsBuffer buffer : postings.values()) {
+				ByteBuffer bytes = buffer.getBytes();
+				byte[] data = new byte[bytes.remaining()];
+				bytes.get(data);
+				out.write(data);
+			}
+		}
+		Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+	
+	/**
+	 * Open a segment file that was written by {@link #write(Path, IndexFingerprint, int[], int[], SortedMap)}.
+	 * 
+	 * @throws IOException
+	 *         An IOException is thrown if the file can't be read or is not a segment file of this format version
+	 */
+	public static SearchSegment open(Path file) throws IOException {
+		ByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				//a buffer can't map more than 2 GB
+				throw new IOException("The search segment " + file + " is too large to be mapped (" + channel.size() + " bytes)");
+			}
+			//the mapping stays valid after the channel is closed
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		try {
+			if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+				throw new IOException("The file " + file + " is not a search segment of the format version " + FORMAT_VERSION);
+			}
+			boolean hasFingerprint = buffer.get() != 0;
+			IndexFingerprint fingerprint = new IndexFingerprint(buffer.getLong(), buffer.getLong(), buffer.getLong());
+			
+			int documents = buffer.getInt();
+			int[] noteIds = new int[documents];
+			int[] documentLengths = new int[documents];
+			for (int i = 0; i < documents; i++) {
+				noteIds[i] = buffer.getInt();
+				documentLengths[i] = buffer.getInt();
+			}
+			
+			int termCount = buffer.getInt();
+			Map<String, TermInfo> terms = new HashMap<String, TermInfo>(termCount * 2);
+			for (int i = 0; i < termCount; i++) {
+				byte[] term = new byte[buffer.getInt()];
+				buffer.get(term);
+				terms.put(new String(term, StandardCharsets.UTF_8), new TermInfo(buffer.getInt(), buffer.getLong(), buffer.getInt()));
+			}
+			
+			ByteBuffer postings = buffer.slice();
+			return new SearchSegment(hasFingerprint ? fingerprint : null, noteIds, documentLengths, terms, postings);
+		}
+		catch (RuntimeException re) {
+			//e.g. a BufferUnderflowException if the file is truncated
+			throw new IOException("The search segment " + file + " couldn't be read", re);
+		}
+	}
+	
+	/**
+	 * The fingerprint of the notes in the database when the segment was written (or null if the segment was written while the service was
+	 * running and can't be used after a restart)
+	 */
+	public IndexFingerprint getFingerprint() {
+		return fingerprint;
+	}
+	
+	public int size() {
+		return noteIds.length;
+	}
+	
+	public int getNoteId(int document) {
+		return noteIds[document];
+	}
+	
+	public int getDocumentLength(int document) {
+		return documentLengths[document];
+	}
+	
+	public Set<String> getTerms() {
+		return terms.keySet();
+	}
+	
+	public int getDocumentFrequency(String term) {
+		TermInfo info = terms.get(term);
+		return info == null ? 0 : info.documentFrequency;
+	}
+	
+	/**
+	 * Get a reader for the postings of the term (or null if no document of this segment contains the term).
+	 */
+	public PostingsReader getPostings(String term) {
+		TermInfo info = terms.get(term);
+		if (info == null) {
+			return null;
+		}
+		ByteBuffer bytes = postings.duplicate();
+		bytes.position((int) info.offset);
+		bytes.limit((int) info.offset + info.length);
+		return new PostingsReader(bytes.slice());
+	}
+	
+	private static class TermInfo {
+		
+		private final int documentFrequency;
+		private final long offset;
+		private final int length;
+		
+		public TermInfo(int documentFrequency, long offset, int length) {
+			this.documentFrequency = documentFrequency;
+			this.offset = offset;
+			this.length = length;
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package net.jfabricationgames.notebook.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+
+/**
+ * Reads and writes the entities in the binary {@link PayloadFormat}s (JSON is read and written by the jackson provider of jersey).
+ *
+ * @author Tobias Faßbender
+ */
+@Provider
+@Consumes({PayloadFormat.APPLICATION_SMILE, PayloadFormat.APPLICATION_CBOR, PayloadFormat.APPLICATION_MESSAGE_PACK})
+@Produces({PayloadFormat.APPLICATION_SMILE, PayloadFormat.APPLICATION_CBOR, PayloadFormat.APPLICATION_MESSAGE_PACK})
+public class BinaryPayloadProvider implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+	
+	private static PayloadFormat getBinaryFormat(MediaType mediaType) {
+		PayloadFormat format = PayloadFormat.forMediaType(mediaType);
+		return format == PayloadFormat.JSON ? null : format;
+	}
+	
+	@Override
+	public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+		return getBinaryFormat(mediaType) != null;
+	}
+	
+	@Override
+	public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+			MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException {
+		//the entity stream is closed by jersey
+		return getBinaryFormat(mediaType).getObjectMapper().readerFor(type).without(JsonParser.Feature.AUTO_CLOSE_SOURCE)
+				.readValue(entityStream);
+	}
+	
+	@Override
+	public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+		//streamed responses write their format themselves
+		return !StreamingOutput.class.isAssignableFrom(type) && getBinaryFormat(mediaType) != null;
+	}
+	
+	@Override
+	public long getSize(Object t, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+		return -1;
+	}
+	
+	@Override
+	public void writeTo(Object t, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+			MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+		getBinaryFormat(mediaType).getObjectMapper().writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(entityStream, t);
+	}
+}
@@ -0,0 +1,173 @@
+package net.jfabricationgames.notebook.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+import net.jfabricationgames.notebook.config.NoteBookConfiguration;
+
+/**
+ * Compresses the JSON responses with gzip, if the client accepts gzip and the response is larger than a threshold (small responses are sent
+ * uncompressed, because the compression would cost more time than it saves).
+ * <p>
+ * The first bytes of a response are buffered until the threshold is reached, so the header Content-Encoding can still be set when the
+ * response is compressed. After that the compressed data is flushed whenever the response is flushed, so streamed responses are still
+ * delivered incrementally.
+ *
+ * @author Tobias Faßbender
+ */
+@Provider
+public class GzipThresholdInterceptor implements WriterInterceptor {
+	
+	private static final String GZIP = "gzip";
+	
+	private final boolean enabled = NoteBookConfiguration.getInstance().getBoolean("service.gzip.enabled", true);
+	private final int minSize = Math.max(0, NoteBookConfiguration.getInstance().getInt("service.gzip.minSize", 8192));
+	
+	@Context
+	private HttpHeaders requestHeaders;
+	
+	@Override
+	public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+		if (!enabled || !MediaType.APPLICATION_JSON_TYPE.isCompatible(context.getMediaType())
+				|| context.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+			context.proceed();
+			return;
+		}
+		//the response depends on the header Accept-Encoding (for caches), even if it's not compressed
+		context.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		if (!acceptsGzip(requestHeaders.getRequestHeaders().get(HttpHeaders.ACCEPT_ENCODING))) {
+			context.proceed();
+			return;
+		}
+		
+		proceedCompressed(context, minSize);
+	}
+	
+	/**
+	 * Write the response through a {@link ThresholdGzipOutputStream}. The stream is only finished if the response was written completely, so a
+	 * failed response ends without the gzip trailer and the client notices that it's incomplete.
+	 */
+	/*private */static void proceedCompressed(WriterInterceptorContext context, int minSize) throws IOException {
+		ThresholdGzipOutputStream outputStream = new ThresholdGzipOutputStream(context.getOutputStream(), context.getHeaders(), minSize);
+		context.setOutputStream(outputStream);
+		context.proceed();
+		outputStream.finish();
+	}
+	
+	/*private */static boolean acceptsGzip(Iterable<String> acceptEncodings) {
+		if (acceptEncodings == null) {
+			return false;
+		}
+		for (String acceptEncoding : acceptEncodings) {
+			for (String coding : acceptEncoding.split(",")) {
+				String[] parts = coding.trim().split(";");
+				if (parts[0].trim().equalsIgnoreCase(GZIP)) {
+					//gzip;q=0 means that gzip is not accepted
+					return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+				}
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Buffers the written bytes up to the threshold. If more bytes are written, the header Content-Encoding is set and the bytes are
+	 * compressed; otherwise they are written uncompressed when the stream is finished.
+	 */
+	/*private */static class ThresholdGzipOutputStream extends OutputStream {
+		
+		private final OutputStream out;
+		private final MultivaluedMap<String, Object> headers;
+		private final int threshold;
+		
+		private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		private GZIPOutputStream gzip;
+		private boolean finished;
+		
+		public ThresholdGzipOutputStream(OutputStream out, MultivaluedMap<String, Object> headers, int threshold) {
+			this.out = out;
+			this.headers = headers;
+			this.threshold = threshold;
+		}
+		
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] {(byte) b}, 0, 1);
+		}
+		
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (finished) {
+				throw new IOException("The stream is already finished");
+			}
+			if (gzip == null) {
+				if (buffer.size() + len <= threshold) {
+					buffer.write(b, off, len);
+					return;
+				}
+				startCompression();
+			}
+			gzip.write(b, off, len);
+		}
+		
+		private void startCompression() throws IOException {
+			//the headers are sent with the first byte, so they can still be changed here
+			headers.putSingle(HttpHeaders.CONTENT_ENCODING, GZIP);
+			headers.remove(HttpHeaders.CONTENT_LENGTH);
+			//syncFlush, so a flush of the response (e.g. while streaming the notes) sends all data that was written before
+			gzip = new GZIPOutputStream(out, 8192, true);
+			buffer.writeTo(gzip);
+			buffer = null;
+		}
+		
+		public boolean isCompressed() {
+			return gzip != null;
+		}
+		
+		@Override
+		public void flush() throws IOException {
+			//the buffered bytes are not flushed, because the compression can only be started before the first byte is written
+			if (gzip != null) {
+				gzip.flush();
+			}
+		}
+		
+		/**
+		 * Write the buffered bytes (or the end of the compressed data) without closing the underlying stream.
+		 */
+		public void finish() throws IOException {
+			if (finished) {
+				return;
+			}
+			finished = true;
+			if (gzip != null) {
+				gzip.finish();
+			}
+			else {
+				buffer.writeTo(out);
+				buffer = null;
+			}
+			out.flush();
+		}
+		
+		/**
+		 * Only flush the stream: it's finished by the interceptor after the response was written completely (a serializer that closes the
+		 * stream after an error mussn't finish it) and the underlying stream is closed by the container.
+		 */
+		@Override
+		public void close() throws IOException {
+			flush();
+		}
+	}
+}
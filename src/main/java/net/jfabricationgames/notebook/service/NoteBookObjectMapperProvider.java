@@ -0,0 +1,46 @@
+package net.jfabricationgames.notebook.service;
+
+import javax.ws.rs.ext.ContextResolver;
+import javax.ws.rs.ext.Provider;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import net.jfabricationgames.json_rpc.util.JsonRpcParserUtil;
+
+/**
+ * Provides the (shared) ObjectMapper that is used by jersey to read the requests and write the responses.
+ * <p>
+ * The mapper uses the java time module (for the java 8 dates) and binds the params of a JSON-RPC request directly to the parameter type of
+ * the called {@link NoteBookServiceMethods}.
+ */
+@Provider
+public class NoteBookObjectMapperProvider implements ContextResolver<ObjectMapper> {
+	
+	private static final Logger LOGGER = LogManager.getLogger(NoteBookObjectMapperProvider.class);
+	
+	private static final ObjectMapper MAPPER = createObjectMapper();
+	
+	private static ObjectMapper createObjectMapper() {
+		ObjectMapper mapper = JsonRpcParserUtil.createJsonRpcObjectMapper(NoteBookServiceMethods.getParameterTypes());
+		
+		//the deserializers were resolved by creating the mapper (the params of a type that can't be deserialized are read as generic objects)
+		for (NoteBookServiceMethods method : NoteBookServiceMethods.values()) {
+			if (!mapper.canDeserialize(mapper.constructType(method.getParameter()))) {
+				LOGGER.warn("The parameter type of the method " + method.getMethodName() + " can't be deserialized");
+			}
+		}
+		return mapper;
+	}
+	
+	@Override
+	public ObjectMapper getContext(Class<?> type) {
+		return MAPPER;
+	}
+	
+	public static ObjectMapper getObjectMapper() {
+		return MAPPER;
+	}
+}
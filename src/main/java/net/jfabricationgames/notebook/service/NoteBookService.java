@@ -1,30 +1,62 @@
 package net.jfabricationgames.notebook.service;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
+import net.jfabricationgames.json_rpc.JsonRpcBatchRequest;
+import net.jfabricationgames.json_rpc.JsonRpcErrorResponse;
 import net.jfabricationgames.json_rpc.JsonRpcRequest;
 import net.jfabricationgames.json_rpc.JsonRpcResponse;
 import net.jfabricationgames.json_rpc.UnsupportedParameterException;
 import net.jfabricationgames.json_rpc.util.JsonRpcErrorUtil;
+import net.jfabricationgames.notebook.config.NoteBookConfiguration;
 import net.jfabricationgames.notebook.db.DatabaseConnection;
+import net.jfabricationgames.notebook.note.Note;
+import net.jfabricationgames.notebook.note.NoteEvent;
+import net.jfabricationgames.notebook.note.NoteEventBatch;
+import net.jfabricationgames.notebook.note.NoteSelector;
 
 @Path("/notebook")
 public class NoteBookService {
@@ -33,6 +65,13 @@ public class NoteBookService {
 	
 	private static final Logger LOGGER = LogManager.getLogger(NoteBookService.class);
 	
+	private static final NoteBookServiceProvider PROVIDER = new NoteBookServiceProvider();
+	
+	/**
+	 * The maximum time a long poll waits for events (in seconds)
+	 */
+	private static final int MAX_POLL_TIMEOUT_SECONDS = 120;
+	
 	/**
 	 * A simple hello world to test whether the service is reachable
 	 */
@@ -75,13 +114,224 @@ public class NoteBookService {
 		return Response.status(Status.OK).entity(rpcResponse).build();
 	}
 	
+	/**
+	 * Get the statistics of the database connection pool and the caches (for monitoring)
+	 */
+	@GET
+	@Path("/statistics")
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response getStatistics() {
+		LOGGER.info("Received 'statistics' request (HTTP GET)");
+		
+		JsonRpcResponse rpcResponse = new JsonRpcResponse();
+		rpcResponse.setId("42");
+		rpcResponse.setJsonRpc(JSON_RPC);
+		try {
+			DatabaseConnection db = DatabaseConnection.getInstance();
+			Map<String, Object> statistics = new LinkedHashMap<String, Object>();
+			statistics.put("connectionPool", db.getPoolStatistics());
+			statistics.put("noteCache", db.getNoteCacheStatistics());
+			statistics.put("queryCache", db.getQueryCacheStatistics());
+			statistics.put("bulkheads", NoteBookServiceExecutors.getBulkheadStatistics());
+			rpcResponse.setResult(statistics);
+		}
+		catch (Exception e) {
+			LOGGER.error("Error: ", e);
+			return JsonRpcErrorUtil.createExecutionErrorResponse("42", "statistics");
+		}
+		return Response.status(Status.OK).entity(rpcResponse).build();
+	}
+	
+	/**
+	 * Subscribe to the events of the notes (created, updated and deleted notes and due reminders) as server-sent events. The id of every event
+	 * is it's sequence, so a client that reconnects with the header Last-Event-ID receives the events that it missed.
+	 */
+	@GET
+	@Path("/events")
+	@Produces(MediaType.SERVER_SENT_EVENTS)
+	public void subscribeEvents(@Context SseEventSink eventSink, @Context Sse sse, @HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER) String lastEventId) {
+		LOGGER.info("Received 'events' subscription (last event id: " + lastEventId + ")");
+		Long lastSequence = null;
+		if (lastEventId != null) {
+			try {
+				lastSequence = Long.valueOf(lastEventId.trim());
+			}
+			catch (NumberFormatException nfe) {
+				//an unknown id is ignored (the client only receives the new events)
+				LOGGER.debug("Ignoring invalid Last-Event-ID: " + lastEventId);
+			}
+		}
+		try {
+			getEventBroker().subscribe(event -> sendEvent(eventSink, sse, event), lastSequence);
+		}
+		catch (IllegalStateException ise) {
+			throw new WebApplicationException(ise.getMessage(), Status.SERVICE_UNAVAILABLE);
+		}
+	}
+	
+	private static boolean sendEvent(SseEventSink eventSink, Sse sse, NoteEvent event) {
+		if (eventSink.isClosed()) {
+			return false;
+		}
+		OutboundSseEvent sseEvent = sse.newEventBuilder()//
+				.id(Long.toString(event.getSequence()))//
+				.name(event.getType().name())//
+				.mediaType(MediaType.APPLICATION_JSON_TYPE)//
+				.data(NoteEvent.class, event)//
+				.build();
+		eventSink.send(sseEvent).exceptionally(t -> {
+			//the client disconnected; the subscription is removed with the next event
+			LOGGER.debug("Event couldn't be sent; closing the event stream", t);
+			eventSink.close();
+			return null;
+		});
+		return true;
+	}
+	
+	/**
+	 * Wait for the events after the sequence 'after' (long polling, for clients that can't use server-sent events). The response is sent
+	 * when there are events or after the timeout (in seconds). A poll without the parameter 'after' is answered immediately with the current
+	 * sequence.
+	 */
+	@GET
+	@Path("/events/poll")
+	@Produces(MediaType.APPLICATION_JSON)
+	public void pollEvents(@QueryParam("after") Long after, @QueryParam("timeout") @DefaultValue("30") int timeoutSeconds,
+			@Suspended AsyncResponse asyncResponse) {
+		LOGGER.debug("Received 'events/poll' request (after: " + after + ", timeout: " + timeoutSeconds + ")");
+		NoteEventBroker broker = getEventBroker();
+		
+		//the timeout is set before the poll is registered, so it's set while the response is still suspended
+		AtomicReference<NoteEventBroker.Poll> poll = new AtomicReference<NoteEventBroker.Poll>();
+		asyncResponse.setTimeoutHandler(response -> {
+			if (poll.get() == null || poll.get().cancel()) {
+				response.resume(new NoteEventBatch(new ArrayList<NoteEvent>(), after == null ? 0 : after, false));
+			}
+		});
+		asyncResponse.setTimeout(Math.max(1, Math.min(timeoutSeconds, MAX_POLL_TIMEOUT_SECONDS)), TimeUnit.SECONDS);
+		try {
+			poll.set(broker.poll(after, asyncResponse::resume));
+		}
+		catch (IllegalStateException ise) {
+			asyncResponse.resume(new WebApplicationException(ise.getMessage(), Status.SERVICE_UNAVAILABLE));
+		}
+	}
+	
+	private static NoteEventBroker getEventBroker() {
+		try {
+			return NoteEventBroker.getInstance();
+		}
+		catch (SQLException sqle) {
+			LOGGER.error("The event broker couldn't be created", sqle);
+			throw new WebApplicationException("The database is not available", Status.SERVICE_UNAVAILABLE);
+		}
+	}
+	
+	/**
+	 * Call a JSON-RPC method, or a batch of methods (a JSON array of requests).
+	 * <p>
+	 * The read requests of a batch are executed concurrently. The write requests are executed in the order of the batch; if the query parameter
+	 * 'transaction' is true they are executed in one database transaction, so either all or none of them take effect.
+	 * <p>
+	 * If the query parameter 'stream' is true, the response to a single get_notes request is written while the notes are read from the
+	 * database (see {@link #processStreamingRequest(JsonRpcRequest, PayloadFormat)}).
+	 * <p>
+	 * The response to a single get_notes request contains an ETag. If the request contains the ETag in the header If-None-Match and the
+	 * result didn't change, it's answered with 304 (Not Modified) without reading the notes (see {@link #processConditionalRequest}).
+	 * <p>
+	 * The requests and responses can be sent as JSON or in one of the binary {@link PayloadFormat}s (selected by the headers Content-Type and
+	 * Accept; the response uses the format of the request if any format is accepted).
+	 * <p>
+	 * The request is answered asynchronously: it's executed by the bulkhead of it's method (or the bulkhead of the batch requests), so the
+	 * request thread of the server is not blocked while the database is accessed and slow requests of one method can't block the others. If
+	 * the bulkhead is full the request is rejected immediately and if it's not answered within the timeout it's answered with an error.
+	 */
 	@POST
 	@Path("/")
-	@Produces(MediaType.APPLICATION_JSON)
-	@Consumes(MediaType.APPLICATION_JSON)
-	public Response callJsonRpc(JsonRpcRequest request) {
-		LOGGER.info("Received RPC method call (parameter: " + request + ")");
-		return processRequest(request);
+	@Produces({MediaType.APPLICATION_JSON, PayloadFormat.APPLICATION_SMILE, PayloadFormat.APPLICATION_CBOR, PayloadFormat.APPLICATION_MESSAGE_PACK})
+	@Consumes({MediaType.APPLICATION_JSON, PayloadFormat.APPLICATION_SMILE, PayloadFormat.APPLICATION_CBOR, PayloadFormat.APPLICATION_MESSAGE_PACK})
+	public void callJsonRpc(JsonRpcBatchRequest batchRequest, @QueryParam("transaction") boolean transaction,
+			@QueryParam("stream") boolean stream, @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch,
+			@Context HttpHeaders requestHeaders, @Suspended AsyncResponse asyncResponse) {
+		LOGGER.info("Received RPC method call (parameter: " + batchRequest + "; transaction: " + transaction + "; stream: " + stream + ")");
+		PayloadFormat format = PayloadFormat.forResponse(requestHeaders);
+		
+		String id = null;
+		String methodName = NoteBookServiceExecutors.BATCH_BULKHEAD;
+		ExecutorService bulkhead;
+		if (batchRequest.isBatch()) {
+			bulkhead = NoteBookServiceExecutors.getBatchRequestExecutor();
+		}
+		else {
+			JsonRpcRequest request = batchRequest.getRequests().get(0);
+			NoteBookServiceMethods method = request == null ? null : NoteBookServiceMethods.getByMethodName(request.getMethod());
+			if (method == null) {
+				//invalid requests and unknown methods are answered without accessing the database
+				asyncResponse.resume(withFormat(processRequest(request), format));
+				return;
+			}
+			id = request.getId();
+			methodName = method.getMethodName();
+			bulkhead = NoteBookServiceExecutors.getMethodExecutor(method);
+		}
+		
+		String requestId = id;
+		String requestMethodName = methodName;
+		ExecutorService requestBulkhead = bulkhead;
+		AtomicReference<Future<?>> execution = new AtomicReference<Future<?>>();
+		asyncResponse.setTimeoutHandler(response -> {
+			Future<?> task = execution.get();
+			if (task != null) {
+				//a request that is still waiting is removed from the bulkhead (a running request is not interrupted, but it's result is dropped)
+				NoteBookServiceExecutors.cancel(requestBulkhead, task);
+			}
+			LOGGER.warn("The request timed out (id: " + requestId + "; method: " + requestMethodName + ")");
+			response.resume(withFormat(JsonRpcErrorUtil.createRequestTimeoutErrorResponse(requestId, requestMethodName), format));
+		});
+		asyncResponse.setTimeout(Math.max(1, NoteBookConfiguration.getInstance().getInt("service.requestTimeoutSeconds", 30)), TimeUnit.SECONDS);
+		
+		try {
+			execution.set(requestBulkhead.submit(() -> {
+				Response response;
+				try {
+					response = processJsonRpc(batchRequest, transaction, stream, ifNoneMatch, format);
+				}
+				catch (RuntimeException re) {
+					LOGGER.error("Error: ", re);
+					response = JsonRpcErrorUtil.createExecutionErrorResponse(requestId, requestMethodName);
+				}
+				asyncResponse.resume(withFormat(response, format));
+			}));
+		}
+		catch (RejectedExecutionException ree) {
+			LOGGER.warn("The request was rejected, because the bulkhead " + requestMethodName + " is full (id: " + requestId + ")");
+			asyncResponse.resume(withFormat(JsonRpcErrorUtil.createServiceOverloadedErrorResponse(requestId, requestMethodName), format));
+		}
+	}
+	
+	private static Response withFormat(Response response, PayloadFormat format) {
+		return Response.fromResponse(response).type(format.getMediaType()).build();
+	}
+	
+	/**
+	 * Process a single JSON-RPC request or a batch (in the thread of a bulkhead).
+	 */
+	private Response processJsonRpc(JsonRpcBatchRequest batchRequest, boolean transaction, boolean stream, String ifNoneMatch,
+			PayloadFormat format) {
+		Response response;
+		if (!batchRequest.isBatch()) {
+			JsonRpcRequest request = batchRequest.getRequests().get(0);
+			if (request != null && NoteBookServiceMethods.getByMethodName(request.getMethod()) == NoteBookServiceMethods.GET_NOTES) {
+				response = processConditionalRequest(request, stream, ifNoneMatch, format);
+			}
+			else {
+				response = processRequest(request);
+			}
+		}
+		else {
+			response = processBatchRequest(batchRequest.getRequests(), transaction);
+		}
+		return response;
 	}
 	
 	/**
@@ -90,51 +340,278 @@ public class NoteBookService {
 	 * @return Returns a {@link Response} to the processed request.
 	 */
 	private Response processRequest(JsonRpcRequest request) {
-		//execute the requested method via reflection
+		if (request == null) {
+			return JsonRpcErrorUtil.createInvalidRequestErrorResponse(null, "The request is not a JSON object");
+		}
+		NoteBookServiceMethods method = NoteBookServiceMethods.getByMethodName(request.getMethod());
+		if (method == null) {
+			LOGGER.error("Error: Unknown method: " + request.getMethod());
+			return JsonRpcErrorUtil.createMethodNotFoundErrorResponse(request.getId(), request.getMethod());
+		}
+		
+		try {
+			LOGGER.info("Invoking RPC method (method: " + request.getMethod() + "; parameters: " + request.getParams() + ")");
+			Object obj = method.invoke(PROVIDER, request.getParams());
+			return createResultResponse(request, obj);
+		}
+		catch (UnsupportedParameterException | SQLException | RuntimeException e) {
+			return createErrorResponse(request, e);
+		}
+	}
+	
+	/**
+	 * Process a get_notes request and add the ETag of the result to the response. The ETag is created from the write version of the database
+	 * and the selector, so a request which ETag is still valid is answered with 304 (Not Modified) before the notes are read or serialized.
+	 */
+	private Response processConditionalRequest(JsonRpcRequest request, boolean stream, String ifNoneMatch, PayloadFormat format) {
+		EntityTag eTag = null;
+		if (NoteBookConfiguration.getInstance().getBoolean("service.etag.enabled", true)) {
+			try {
+				NoteSelector selector = (NoteSelector) NoteBookServiceMethods.GET_NOTES.parseParameters(request.getParams());
+				if (selector.isValid()) {
+					//the version is requested before the notes are read, so a change while they are read leads to a new ETag
+					eTag = NoteResultETags.createETag(DatabaseConnection.getInstance().getWriteVersion(), selector, format);
+				}
+			}
+			catch (UnsupportedParameterException | SQLException e) {
+				//the error is reported by processing the request
+				LOGGER.debug("No ETag is created for the request " + request.getId(), e);
+			}
+		}
+		if (eTag != null && NoteResultETags.matches(ifNoneMatch, eTag)) {
+			LOGGER.info("The result of get_notes didn't change (id: " + request.getId() + "; ETag: " + eTag + ")");
+			return Response.notModified(eTag).build();
+		}
+		
+		Response response = stream ? processStreamingRequest(request, format) : processRequest(request);
+		//errors are not tagged, so they are never validated by a client
+		if (eTag != null && !(response.getEntity() instanceof JsonRpcErrorResponse)) {
+			response = Response.fromResponse(response).tag(eTag).build();
+		}
+		return response;
+	}
+	
+	/**
+	 * Process a get_notes request by writing the JSON-RPC response directly to the HTTP output, while the notes are read from the database. The
+	 * notes are never collected in a list or a string, so the memory usage doesn't depend on the number of notes.
+	 * <p>
+	 * Errors that occur before the first note was written are answered with the usual JSON-RPC error. An error after the first note can't
+	 * be reported anymore (because a part of the result was already sent), so the response is aborted.
+	 */
+	private Response processStreamingRequest(JsonRpcRequest request, PayloadFormat format) {
+		NoteSelector selector;
 		try {
-			LOGGER.info("Invoking RPC method via reflection (method: " + request.getMethod() + "; parameters: " + request.getParams() + ")");
-			NoteBookServiceProvider provider = new NoteBookServiceProvider();
-			Class<?> clazz = provider.getClass();
-			Method method = clazz.getMethod(request.getMethod(), Object.class);
-			Object obj = method.invoke(provider, request.getParams());
-			
-			LOGGER.info("Building rpc response (id: " + request.getId() + "; jsonRpc: " + JSON_RPC + "; result: " + obj + ")");
-			JsonRpcResponse rpcResponse = new JsonRpcResponse();
-			rpcResponse.setId(request.getId());
-			rpcResponse.setJsonRpc(JSON_RPC);
-			rpcResponse.setResult(obj);
-			
-			//parse the response here to make sure jsr310 is used for correct serializing of the java 8 dates
-			ObjectWriter ow = new ObjectMapper().registerModule(new JavaTimeModule()).writer();
-			String rpcResponseJson;
+			selector = (NoteSelector) NoteBookServiceMethods.GET_NOTES.parseParameters(request.getParams());
+			if (!selector.isValid()) {
+				throw new UnsupportedParameterException("The NoteSelector is not valid: " + selector);
+			}
+		}
+		catch (UnsupportedParameterException upe) {
+			return createErrorResponse(request, upe);
+		}
+		
+		LOGGER.info("Streaming the response to get_notes (id: " + request.getId() + "; parameters: " + selector + ")");
+		StreamingOutput output = outputStream -> {
+			ObjectMapper mapper = format.getObjectMapper();
+			ObjectWriter noteWriter = mapper.writerFor(Note.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+			try (JsonGenerator generator = mapper.getFactory().createGenerator(outputStream)) {
+				boolean[] started = new boolean[] {false};
+				try {
+					DatabaseConnection.getInstance().streamNotes(selector, note -> {
+						if (!started[0]) {
+							writeStreamingResponseStart(generator, request);
+							started[0] = true;
+						}
+						noteWriter.writeValue(generator, note);
+					});
+					if (!started[0]) {
+						writeStreamingResponseStart(generator, request);
+					}
+					generator.writeEndArray();
+					generator.writeEndObject();
+				}
+				catch (SQLException | RuntimeException e) {
+					if (started[0]) {
+						LOGGER.error("Error while streaming the notes; the response is aborted", e);
+						throw new IOException("The notes couldn't be streamed", e);
+					}
+					mapper.writeValue(generator, createErrorResponse(request, e).getEntity());
+				}
+			}
+		};
+		return Response.status(Status.OK).entity(output).build();
+	}
+	
+	private void writeStreamingResponseStart(JsonGenerator generator, JsonRpcRequest request) throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("jsonRpc", JSON_RPC);
+		generator.writeStringField("id", request.getId());
+		generator.writeArrayFieldStart("result");
+	}
+	
+	/**
+	 * Process the requests of a batch.
+	 * 
+	 * @return Returns a {@link Response} that contains the responses to all requests of the batch (in the order of the batch), except for
+	 *         the notifications (or a response without content if the batch contains only notifications).
+	 */
+	private Response processBatchRequest(List<JsonRpcRequest> requests, boolean transaction) {
+		int maxBatchSize = NoteBookConfiguration.getInstance().getInt("service.batch.maxSize", 100);
+		if (requests.isEmpty()) {
+			return JsonRpcErrorUtil.createInvalidRequestErrorResponse(null, "The batch is empty");
+		}
+		if (requests.size() > maxBatchSize) {
+			return JsonRpcErrorUtil.createInvalidRequestErrorResponse(null, "The batch is too large (maximum size: " + maxBatchSize + ")");
+		}
+		LOGGER.info("Processing batch of " + requests.size() + " requests");
+		
+		Response[] responses = new Response[requests.size()];
+		Map<Integer, Future<Response>> readResponses = new HashMap<Integer, Future<Response>>();
+		List<Integer> writeIndices = new ArrayList<Integer>();
+		
+		//start the read requests concurrently
+		ExecutorService executor = NoteBookServiceExecutors.getBatchExecutor();
+		for (int i = 0; i < requests.size(); i++) {
+			JsonRpcRequest request = requests.get(i);
+			NoteBookServiceMethods method = request == null ? null : NoteBookServiceMethods.getByMethodName(request.getMethod());
+			if (method != null && method.isReadOnly()) {
+				readResponses.put(i, executor.submit(() -> processRequest(request)));
+			}
+			else {
+				writeIndices.add(i);
+			}
+		}
+		
+		//execute the write requests in the order of the batch
+		if (transaction) {
+			processInTransaction(requests, writeIndices, responses);
+		}
+		else {
+			for (int i : writeIndices) {
+				responses[i] = processRequest(requests.get(i));
+			}
+		}
+		
+		for (Map.Entry<Integer, Future<Response>> readResponse : readResponses.entrySet()) {
+			JsonRpcRequest request = requests.get(readResponse.getKey());
 			try {
-				rpcResponseJson = ow.writeValueAsString(rpcResponse);
-				LOGGER.debug("Build rpcResponseJson: {}", rpcResponseJson);
-				
-				//build the response with the manual parsed JSON (for java 8 dates) and send it back to the client
-				Response response = Response.status(Status.OK).entity(rpcResponseJson).build();
-				return response;
-			}
-			catch (JsonProcessingException e) {
-				LOGGER.error("Json representation failed", e);
-				
-				//build the response without manual parsing and send it back to the client
-				Response response = Response.status(Status.OK).entity(rpcResponse).build();
-				return response;
-			}
-		}
-		catch (NoSuchMethodException | SecurityException e) {
-			LOGGER.error("Error: ", e);
-			return JsonRpcErrorUtil.createMethodNotFoundErrorResponse(request.getId(), request.getMethod());
+				responses[readResponse.getKey()] = readResponse.getValue().get();
+			}
+			catch (ExecutionException | InterruptedException e) {
+				LOGGER.error("Error: ", e);
+				responses[readResponse.getKey()] = JsonRpcErrorUtil.createMethodCouldNotBeInvocedErrorResponse(request.getId(), request.getMethod());
+			}
 		}
-		catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-			LOGGER.error("Error: ", e);
-			if (e.getCause() instanceof UnsupportedParameterException) {
-				return JsonRpcErrorUtil.createIllegalParameterErrorResponse(request.getId(), request.getParams());
+		
+		List<Object> rpcResponses = new ArrayList<Object>(responses.length);
+		for (int i = 0; i < responses.length; i++) {
+			//notifications are executed, but not answered (not even if they fail)
+			if (!isNotification(requests.get(i))) {
+				rpcResponses.add(responses[i].getEntity());
+			}
+		}
+		if (rpcResponses.isEmpty()) {
+			return Response.status(Status.NO_CONTENT).build();
+		}
+		return Response.status(Status.OK).entity(rpcResponses).build();
+	}
+	
+	/**
+	 * A request without an id is a notification, that mussn't be answered (an invalid request object is always answered).
+	 */
+	private static boolean isNotification(JsonRpcRequest request) {
+		return request != null && request.getId() == null;
+	}
+	
+	/**
+	 * Execute the requests (with the given indices) in one database transaction. If one of the requests is not valid none of them is executed.
+	 * If one of them fails, the transaction is rolled back and all other requests are answered with an error.
+	 */
+	private void processInTransaction(List<JsonRpcRequest> requests, List<Integer> indices, Response[] responses) {
+		//check all requests before the transaction is started
+		Map<Integer, Object> parameters = new HashMap<Integer, Object>();
+		Map<Integer, Response> errors = new HashMap<Integer, Response>();
+		for (int i : indices) {
+			JsonRpcRequest request = requests.get(i);
+			NoteBookServiceMethods method = request == null ? null : NoteBookServiceMethods.getByMethodName(request.getMethod());
+			if (method == null) {
+				errors.put(i, processRequest(request));//creates the error response
+			}
+			else {
+				try {
+					parameters.put(i, method.parseParameters(request.getParams()));
+				}
+				catch (UnsupportedParameterException upe) {
+					errors.put(i, createErrorResponse(request, upe));
+				}
+			}
+		}
+		
+		int[] currentIndex = new int[] {-1};
+		Exception transactionError = null;
+		Map<Integer, Object> results = new HashMap<Integer, Object>();
+		if (errors.isEmpty()) {
+			try {
+				DatabaseConnection db = DatabaseConnection.getInstance();
+				LOGGER.info("Executing " + indices.size() + " requests in one transaction");
+				db.executeInTransaction(() -> {
+					for (int i : indices) {
+						currentIndex[0] = i;
+						results.put(i, NoteBookServiceMethods.getByMethodName(requests.get(i).getMethod()).execute(PROVIDER, parameters.get(i)));
+					}
+					currentIndex[0] = -1;
+					return null;
+				});
+			}
+			catch (SQLException | RuntimeException e) {
+				transactionError = e;
+			}
+		}
+		
+		for (int i : indices) {
+			JsonRpcRequest request = requests.get(i);
+			if (errors.containsKey(i)) {
+				responses[i] = errors.get(i);
+			}
+			else if (!errors.isEmpty()) {
+				responses[i] = JsonRpcErrorUtil.createTransactionRolledBackErrorResponse(request.getId(), request.getMethod());
+			}
+			else if (transactionError != null) {
+				if (currentIndex[0] == i || currentIndex[0] == -1) {
+					responses[i] = createErrorResponse(request, transactionError);
+				}
+				else {
+					responses[i] = JsonRpcErrorUtil.createTransactionRolledBackErrorResponse(request.getId(), request.getMethod());
+				}
 			}
 			else {
-				return JsonRpcErrorUtil.createMethodCouldNotBeInvocedErrorResponse(request.getId(), request.getMethod());
+				responses[i] = createResultResponse(request, results.get(i));
 			}
 		}
 	}
+	
+	private Response createResultResponse(JsonRpcRequest request, Object result) {
+		LOGGER.info("Building rpc response (id: " + request.getId() + "; jsonRpc: " + JSON_RPC + "; result: " + result + ")");
+		JsonRpcResponse rpcResponse = new JsonRpcResponse();
+		rpcResponse.setId(request.getId());
+		rpcResponse.setJsonRpc(JSON_RPC);
+		rpcResponse.setResult(result);
+		
+		//the response is serialized by the mapper of the NoteBookObjectMapperProvider (that uses jsr310 for the java 8 dates)
+		return Response.status(Status.OK).entity(rpcResponse).build();
+	}
+	
+	private Response createErrorResponse(JsonRpcRequest request, Exception exception) {
+		LOGGER.error("Error: ", exception);
+		if (exception instanceof UnsupportedParameterException) {
+			return JsonRpcErrorUtil.createIllegalParameterErrorResponse(request.getId(), request.getParams());
+		}
+		else if (exception instanceof SQLTransientConnectionException) {
+			//the connection pool is exhausted
+			return JsonRpcErrorUtil.createDatabaseBusyErrorResponse(request.getId(), request.getMethod());
+		}
+		else {
+			return JsonRpcErrorUtil.createMethodCouldNotBeInvocedErrorResponse(request.getId(), request.getMethod());
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package net.jfabricationgames.notebook.service;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import net.jfabricationgames.notebook.db.DatabaseConnection;
+
+/**
+ * Creates the database resources (and fills the connection pool) when the service is deployed and releases them when it's undeployed.
+ */
+public class NoteBookServiceContextListener implements ServletContextListener {
+	
+	private static final Logger LOGGER = LogManager.getLogger(NoteBookServiceContextListener.class);
+	
+	@Override
+	public void contextInitialized(ServletContextEvent event) {
+		try {
+			DatabaseConnection.getInstance();
+		}
+		catch (Exception e) {
+			//don't prevent the deployment; the connection will be retried on the first request
+			LOGGER.error("The database connection couldn't be initialized on startup", e);
+		}
+	}
+	
+	@Override
+	public void contextDestroyed(ServletContextEvent event) {
+		NoteEventBroker.shutdown();
+		NoteBookServiceExecutors.shutdown();
+		DatabaseConnection.shutdown();
+	}
+}
@@ -0,0 +1,150 @@
+package net.jfabricationgames.notebook.service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import net.jfabricationgames.notebook.config.NoteBookConfiguration;
+
+/**
+ * The executors that are used by the service to process requests concurrently.
+ */
+public abstract class NoteBookServiceExecutors {
+	
+	private static final Logger LOGGER = LogManager.getLogger(NoteBookServiceExecutors.class);
+	
+	/**
+	 * The name of the bulkhead that executes the batch requests
+	 */
+	public static final String BATCH_BULKHEAD = "batch";
+	
+	private static ExecutorService batchExecutor;
+	
+	/**
+	 * The executors of the methods (and of the batch requests) by their names
+	 */
+	private static final Map<String, ThreadPoolExecutor> bulkheads = new HashMap<String, ThreadPoolExecutor>();
+	
+	/**
+	 * Get the executor that executes the read requests of a batch concurrently.
+	 * <p>
+	 * The executor has a bounded number of threads and a bounded queue. If the queue is full the requests are executed by the calling thread.
+	 */
+	public static synchronized ExecutorService getBatchExecutor() {
+		if (batchExecutor == null) {
+			NoteBookConfiguration configuration = NoteBookConfiguration.getInstance();
+			int threads = configuration.getInt("service.batch.threads", 4);
+			int queueSize = configuration.getInt("service.batch.queueSize", 100);
+			LOGGER.info("Creating batch executor (threads: " + threads + "; queueSize: " + queueSize + ")");
+			batchExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(queueSize),
+					createThreadFactory("notebook-batch"), new ThreadPoolExecutor.CallerRunsPolicy());
+		}
+		return batchExecutor;
+	}
+	
+	/**
+	 * Get the executor (bulkhead) that executes the requests of a method, so slow requests of one method can't block the requests of the
+	 * other methods.
+	 */
+	public static ExecutorService getMethodExecutor(NoteBookServiceMethods method) {
+		return getBulkhead(method.getMethodName());
+	}
+	
+	/**
+	 * Get the executor (bulkhead) that executes the batch requests (the read requests of a batch are executed by the
+	 * {@link #getBatchExecutor()}).
+	 */
+	public static ExecutorService getBatchRequestExecutor() {
+		return getBulkhead(BATCH_BULKHEAD);
+	}
+	
+	/**
+	 * Get the bulkhead with the given name. Every bulkhead has a bounded number of threads and a bounded queue; if the queue is full, the
+	 * request is rejected (with a {@link RejectedExecutionException}) instead of waiting.
+	 * <p>
+	 * The threads and the queue size can be configured for every bulkhead (service.bulkhead.&lt;name&gt;.threads and queueSize) and default
+	 * to service.bulkhead.threads and service.bulkhead.queueSize.
+	 */
+	private static synchronized ThreadPoolExecutor getBulkhead(String name) {
+		ThreadPoolExecutor bulkhead = bulkheads.get(name);
+		if (bulkhead == null) {
+			NoteBookConfiguration configuration = NoteBookConfiguration.getInstance();
+			int threads = Math.max(1,
+					configuration.getInt("service.bulkhead." + name + ".threads", configuration.getInt("service.bulkhead.threads", 4)));
+			int queueSize = Math.max(1,
+					configuration.getInt("service.bulkhead." + name + ".queueSize", configuration.getInt("service.bulkhead.queueSize", 20)));
+			LOGGER.info("Creating bulkhead " + name + " (threads: " + threads + "; queueSize: " + queueSize + ")");
+			bulkhead = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(queueSize),
+					createThreadFactory("notebook-" + name), new ThreadPoolExecutor.AbortPolicy());
+			//the threads of rarely used methods are released
+			bulkhead.allowCoreThreadTimeOut(true);
+			bulkheads.put(name, bulkhead);
+		}
+		return bulkhead;
+	}
+	
+	/**
+	 * Cancel a request of a bulkhead. A request that is still waiting is removed from the queue of the bulkhead, so it doesn't take the place
+	 * of a new request (a running request is not interrupted).
+	 * 
+	 * @return true if the request was cancelled before it was started or finished
+	 */
+	public static boolean cancel(ExecutorService bulkhead, Future<?> request) {
+		boolean cancelled = request.cancel(false);
+		if (cancelled && bulkhead instanceof ThreadPoolExecutor && request instanceof Runnable) {
+			((ThreadPoolExecutor) bulkhead).remove((Runnable) request);
+		}
+		return cancelled;
+	}
+	
+	/**
+	 * Get the number of active and waiting requests of every bulkhead that was used (for monitoring).
+	 */
+	public static synchronized Map<String, Map<String, Integer>> getBulkheadStatistics() {
+		Map<String, Map<String, Integer>> statistics = new TreeMap<String, Map<String, Integer>>();
+		for (Map.Entry<String, ThreadPoolExecutor> bulkhead : bulkheads.entrySet()) {
+			Map<String, Integer> bulkheadStatistics = new LinkedHashMap<String, Integer>();
+			bulkheadStatistics.put("activeRequests", bulkhead.getValue().getActiveCount());
+			bulkheadStatistics.put("queuedRequests", bulkhead.getValue().getQueue().size());
+			statistics.put(bulkhead.getKey(), bulkheadStatistics);
+		}
+		return statistics;
+	}
+	
+	/**
+	 * Shut down all executors (the running tasks are finished).
+	 */
+	public static synchronized void shutdown() {
+		if (batchExecutor != null) {
+			LOGGER.info("Shutting down batch executor");
+			batchExecutor.shutdown();
+			batchExecutor = null;
+		}
+		for (Map.Entry<String, ThreadPoolExecutor> bulkhead : bulkheads.entrySet()) {
+			LOGGER.info("Shutting down bulkhead " + bulkhead.getKey());
+			bulkhead.getValue().shutdown();
+		}
+		bulkheads.clear();
+	}
+	
+	/*private */static ThreadFactory createThreadFactory(String name) {
+		AtomicInteger threadNumber = new AtomicInteger();
+		return runnable -> {
+			Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+}
@@ -0,0 +1,17 @@
+package net.jfabricationgames.notebook.service;
+
+import java.sql.SQLException;
+
+/**
+ * Executes a JSON-RPC method on the {@link NoteBookServiceProvider}.
+ *
+ * @param <P>
+ *        The type of the method's parameter
+ * @param <R>
+ *        The return type of the method
+ */
+@FunctionalInterface
+public interface NoteBookServiceMethodHandler<P, R> {
+	
+	public R invoke(NoteBookServiceProvider provider, P parameter) throws SQLException;
+}
@@ -1,24 +1,133 @@
 package net.jfabricationgames.notebook.service;
 
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import net.jfabricationgames.json_rpc.UnsupportedParameterException;
+import net.jfabricationgames.json_rpc.util.JsonRpcParserUtil;
 import net.jfabricationgames.notebook.note.Note;
+import net.jfabricationgames.notebook.note.NoteChangeRequest;
+import net.jfabricationgames.notebook.note.NoteChanges;
+import net.jfabricationgames.notebook.note.NotePage;
+import net.jfabricationgames.notebook.note.NotePatch;
+import net.jfabricationgames.notebook.note.NoteSearch;
+import net.jfabricationgames.notebook.note.NoteSearchPage;
 import net.jfabricationgames.notebook.note.NoteSelector;
+import net.jfabricationgames.notebook.note.ReminderRange;
 
+/**
+ * The JSON-RPC methods of the service.
+ * <p>
+ * Every method is bound to the method of the {@link NoteBookServiceProvider} that executes it, so a new method only has to be added here
+ * (and in the provider) to be callable.
+ */
 public enum NoteBookServiceMethods {
-	CREATE_NOTE("create_note", Note.class, Integer.class),//
-	GET_NOTES("get_notes", NoteSelector.class, List.class),//
-	UPDATE_NOTE("update_note", Note.class, Integer.class),//
-	DELETE_NOTES("delete_notes", NoteSelector.class, Integer.class);
+	CREATE_NOTE("create_note", Note.class, Integer.class, false, NoteBookServiceProvider::create_note),//
+	CREATE_NOTES("create_notes", Note[].class, List.class, false, NoteBookServiceProvider::create_notes),//
+	GET_NOTES("get_notes", NoteSelector.class, List.class, true, NoteBookServiceProvider::get_notes),//
+	GET_NOTE_PAGE("get_note_page", NoteSelector.class, NotePage.class, true, NoteBookServiceProvider::get_note_page),//
+	SEARCH_NOTES("search_notes", NoteSearch.class, NoteSearchPage.class, true, NoteBookServiceProvider::search_notes),//
+	GET_DUE_REMINDERS("get_due_reminders", ReminderRange.class, List.class, true, NoteBookServiceProvider::get_due_reminders),//
+	GET_CHANGES_SINCE("get_changes_since", NoteChangeRequest.class, NoteChanges.class, true, NoteBookServiceProvider::get_changes_since),//
+	UPDATE_NOTE("update_note", Note.class, Integer.class, false, NoteBookServiceProvider::update_note),//
+	PATCH_NOTE("patch_note", NotePatch.class, Integer.class, false, NoteBookServiceProvider::patch_note),//
+	DELETE_NOTES("delete_notes", NoteSelector.class, Integer.class, false, NoteBookServiceProvider::delete_notes);
+	
+	private static final Map<String, NoteBookServiceMethods> METHODS_BY_NAME = new HashMap<String, NoteBookServiceMethods>();
+	private static final Map<String, Class<?>> PARAMETERS_BY_NAME = new HashMap<String, Class<?>>();
+	
+	static {
+		for (NoteBookServiceMethods method : values()) {
+			METHODS_BY_NAME.put(method.getMethodName(), method);
+			PARAMETERS_BY_NAME.put(method.getMethodName(), method.getParameter());
+		}
+	}
 	
 	private final String methodName;
 	private final Class<?> parameter;
 	private final Class<?> returnType;
+	private final boolean readOnly;
+	private final NoteBookServiceMethodHandler<Object, ?> handler;
 	
-	private NoteBookServiceMethods(String methodName, Class<?> parameter, Class<?> returnType) {
+	@SuppressWarnings("unchecked")
+	private <P, R> NoteBookServiceMethods(String methodName, Class<P> parameter, Class<R> returnType, boolean readOnly,
+			NoteBookServiceMethodHandler<P, ? extends R> handler) {
 		this.methodName = methodName;
 		this.parameter = parameter;
 		this.returnType = returnType;
+		this.readOnly = readOnly;
+		//the parameters are converted to the parameter type before the handler is called
+		this.handler = (NoteBookServiceMethodHandler<Object, ?>) handler;
+	}
+	
+	/**
+	 * Get the method with the given JSON-RPC method name.
+	 * 
+	 * @return The method or null if there is no method with this name
+	 */
+	public static NoteBookServiceMethods getByMethodName(String methodName) {
+		return methodName == null ? null : METHODS_BY_NAME.get(methodName);
+	}
+	
+	/**
+	 * Get the parameter type of the method with the given JSON-RPC method name.
+	 * 
+	 * @return The parameter type or null if there is no method with this name
+	 */
+	public static Class<?> getParameterByMethodName(String methodName) {
+		NoteBookServiceMethods method = getByMethodName(methodName);
+		return method == null ? null : method.getParameter();
+	}
+	
+	/**
+	 * Get the parameter types of all methods (by their JSON-RPC method names).
+	 */
+	public static Map<String, Class<?>> getParameterTypes() {
+		return Collections.unmodifiableMap(PARAMETERS_BY_NAME);
+	}
+	
+	/**
+	 * Execute the method.
+	 * 
+	 * @param provider
+	 *        The provider that executes the method
+	 * @param parameters
+	 *        The parameters of the request (the parameter type of this method or an object that can be converted to it)
+	 * 
+	 * @return The result of the method (an instance of the return type)
+	 */
+	public Object invoke(NoteBookServiceProvider provider, Object parameters) throws SQLException, UnsupportedParameterException {
+		return execute(provider, parseParameters(parameters));
+	}
+	
+	/**
+	 * Convert the parameters of a request to the parameter type of this method.
+	 * 
+	 * @throws UnsupportedParameterException
+	 *         An UnsupportedParameterException is thrown if the parameters are missing or can't be converted to the parameter type (or if an
+	 *         array of parameters contains null).
+	 */
+	public Object parseParameters(Object parameters) throws UnsupportedParameterException {
+		if (parameters == null) {
+			throw new UnsupportedParameterException("The method " + methodName + " needs a " + parameter.getSimpleName() + " as parameter");
+		}
+		Object parsed = JsonRpcParserUtil.parseToType(parameters, parameter);
+		//e.g. create_notes with a null note (that would fail in the middle of the transaction)
+		if (parsed instanceof Object[] && Arrays.asList((Object[]) parsed).contains(null)) {
+			throw new UnsupportedParameterException("The parameters of the method " + methodName + " mussn't contain null");
+		}
+		return parsed;
+	}
+	
+	/**
+	 * Execute the method with parameters that were already converted by {@link #parseParameters(Object)}.
+	 */
+	public Object execute(NoteBookServiceProvider provider, Object parsedParameters) throws SQLException {
+		return handler.invoke(provider, parsedParameters);
 	}
 	
 	public String getMethodName() {
@@ -30,4 +139,10 @@ public enum NoteBookServiceMethods {
 	public Class<?> getReturnType() {
 		return returnType;
 	}
-}
\ No newline at end of file
+	/**
+	 * Whether the method only reads data (so it can be executed concurrently with other methods of a batch request)
+	 */
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+}
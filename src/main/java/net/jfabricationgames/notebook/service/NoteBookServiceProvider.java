@@ -1,16 +1,29 @@
 package net.jfabricationgames.notebook.service;
 
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import net.jfabricationgames.json_rpc.UnsupportedParameterException;
 import net.jfabricationgames.notebook.db.DatabaseConnection;
+import net.jfabricationgames.notebook.note.DueReminder;
 import net.jfabricationgames.notebook.note.Note;
+import net.jfabricationgames.notebook.note.NoteChangeRequest;
+import net.jfabricationgames.notebook.note.NoteChanges;
+import net.jfabricationgames.notebook.note.NotePage;
+import net.jfabricationgames.notebook.note.NotePatch;
+import net.jfabricationgames.notebook.note.NoteSearch;
+import net.jfabricationgames.notebook.note.NoteSearchPage;
 import net.jfabricationgames.notebook.note.NoteSelector;
+import net.jfabricationgames.notebook.note.ReminderRange;
 
+/**
+ * Executes the methods of the service (see {@link NoteBookServiceMethods}).
+ * <p>
+ * The provider is stateless, so one instance can be shared by all requests.
+ */
 public class NoteBookServiceProvider {
 	
 	private static final Logger LOGGER = LogManager.getLogger(NoteBookServiceProvider.class);
@@ -21,26 +34,90 @@ public class NoteBookServiceProvider {
 	 * @param note
 	 * @return The notes new id
 	 */
-	public Integer create_note(Object parameters) throws SQLException, UnsupportedParameterException {
-		LOGGER.info("create_note was called (parameters: " + parameters + ")");
-		Note note = Note.fromJsonRpcParameters(parameters);
+	public Integer create_note(Note note) throws SQLException {
+		LOGGER.info("create_note was called (parameters: " + note + ")");
 		DatabaseConnection db = DatabaseConnection.getInstance();
 		int id = db.createNote(note);
 		return id;
 	}
 	
+	/**
+	 * Receives a list of notes and creates them in the database.
+	 * 
+	 * @param notes
+	 * @return The new ids of the notes (in the same order as the notes)
+	 */
+	public List<Integer> create_notes(Note[] notes) throws SQLException {
+		LOGGER.info("create_notes was called (number of notes: " + notes.length + ")");
+		DatabaseConnection db = DatabaseConnection.getInstance();
+		List<Integer> ids = db.createNotes(Arrays.asList(notes));
+		return ids;
+	}
+	
 	/**
 	 * Returns all notes in the database that match the NoteSelector.
 	 * 
 	 * @param selector
 	 * @return All matching notes as a list
 	 */
-	public List<Note> get_notes(Object parameters) throws SQLException, UnsupportedParameterException {
-		LOGGER.info("get_notes was called (parameters: " + parameters + ")");
-		NoteSelector selector = NoteSelector.fromJsonRpcParameters(parameters);
+	public List<Note> get_notes(NoteSelector selector) throws SQLException {
+		LOGGER.info("get_notes was called (parameters: " + selector + ")");
 		DatabaseConnection db = DatabaseConnection.getInstance();
-		List<Note> id = db.getNotes(selector);
-		return id;
+		List<Note> notes = db.getNotes(selector);
+		return notes;
+	}
+	
+	/**
+	 * Returns a page of the notes that match the NoteSelector (up to the selector's limit, starting after the selector's cursor).
+	 * 
+	 * @param selector
+	 * @return The notes of the page and the cursor of the next page
+	 */
+	public NotePage get_note_page(NoteSelector selector) throws SQLException {
+		LOGGER.info("get_note_page was called (parameters: " + selector + ")");
+		DatabaseConnection db = DatabaseConnection.getInstance();
+		NotePage page = db.getNotePage(selector);
+		return page;
+	}
+	
+	/**
+	 * Searches the notes which headline or text contain the words of the query (ordered by their relevance).
+	 * 
+	 * @param search
+	 * @return A page of the found notes (with their relevance) and the offset of the next page
+	 */
+	public NoteSearchPage search_notes(NoteSearch search) throws SQLException {
+		LOGGER.info("search_notes was called (parameters: " + search + ")");
+		DatabaseConnection db = DatabaseConnection.getInstance();
+		NoteSearchPage page = db.searchNotes(search);
+		return page;
+	}
+	
+	/**
+	 * Returns the reminders that are due in the range [from, to) with their notes (ordered by the reminder date).
+	 * 
+	 * @param range
+	 * @return The due reminders
+	 */
+	public List<DueReminder> get_due_reminders(ReminderRange range) throws SQLException {
+		LOGGER.info("get_due_reminders was called (parameters: " + range + ")");
+		DatabaseConnection db = DatabaseConnection.getInstance();
+		List<DueReminder> reminders = db.getDueReminders(range);
+		return reminders;
+	}
+	
+	/**
+	 * Returns the notes that were created or changed and the ids of the deleted notes after the revision of the request (ordered by their
+	 * revisions).
+	 * 
+	 * @param request
+	 * @return The changes and the revision to request the next changes
+	 */
+	public NoteChanges get_changes_since(NoteChangeRequest request) throws SQLException {
+		LOGGER.info("get_changes_since was called (parameters: " + request + ")");
+		DatabaseConnection db = DatabaseConnection.getInstance();
+		NoteChanges changes = db.getChangesSince(request);
+		return changes;
 	}
 	
 	/**
@@ -49,12 +126,24 @@ public class NoteBookServiceProvider {
 	 * @param note
 	 * @return The number of affected rows
 	 */
-	public Integer update_note(Object parameters) throws SQLException, UnsupportedParameterException {
-		LOGGER.info("update_note was called (parameters: " + parameters + ")");
-		Note note = Note.fromJsonRpcParameters(parameters);
+	public Integer update_note(Note note) throws SQLException {
+		LOGGER.info("update_note was called (parameters: " + note + ")");
 		DatabaseConnection db = DatabaseConnection.getInstance();
-		int id = db.updateNote(note);
-		return id;
+		int affectedRows = db.updateNote(note);
+		return affectedRows;
+	}
+	
+	/**
+	 * Changes only the fields and dates of a note that are contained in the patch.
+	 * 
+	 * @param patch
+	 * @return The number of affected rows
+	 */
+	public Integer patch_note(NotePatch patch) throws SQLException {
+		LOGGER.info("patch_note was called (parameters: " + patch + ")");
+		DatabaseConnection db = DatabaseConnection.getInstance();
+		int affectedRows = db.patchNote(patch);
+		return affectedRows;
 	}
 	
 	/**
@@ -63,11 +152,10 @@ public class NoteBookServiceProvider {
 	 * @param selector
 	 * @return The number of affected rows
 	 */
-	public Integer delete_notes(Object parameters) throws SQLException, UnsupportedParameterException {
-		LOGGER.info("delete_notes was called (parameters: " + parameters + ")");
-		NoteSelector selector = NoteSelector.fromJsonRpcParameters(parameters);
+	public Integer delete_notes(NoteSelector selector) throws SQLException {
+		LOGGER.info("delete_notes was called (parameters: " + selector + ")");
 		DatabaseConnection db = DatabaseConnection.getInstance();
-		int id = db.deleteNotes(selector);
-		return id;
+		int affectedRows = db.deleteNotes(selector);
+		return affectedRows;
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,458 @@
+package net.jfabricationgames.notebook.service;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import net.jfabricationgames.notebook.config.NoteBookConfiguration;
+import net.jfabricationgames.notebook.db.DatabaseConnection;
+import net.jfabricationgames.notebook.db.NoteChangeListener;
+import net.jfabricationgames.notebook.db.NoteChangeType;
+import net.jfabricationgames.notebook.note.DueReminder;
+import net.jfabricationgames.notebook.note.NoteEvent;
+import net.jfabricationgames.notebook.note.NoteEventBatch;
+import net.jfabricationgames.notebook.note.NoteEventType;
+import net.jfabricationgames.notebook.note.ReminderRange;
+
+/**
+ * Publishes the committed changes of the notes and the due reminders as {@link NoteEvent}s to the subscribers of the service (server-sent
+ * events or long polls), so the clients don't have to poll get_notes to find out whether anything changed.
+ * <p>
+ * Publishing never blocks the thread that changed the notes: the events are appended to a bounded history and the subscribers are informed
+ * by a dispatcher thread. Every subscriber has a bounded buffer, that is delivered by a pool of delivery threads. If a subscriber is too
+ * slow, the oldest events are dropped and an EVENTS_MISSED event is delivered instead (so the client knows that it has to reload the notes).
+ * <p>
+ * The sequences start at the start time of the broker (in microseconds), so the sequences after a restart of the service are greater than
+ * the sequences before it (unless more than 1000 events per millisecond were published). A client that resumes with a sequence of a
+ * previous start receives an EVENTS_MISSED event, like a client which sequence is not in the history anymore.
+ *
+ * @author Tobias Faßbender
+ */
+public class NoteEventBroker implements NoteChangeListener {
+	
+	private static final Logger LOGGER = LogManager.getLogger(NoteEventBroker.class);
+	
+	private static NoteEventBroker instance;
+	
+	private final int historySize;
+	private final int bufferSize;
+	private final int maxSubscribers;
+	
+	/**
+	 * The last published events (guarded by itself)
+	 */
+	private final Deque<NoteEvent> history = new ArrayDeque<NoteEvent>();
+	private long lastSequence;
+	
+	/**
+	 * Guards the dispatched sequence, so subscribers and polls are added between two dispatches (and don't miss or repeat events)
+	 */
+	private final Object dispatchLock = new Object();
+	private long dispatchedSequence;
+	private final AtomicBoolean dispatchScheduled = new AtomicBoolean();
+	
+	private final List<Subscription> subscriptions = new CopyOnWriteArrayList<Subscription>();
+	private final List<Poll> polls = new CopyOnWriteArrayList<Poll>();
+	
+	private final ExecutorService dispatcher;
+	private final ExecutorService deliveryExecutor;
+	private ScheduledExecutorService reminderScheduler;
+	
+	/**
+	 * The end of the range in which the due reminders were already published
+	 */
+	private LocalDateTime remindersPublishedUntil;
+	
+	/*private */NoteEventBroker(NoteBookConfiguration configuration) {
+		this(configuration, System.currentTimeMillis() * 1000);
+	}
+	
+	/**
+	 * @param initialSequence
+	 *        The sequence before the first event (the first event has the next sequence)
+	 */
+	/*private */NoteEventBroker(NoteBookConfiguration configuration, long initialSequence) {
+		lastSequence = initialSequence;
+		dispatchedSequence = initialSequence;
+		historySize = Math.max(1, configuration.getInt("events.historySize", 10000));
+		bufferSize = Math.max(1, configuration.getInt("events.bufferSize", 1000));
+		maxSubscribers = configuration.getInt("events.maxSubscribers", 1000);
+		int deliveryThreads = Math.max(1, configuration.getInt("events.deliveryThreads", 4));
+		
+		//a single dispatch is enough for all events that were published in the meantime, so the queue is short
+		dispatcher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(1),
+				NoteBookServiceExecutors.createThreadFactory("notebook-event-dispatcher"), new ThreadPoolExecutor.DiscardPolicy());
+		deliveryExecutor = Executors.newFixedThreadPool(deliveryThreads, NoteBookServiceExecutors.createThreadFactory("notebook-event-delivery"));
+	}
+	
+	/**
+	 * Get the broker (it's created and registered at the DatabaseConnection with the first call).
+	 */
+	public static synchronized NoteEventBroker getInstance() throws SQLException {
+		if (instance == null) {
+			NoteBookConfiguration configuration = NoteBookConfiguration.getInstance();
+			NoteEventBroker broker = new NoteEventBroker(configuration);
+			DatabaseConnection.getInstance().addNoteChangeListener(broker);
+			broker.startReminderScheduler(configuration.getLong("events.reminders.intervalSeconds", 30));
+			instance = broker;
+		}
+		return instance;
+	}
+	
+	/**
+	 * Stop the broker (the subscribers don't receive any more events).
+	 */
+	public static synchronized void shutdown() {
+		if (instance != null) {
+			LOGGER.info("Shutting down the event broker");
+			try {
+				DatabaseConnection.getInstance().removeNoteChangeListener(instance);
+			}
+			catch (SQLException sqle) {
+				//the broker wasn't registered if the connection is not available
+			}
+			instance.stop();
+			instance = null;
+		}
+	}
+	
+	/*private */void stop() {
+		if (reminderScheduler != null) {
+			reminderScheduler.shutdownNow();
+		}
+		dispatcher.shutdownNow();
+		deliveryExecutor.shutdownNow();
+	}
+	
+	private void startReminderScheduler(long intervalSeconds) {
+		remindersPublishedUntil = LocalDateTime.now();
+		reminderScheduler = Executors.newSingleThreadScheduledExecutor(NoteBookServiceExecutors.createThreadFactory("notebook-reminders"));
+		reminderScheduler.scheduleWithFixedDelay(this::publishDueReminders, intervalSeconds, Math.max(1, intervalSeconds), TimeUnit.SECONDS);
+	}
+	
+	private void publishDueReminders() {
+		LocalDateTime now = LocalDateTime.now();
+		try {
+			List<DueReminder> dueReminders = DatabaseConnection.getInstance().getDueReminders(new ReminderRange(remindersPublishedUntil, now));
+			List<NoteEvent> events = new ArrayList<NoteEvent>(dueReminders.size());
+			for (DueReminder reminder : dueReminders) {
+				events.add(new NoteEvent(NoteEventType.REMINDER_DUE, reminder.getNote().getId(), reminder.getReminderDate()));
+			}
+			publish(events);
+			remindersPublishedUntil = now;
+		}
+		catch (SQLException | RuntimeException e) {
+			//the range is requested again with the next check
+			LOGGER.error("The due reminders couldn't be loaded", e);
+		}
+	}
+	
+	@Override
+	public void notesChanged(Set<Integer> ids) {
+		//only the committed changes are published (see notesCommitted)
+	}
+	
+	@Override
+	public void notesCommitted(Map<Integer, NoteChangeType> changes) {
+		List<NoteEvent> events = new ArrayList<NoteEvent>(changes.size());
+		//the events are ordered by the note ids
+		for (Map.Entry<Integer, NoteChangeType> change : new TreeMap<Integer, NoteChangeType>(changes).entrySet()) {
+			events.add(new NoteEvent(toEventType(change.getValue()), change.getKey(), null));
+		}
+		publish(events);
+	}
+	
+	private static NoteEventType toEventType(NoteChangeType type) {
+		switch (type) {
+			case CREATED:
+				return NoteEventType.NOTE_CREATED;
+			case UPDATED:
+				return NoteEventType.NOTE_UPDATED;
+			case DELETED:
+				return NoteEventType.NOTE_DELETED;
+			default:
+				throw new IllegalArgumentException("Unknown change type: " + type);
+		}
+	}
+	
+	/**
+	 * Number the events and add them to the history (the subscribers are informed by the dispatcher thread).
+	 */
+	/*private */void publish(List<NoteEvent> events) {
+		if (events.isEmpty()) {
+			return;
+		}
+		synchronized (history) {
+			for (NoteEvent event : events) {
+				event.setSequence(++lastSequence);
+				history.addLast(event);
+				if (history.size() > historySize) {
+					history.removeFirst();
+				}
+			}
+		}
+		if (dispatchScheduled.compareAndSet(false, true)) {
+			try {
+				dispatcher.execute(this::dispatch);
+			}
+			catch (RejectedExecutionException ree) {
+				//the broker was stopped
+				dispatchScheduled.set(false);
+			}
+		}
+	}
+	
+	private void dispatch() {
+		dispatchScheduled.set(false);
+		synchronized (dispatchLock) {
+			NoteEventBatch batch = getEvents(dispatchedSequence, Long.MAX_VALUE);
+			if (batch.getEvents().isEmpty() && !batch.isEventsMissed()) {
+				return;
+			}
+			dispatchedSequence = batch.getLastSequence();
+			
+			for (Subscription subscription : subscriptions) {
+				subscription.offer(batch);
+			}
+			for (Poll poll : polls) {
+				poll.respond(getEvents(poll.afterSequence, dispatchedSequence), false);
+			}
+		}
+	}
+	
+	/**
+	 * Get the events of the history in the range (afterSequence, upToSequence].
+	 */
+	private NoteEventBatch getEvents(long afterSequence, long upToSequence) {
+		synchronized (history) {
+			long lastIncludedSequence = Math.min(upToSequence, lastSequence);
+			List<NoteEvent> events = new ArrayList<NoteEvent>();
+			for (NoteEvent event : history) {
+				if (event.getSequence() > afterSequence && event.getSequence() <= lastIncludedSequence) {
+					events.add(event);
+				}
+			}
+			//the events between the requested sequence and the oldest event in the history are lost
+			long oldestSequence = history.isEmpty() ? lastSequence + 1 : history.peekFirst().getSequence();
+			boolean eventsMissed = afterSequence < Math.min(oldestSequence - 1, lastIncludedSequence);
+			//a sequence after the current one was received before a restart of the service
+			eventsMissed |= afterSequence > lastIncludedSequence;
+			long batchSequence = events.isEmpty() ? (eventsMissed ? lastIncludedSequence : afterSequence)
+					: events.get(events.size() - 1).getSequence();
+			return new NoteEventBatch(events, batchSequence, eventsMissed);
+		}
+	}
+	
+	/**
+	 * Subscribe to the events.
+	 * 
+	 * @param lastEventId
+	 *        The sequence of the last event that the client received before it reconnected (or null to receive only new events)
+	 * 
+	 * @throws IllegalStateException
+	 *         An IllegalStateException is thrown if the maximum number of subscribers is reached
+	 */
+	public Subscription subscribe(NoteEventReceiver receiver, Long lastEventId) throws IllegalStateException {
+		if (subscriptions.size() + polls.size() >= maxSubscribers) {
+			throw new IllegalStateException("Too many subscribers");
+		}
+		Subscription subscription = new Subscription(receiver);
+		synchronized (dispatchLock) {
+			if (lastEventId != null) {
+				//the events after the dispatched sequence are delivered by the next dispatch
+				subscription.offer(getEvents(lastEventId, dispatchedSequence));
+			}
+			subscriptions.add(subscription);
+		}
+		return subscription;
+	}
+	
+	/**
+	 * Wait for the events after the sequence (long poll). If there are events, the response is sent immediately; otherwise it's sent when
+	 * the next events are published (or when the poll is cancelled by a timeout).
+	 * 
+	 * @param afterSequence
+	 *        The sequence of the last event that the client received (or null to receive the current sequence without waiting)
+	 * 
+	 * @throws IllegalStateException
+	 *         An IllegalStateException is thrown if the maximum number of subscribers is reached
+	 */
+	public Poll poll(Long afterSequence, Consumer<NoteEventBatch> response) throws IllegalStateException {
+		if (subscriptions.size() + polls.size() >= maxSubscribers) {
+			throw new IllegalStateException("Too many subscribers");
+		}
+		synchronized (dispatchLock) {
+			long after = afterSequence == null ? dispatchedSequence : afterSequence;
+			Poll poll = new Poll(after, response);
+			NoteEventBatch batch = getEvents(after, dispatchedSequence);
+			//a poll without a sequence is answered immediately with the current sequence
+			if (!poll.respond(batch, afterSequence == null)) {
+				polls.add(poll);
+			}
+			return poll;
+		}
+	}
+	
+	public int getSubscriberCount() {
+		return subscriptions.size() + polls.size();
+	}
+	
+	/**
+	 * A subscription with a bounded buffer of the events that were not yet delivered to the receiver.
+	 */
+	public class Subscription {
+		
+		private final NoteEventReceiver receiver;
+		private final Deque<NoteEvent> buffer = new ArrayDeque<NoteEvent>();
+		//guarded by the buffer
+		private Long missedSequence;
+		private boolean deliveryScheduled;
+		
+		private Subscription(NoteEventReceiver receiver) {
+			this.receiver = receiver;
+		}
+		
+		private void offer(NoteEventBatch batch) {
+			boolean scheduleDelivery = false;
+			synchronized (buffer) {
+				if (batch.isEventsMissed()) {
+					missedSequence = batch.getLastSequence();
+					buffer.clear();
+				}
+				for (NoteEvent event : batch.getEvents()) {
+					if (buffer.size() >= bufferSize) {
+						//the subscriber is too slow; the client has to reload the notes anyway, so the buffered events are dropped
+						missedSequence = event.getSequence();
+						buffer.clear();
+					}
+					else {
+						buffer.addLast(event);
+					}
+				}
+				if (!deliveryScheduled && (missedSequence != null || !buffer.isEmpty())) {
+					deliveryScheduled = true;
+					scheduleDelivery = true;
+				}
+			}
+			if (scheduleDelivery) {
+				try {
+					deliveryExecutor.execute(this::deliver);
+				}
+				catch (RejectedExecutionException ree) {
+					//the broker was stopped
+					cancel();
+				}
+			}
+		}
+		
+		private void deliver() {
+			while (true) {
+				NoteEvent event;
+				synchronized (buffer) {
+					if (missedSequence != null) {
+						event = new NoteEvent(NoteEventType.EVENTS_MISSED, null, null);
+						event.setSequence(missedSequence);
+						missedSequence = null;
+					}
+					else if (!buffer.isEmpty()) {
+						event = buffer.removeFirst();
+					}
+					else {
+						deliveryScheduled = false;
+						return;
+					}
+				}
+				boolean open;
+				try {
+					open = receiver.receive(event);
+				}
+				catch (RuntimeException re) {
+					LOGGER.warn("An event couldn't be delivered; the subscription is cancelled", re);
+					open = false;
+				}
+				if (!open) {
+					cancel();
+					return;
+				}
+			}
+		}
+		
+		/**
+		 * Stop the delivery of events to this subscription.
+		 */
+		public void cancel() {
+			subscriptions.remove(this);
+			synchronized (buffer) {
+				buffer.clear();
+				missedSequence = null;
+			}
+		}
+	}
+	
+	/**
+	 * A long poll that is waiting for events. The response is sent only once (by the broker or by {@link #cancel()}).
+	 */
+	public class Poll {
+		
+		private final long afterSequence;
+		private final Consumer<NoteEventBatch> response;
+		private final AtomicBoolean responded = new AtomicBoolean();
+		
+		private Poll(long afterSequence, Consumer<NoteEventBatch> response) {
+			this.afterSequence = afterSequence;
+			this.response = response;
+		}
+		
+		/**
+		 * Send the batch as response, if it contains events (or if the response is forced).
+		 * 
+		 * @return true if the response was sent (by this or a previous call)
+		 */
+		private boolean respond(NoteEventBatch batch, boolean force) {
+			if (!force && batch.getEvents().isEmpty() && !batch.isEventsMissed()) {
+				return responded.get();
+			}
+			if (responded.compareAndSet(false, true)) {
+				polls.remove(this);
+				//the response is sent by a delivery thread, so a slow client doesn't block the dispatcher (that holds the dispatch lock)
+				try {
+					deliveryExecutor.execute(() -> response.accept(batch));
+				}
+				catch (RejectedExecutionException ree) {
+					//the broker was stopped; the response is sent anyway, because the poll can't be cancelled anymore
+					response.accept(batch);
+				}
+			}
+			return true;
+		}
+		
+		/**
+		 * Stop waiting for events (e.g. after a timeout).
+		 * 
+		 * @return true if the poll was still waiting (so the caller has to send the response) or false if the events were already sent
+		 */
+		public boolean cancel() {
+			polls.remove(this);
+			return responded.compareAndSet(false, true);
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package net.jfabricationgames.notebook.service;
+
+import net.jfabricationgames.notebook.note.NoteEvent;
+
+/**
+ * Receives the events of a subscription to the {@link NoteEventBroker} (e.g. by sending them as server-sent events to a client).
+ *
+ * @author Tobias Faßbender
+ */
+@FunctionalInterface
+public interface NoteEventReceiver {
+	
+	/**
+	 * Receive the next event of the subscription.
+	 * 
+	 * @return false if the receiver is closed (so the subscription is removed)
+	 */
+	public boolean receive(NoteEvent event);
+}
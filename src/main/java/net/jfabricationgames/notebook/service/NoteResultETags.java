@@ -0,0 +1,75 @@
+package net.jfabricationgames.notebook.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+import javax.ws.rs.core.EntityTag;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import net.jfabricationgames.notebook.note.NoteSelector;
+
+/**
+ * Creates the ETags of the results of get_notes requests. The ETag of a result is created from the write version of the database (see
+ * {@link net.jfabricationgames.notebook.db.DatabaseConnection#getWriteVersion()}) and the canonical form of the NoteSelector, so it can be
+ * compared to the header If-None-Match without reading the notes. The ETags of the same result in different {@link PayloadFormat}s differ.
+ * <p>
+ * The ETags also contain the start time of the service, because the write version starts at 0 after a restart.
+ *
+ * @author Tobias Faßbender
+ */
+public abstract class NoteResultETags {
+	
+	private static final String INSTANCE = Long.toString(System.currentTimeMillis(), 36);
+	
+	/**
+	 * The number of bytes of the digest of the selector that are used in the ETag
+	 */
+	private static final int SELECTOR_DIGEST_BYTES = 12;
+	
+	/**
+	 * Create the (weak) ETag of the result of the selector in the given write version and format.
+	 */
+	public static EntityTag createETag(long writeVersion, NoteSelector selector, PayloadFormat format) {
+		return new EntityTag(INSTANCE + "-" + Long.toString(writeVersion, 36) + "-" + digest(selector) + "-" + format.ordinal(), true);
+	}
+	
+	private static String digest(NoteSelector selector) {
+		try {
+			byte[] canonical = NoteBookObjectMapperProvider.getObjectMapper().writeValueAsString(selector.toCanonical())
+					.getBytes(StandardCharsets.UTF_8);
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical);
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, SELECTOR_DIGEST_BYTES));
+		}
+		catch (JsonProcessingException | NoSuchAlgorithmException e) {
+			//every selector can be serialized and every JVM supports SHA-256
+			throw new IllegalStateException("The ETag of the selector couldn't be created", e);
+		}
+	}
+	
+	/**
+	 * Check whether the value of the header If-None-Match contains the ETag (using the weak comparison, so the ETag matches with or without
+	 * the prefix W/).
+	 */
+	public static boolean matches(String ifNoneMatch, EntityTag eTag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		for (String value : ifNoneMatch.split(",")) {
+			String tag = value.trim();
+			if (tag.equals("*")) {
+				return true;
+			}
+			if (tag.startsWith("W/")) {
+				tag = tag.substring(2);
+			}
+			if (tag.equals("\"" + eTag.getValue() + "\"")) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,98 @@
+package net.jfabricationgames.notebook.service;
+
+import java.util.function.Supplier;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import net.jfabricationgames.json_rpc.util.JsonRpcParserUtil;
+
+/**
+ * The formats in which the JSON-RPC requests and responses can be sent (selected by the headers Content-Type and Accept). The binary formats
+ * encode the same structure as JSON (so every class can be sent in every format), but they are smaller and faster to read and write.
+ *
+ * @author Tobias Faßbender
+ */
+public enum PayloadFormat {
+	
+	JSON(MediaType.APPLICATION_JSON, JsonFactory::new), //
+	SMILE(PayloadFormat.APPLICATION_SMILE, SmileFactory::new), //
+	CBOR(PayloadFormat.APPLICATION_CBOR, CBORFactory::new), //
+	MESSAGE_PACK(PayloadFormat.APPLICATION_MESSAGE_PACK, MessagePackFactory::new);
+	
+	public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+	public static final String APPLICATION_CBOR = "application/cbor";
+	public static final String APPLICATION_MESSAGE_PACK = "application/x-msgpack";
+	
+	private final MediaType mediaType;
+	private final Supplier<JsonFactory> factory;
+	
+	/**
+	 * The mapper is created with the first use (creating a mapper is expensive and most formats are never used)
+	 */
+	private volatile ObjectMapper mapper;
+	
+	private PayloadFormat(String mediaType, Supplier<JsonFactory> factory) {
+		this.mediaType = MediaType.valueOf(mediaType);
+		this.factory = factory;
+	}
+	
+	/**
+	 * Get the format of the media type (or null if the media type is not a known format).
+	 */
+	public static PayloadFormat forMediaType(MediaType mediaType) {
+		if (mediaType == null) {
+			return null;
+		}
+		for (PayloadFormat format : values()) {
+			if (!mediaType.isWildcardType() && !mediaType.isWildcardSubtype() && format.mediaType.isCompatible(mediaType)) {
+				return format;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Get the format of the response to a request: the first acceptable media type that is a known format, or the format of the request if
+	 * any format is accepted (JSON if the format of the request is not known either).
+	 */
+	public static PayloadFormat forResponse(HttpHeaders requestHeaders) {
+		for (MediaType mediaType : requestHeaders.getAcceptableMediaTypes()) {
+			PayloadFormat format = forMediaType(mediaType);
+			if (format != null) {
+				return format;
+			}
+		}
+		PayloadFormat requestFormat = forMediaType(requestHeaders.getMediaType());
+		return requestFormat != null ? requestFormat : JSON;
+	}
+	
+	public MediaType getMediaType() {
+		return mediaType;
+	}
+	
+	/**
+	 * Get the (shared) mapper of this format, that binds the params of a JSON-RPC request like the mapper of the
+	 * {@link NoteBookObjectMapperProvider} (which is used for JSON).
+	 */
+	public ObjectMapper getObjectMapper() {
+		if (this == JSON) {
+			return NoteBookObjectMapperProvider.getObjectMapper();
+		}
+		if (mapper == null) {
+			synchronized (this) {
+				if (mapper == null) {
+					mapper = JsonRpcParserUtil.createJsonRpcObjectMapper(factory.get(), NoteBookServiceMethods.getParameterTypes());
+				}
+			}
+		}
+		return mapper;
+	}
+}
@@ -0,0 +1,99 @@
+package net.jfabricationgames.json_rpc.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import net.jfabricationgames.json_rpc.JsonRpcBatchRequest;
+import net.jfabricationgames.json_rpc.JsonRpcRequest;
+import net.jfabricationgames.notebook.note.Note;
+import net.jfabricationgames.notebook.note.NoteRelation;
+import net.jfabricationgames.notebook.note.NoteSelector;
+import net.jfabricationgames.notebook.note.NoteSelectorBuilder;
+import net.jfabricationgames.notebook.service.NoteBookServiceMethods;
+
+class JsonRpcRequestDeserializerTest {
+	
+	private ObjectMapper mapper = JsonRpcParserUtil.createJsonRpcObjectMapper(NoteBookServiceMethods.getParameterTypes());
+	
+	@Test
+	public void testDeserialize_methodBeforeParams() throws IOException {
+		String json = "{\"jsonrpc\": \"2.0\", \"method\": \"get_notes\", \"params\": {\"ids\": [1, 2], \"idRelation\": \"IN\"}, \"id\": 42}";
+		JsonRpcRequest request = mapper.readValue(json, JsonRpcRequest.class);
+		
+		NoteSelector expected = new NoteSelectorBuilder().addIds(Arrays.asList(1, 2)).setIdRelation(NoteRelation.IN).build();
+		assertEquals("2.0", request.getJsonRpc());
+		assertEquals("get_notes", request.getMethod());
+		assertEquals("42", request.getId());
+		assertEquals(expected, request.getParams());
+	}
+	
+	@Test
+	public void testDeserialize_paramsBeforeMethod() throws IOException {
+		String json = "{\"params\": {\"headline\": \"headline\", \"noteText\": \"some text\", \"priority\": 3, "
+				+ "\"executionDates\": [[2019, 5, 1, 12, 30]]}, \"id\": \"1\", \"method\": \"create_note\", \"jsonRpc\": \"2.0\"}";
+		JsonRpcRequest request = mapper.readValue(json, JsonRpcRequest.class);
+		
+		assertTrue(request.getParams() instanceof Note);
+		Note note = (Note) request.getParams();
+		assertEquals("headline", note.getHeadline());
+		assertEquals(3, note.getPriority());
+		assertEquals(1, note.getExecutionDates().size());
+	}
+	
+	@Test
+	public void testDeserialize_unknownMethodOrIllegalParams() throws IOException {
+		String unknownMethod = "{\"jsonRpc\": \"2.0\", \"method\": \"unknown\", \"params\": {\"ids\": [1]}, \"id\": \"1\"}";
+		String illegalParams = "{\"jsonRpc\": \"2.0\", \"method\": \"get_notes\", \"params\": {\"ids\": \"not a list\", \"priority\": 3}, \"id\": \"1\"}";
+		String illegalBufferedParams = "{\"params\": {\"ids\": \"not a list\"}, \"method\": \"get_notes\", \"id\": \"1\"}";
+		
+		assertTrue(mapper.readValue(unknownMethod, JsonRpcRequest.class).getParams() instanceof Map);
+		//params that were read directly are skipped, but the rest of the request is still read
+		JsonRpcRequest illegalParamsRequest = mapper.readValue(illegalParams, JsonRpcRequest.class);
+		assertNull(illegalParamsRequest.getParams());
+		assertEquals("1", illegalParamsRequest.getId());
+		assertTrue(mapper.readValue(illegalBufferedParams, JsonRpcRequest.class).getParams() instanceof Map);
+	}
+	
+	@Test
+	public void testDeserialize_illegalParamsInBatch() throws IOException {
+		String batch = "[{\"method\": \"create_notes\", \"params\": [{\"priority\": {\"nested\": [1, 2]}}, {}], \"id\": \"1\"}, "
+				+ "{\"method\": \"get_notes\", \"params\": null, \"id\": \"2\"}, {\"method\": \"get_notes\", \"params\": {}, \"id\": \"3\"}]";
+		
+		JsonRpcBatchRequest batchRequest = mapper.readValue(batch, JsonRpcBatchRequest.class);
+		
+		assertEquals(3, batchRequest.getRequests().size());
+		assertNull(batchRequest.getRequests().get(0).getParams());
+		assertEquals("1", batchRequest.getRequests().get(0).getId());
+		assertNull(batchRequest.getRequests().get(1).getParams());
+		assertTrue(batchRequest.getRequests().get(2).getParams() instanceof NoteSelector);
+	}
+	
+	@Test
+	public void testDeserializeBatch() throws IOException {
+		String single = "{\"jsonRpc\": \"2.0\", \"method\": \"get_notes\", \"params\": {}, \"id\": \"1\"}";
+		String batch = "[" + single + ", 42, {\"jsonRpc\": \"2.0\", \"method\": \"delete_notes\", \"params\": {}, \"id\": \"2\"}]";
+		
+		JsonRpcBatchRequest singleRequest = mapper.readValue(single, JsonRpcBatchRequest.class);
+		JsonRpcBatchRequest batchRequest = mapper.readValue(batch, JsonRpcBatchRequest.class);
+		
+		assertFalse(singleRequest.isBatch());
+		assertEquals(1, singleRequest.getRequests().size());
+		assertTrue(singleRequest.getRequests().get(0).getParams() instanceof NoteSelector);
+		
+		assertTrue(batchRequest.isBatch());
+		assertEquals(3, batchRequest.getRequests().size());
+		assertEquals("get_notes", batchRequest.getRequests().get(0).getMethod());
+		assertNull(batchRequest.getRequests().get(1));
+		assertEquals("2", batchRequest.getRequests().get(2).getId());
+	}
+}
\ No newline at end of file
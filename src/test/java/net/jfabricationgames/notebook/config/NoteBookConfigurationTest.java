@@ -0,0 +1,30 @@
+package net.jfabricationgames.notebook.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+
+class NoteBookConfigurationTest {
+	
+	@Test
+	public void testDefaultValues() {
+		Properties properties = new Properties();
+		properties.setProperty("number", "42");
+		properties.setProperty("notANumber", "forty two");
+		properties.setProperty("empty", " ");
+		properties.setProperty("flag", "true");
+		NoteBookConfiguration configuration = new NoteBookConfiguration(properties);
+		
+		assertEquals(42, configuration.getInt("number", 5));
+		assertEquals(42L, configuration.getLong("number", 5));
+		assertEquals(5, configuration.getInt("notANumber", 5));
+		assertEquals(5, configuration.getInt("empty", 5));
+		assertEquals(5, configuration.getInt("missing", 5));
+		assertEquals("default", configuration.getString("empty", "default"));
+		assertTrue(configuration.getBoolean("flag", false));
+		assertTrue(configuration.getBoolean("missing", true));
+	}
+}
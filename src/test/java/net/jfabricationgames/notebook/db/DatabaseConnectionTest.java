@@ -1,14 +1,32 @@
 package net.jfabricationgames.notebook.db;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static net.jfabricationgames.notebook.db.FakeJdbc.row;
+import static net.jfabricationgames.notebook.note.TestNotes.createNote;
 
 import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
 
+import net.jfabricationgames.notebook.note.Note;
+import net.jfabricationgames.notebook.note.NoteChanges;
+import net.jfabricationgames.notebook.note.NoteCursor;
+import net.jfabricationgames.notebook.note.NoteSearch;
+import net.jfabricationgames.notebook.note.NoteSearchMode;
 import net.jfabricationgames.notebook.note.NoteSelector;
 import net.jfabricationgames.notebook.note.NoteSelectorBuilder;
+import net.jfabricationgames.notebook.note.NoteSortKey;
 import net.jfabricationgames.notebook.note.NoteRelation;
 
 class DatabaseConnectionTest {
@@ -16,7 +34,7 @@ class DatabaseConnectionTest {
 	@Test
 	public void testCreateSelectorQuery() throws SQLException {
 		NoteSelector selector1 = new NoteSelectorBuilder().addId(1).addId(2).setIdRelation(NoteRelation.IN).build();
-		String expectedWhereClause1 = "WHERE n.id IN (?)";
+		String expectedWhereClause1 = "WHERE n.id IN (?, ?)";
 		
 		NoteSelector selector2 = new NoteSelectorBuilder().addId(1).setIdRelation(NoteRelation.GREATER).setPriority(5)
 				.setPriorityRelation(NoteRelation.LESS_EQUALS).build();
@@ -24,7 +42,7 @@ class DatabaseConnectionTest {
 		
 		NoteSelector selector3 = new NoteSelectorBuilder().setPriority(5).setPriorityRelation(NoteRelation.EQUALS).setDate(LocalDateTime.now())
 				.setDateRelation(NoteRelation.BEFORE).build();
-		String expectedWhereClause3 = "WHERE n.priority = ? AND ex.execution_date < ?";
+		String expectedWhereClause3 = "WHERE n.priority = ? AND EXISTS (SELECT 1 FROM notebook.execution_dates ex WHERE ex.note_id = n.id AND ex.execution_date < ?)";
 		
 		NoteSelector selector4 = new NoteSelectorBuilder().build();
 		String expectedWhereClause4 = "WHERE 1";
@@ -34,4 +52,213 @@ class DatabaseConnectionTest {
 		assertEquals(expectedWhereClause3, DatabaseConnection.createSelectorQuery(selector3));
 		assertEquals(expectedWhereClause4, DatabaseConnection.createSelectorQuery(selector4));
 	}
-}
\ No newline at end of file
+	
+	@Test
+	public void testCreateSelectorQuery_inListSizes() throws SQLException {
+		NoteSelector selector1 = new NoteSelectorBuilder().addId(1).setIdRelation(NoteRelation.IN).build();
+		NoteSelector selector3 = new NoteSelectorBuilder().addId(1).addId(2).addId(3).setIdRelation(NoteRelation.IN).build();
+		NoteSelectorBuilder largeSelectorBuilder = new NoteSelectorBuilder().setIdRelation(NoteRelation.IN);
+		for (int i = 0; i <= DatabaseConnection.MAX_IN_LIST_SIZE; i++) {
+			largeSelectorBuilder.addId(i);
+		}
+		
+		assertEquals("WHERE n.id IN (?)", DatabaseConnection.createSelectorQuery(selector1));
+		assertEquals("WHERE n.id IN (?, ?, ?, ?)", DatabaseConnection.createSelectorQuery(selector3));
+		assertEquals("WHERE n.id IN (SELECT id FROM notebook.selector_ids)", DatabaseConnection.createSelectorQuery(largeSelectorBuilder.build()));
+	}
+	
+	@Test
+	public void testCreateSelectorQuery_cursor() throws SQLException {
+		NoteSelector firstPage = new NoteSelectorBuilder().setLimit(10).build();
+		NoteSelector nextPage = new NoteSelectorBuilder().setPriority(5).setPriorityRelation(NoteRelation.GREATER).setLimit(10)
+				.setCursor(new NoteCursor(42).encode()).build();
+		
+		assertEquals("WHERE 1", DatabaseConnection.createSelectorQuery(firstPage));
+		assertEquals("WHERE n.priority > ? AND n.id > ?", DatabaseConnection.createSelectorQuery(nextPage));
+	}
+	
+	@Test
+	public void testCreateSelectorQuery_descendingCursor() throws SQLException {
+		//the next page of a descending order contains the notes before the cursor
+		NoteSelector byId = new NoteSelectorBuilder().setDescending(true).setLimit(10).setCursor(new NoteCursor(42).encode()).build();
+		NoteSelector byPriority = new NoteSelectorBuilder().setSortKey(NoteSortKey.PRIORITY).setDescending(true).setLimit(10)
+				.setCursor(new NoteCursor(42, NoteSortKey.PRIORITY, 3).encode()).build();
+		
+		assertEquals("WHERE n.id < ?", DatabaseConnection.createSelectorQuery(byId));
+		assertEquals("WHERE (n.priority, n.id) < (?, ?)", DatabaseConnection.createSelectorQuery(byPriority));
+	}
+	
+	@Test
+	public void testSelectCachedNotes() {
+		//the ids are in the same bucket of the map, so they are iterated in the order in which they were added (not ordered by the id)
+		Map<Integer, Note> cachedNotes = new HashMap<Integer, Note>();
+		for (int id : new int[] {33, 17, 1}) {
+			cachedNotes.put(id, createNote(id));
+		}
+		assertEquals(Arrays.asList(33, 17, 1), getIds(new ArrayList<Note>(cachedNotes.values())));
+		
+		NoteSelector byIds = new NoteSelectorBuilder().addIds(Arrays.asList(1, 17, 33)).setIdRelation(NoteRelation.IN).build();
+		NoteSelector descending = new NoteSelectorBuilder().addIds(Arrays.asList(1, 17, 33)).setIdRelation(NoteRelation.IN).setDescending(true)
+				.build();
+		
+		assertEquals(Arrays.asList(1, 17, 33), getIds(DatabaseConnection.selectCachedNotes(byIds, cachedNotes.values(), null)));
+		assertEquals(Arrays.asList(1, 17), getIds(DatabaseConnection.selectCachedNotes(byIds, cachedNotes.values(), 2)));
+		assertEquals(Arrays.asList(33, 17, 1), getIds(DatabaseConnection.selectCachedNotes(descending, cachedNotes.values(), null)));
+	}
+	
+	private static List<Integer> getIds(List<Note> notes) {
+		return notes.stream().map(Note::getId).collect(Collectors.toList());
+	}
+	
+	@Test
+	public void testCreateOrderQuery() throws SQLException {
+		NoteSelector byId = new NoteSelectorBuilder().build();
+		NoteSelector byExecutionDate = new NoteSelectorBuilder().setSortKey(NoteSortKey.EXECUTION_DATE).setDescending(true).setLimit(20)
+				.setCursor(new NoteCursor(42, NoteSortKey.EXECUTION_DATE, LocalDateTime.of(2019, 5, 1, 12, 30)).encode()).build();
+		
+		assertEquals(" ORDER BY n.id", DatabaseConnection.createOrderQuery(byId));
+		assertEquals(" ORDER BY n.first_execution_date DESC, n.id DESC", DatabaseConnection.createOrderQuery(byExecutionDate));
+		assertEquals("WHERE (n.first_execution_date, n.id) < (?, ?)", DatabaseConnection.createSelectorQuery(byExecutionDate));
+	}
+	
+	@Test
+	public void testGetInListSize() {
+		assertEquals(1, DatabaseConnection.getInListSize(1));
+		assertEquals(2, DatabaseConnection.getInListSize(2));
+		assertEquals(4, DatabaseConnection.getInListSize(3));
+		assertEquals(8, DatabaseConnection.getInListSize(5));
+		assertEquals(1024, DatabaseConnection.getInListSize(1024));
+		assertEquals(0, DatabaseConnection.getInListSize(1025));
+	}
+	
+	@Test
+	public void testParseDates() {
+		assertEquals(Collections.emptyList(), DatabaseConnection.parseDates(null));
+		assertEquals(Arrays.asList(LocalDateTime.of(2019, 5, 1, 12, 30), LocalDateTime.of(2019, 5, 2, 8, 0, 15, 500000000)),
+				DatabaseConnection.parseDates("2019-05-01 12:30:00,2019-05-02 08:00:15.5"));
+	}
+	
+	@Test
+	public void testCreateMatchQuery() {
+		assertEquals("MATCH (n.headline, n.note_text) AGAINST (? IN BOOLEAN MODE)", DatabaseConnection.createMatchQuery(NoteSearchMode.BOOLEAN));
+		
+		NoteSearch search = new NoteSearch("\"shopping list\" -milk", NoteSearchMode.BOOLEAN);
+		assertTrue(search.isValid());
+		search.setOffset(20);
+		//an offset needs a limit
+		assertFalse(search.isValid());
+		search.setLimit(10);
+		search.setSelector(new NoteSelectorBuilder().setCursor(new NoteCursor(42).encode()).build());
+		//the pages of a search are selected by the offset
+		assertFalse(search.isValid());
+	}
+	
+	@Test
+	public void testNextRevisions() throws SQLException {
+		//the counter is increased to 12, so the three revisions are 10, 11 and 12
+		FakeJdbc jdbc = new FakeJdbc().update("LAST_INSERT_ID(revision + ?)", 1).lastInsertId(12);
+		assertEquals(10, DatabaseConnection.nextRevisions(jdbc.getConnection(), 3));
+		assertEquals(Arrays.asList("setInt(1, 3)"), jdbc.getParameters("LAST_INSERT_ID(revision + ?)"));
+		
+		FakeJdbc missingCounter = new FakeJdbc().update("LAST_INSERT_ID(revision + ?)", 0);
+		assertThrows(SQLException.class, () -> DatabaseConnection.nextRevisions(missingCounter.getConnection(), 1));
+	}
+	
+	@Test
+	public void testDeleteSelectedNotes() throws SQLException {
+		FakeJdbc jdbc = new FakeJdbc().query("SELECT revision FROM notebook.revision_counter", row(9L)).query("SELECT n.id FROM", row(1), row(3))
+				.update("DELETE n FROM", 2).update("LAST_INSERT_ID(revision + ?)", 1).update("INSERT INTO notebook.note_tombstones", 0)
+				.lastInsertId(11);
+		
+		//the note 2 doesn't exist, so it gets no tombstone
+		NoteSelector selector = new NoteSelectorBuilder().setIds(Arrays.asList(1, 2, 3)).setIdRelation(NoteRelation.IN).build();
+		assertEquals(Arrays.asList(1, 3), DatabaseConnection.deleteSelectedNotes(jdbc.getConnection(), selector, 100));
+		assertEquals(Arrays.asList("setInt(1, 1)", "setLong(2, 10)", "setInt(1, 3)", "setLong(2, 11)"),
+				jdbc.getParameters("INSERT INTO notebook.note_tombstones"));
+		
+		//the counter is locked before the notes (like in all other changes), so concurrent changes can't deadlock
+		assertEquals(Arrays.asList("SELECT revision FROM notebook.revision_counter", "SELECT n.id FROM", "DELETE n FROM",
+				"LAST_INSERT_ID(revision + ?)", "INSERT INTO notebook.note_tombstones"), jdbc.getExecutions());
+	}
+	
+	@Test
+	public void testDeleteSelectedNotes_otherAffectedRows() {
+		FakeJdbc jdbc = new FakeJdbc().query("SELECT revision FROM notebook.revision_counter", row(9L)).query("SELECT n.id FROM", row(1), row(3))
+				.update("DELETE n FROM", 1);
+		
+		//the tombstones are not added if the deleted notes differ from the selected notes
+		NoteSelector selector = new NoteSelectorBuilder().setIds(Arrays.asList(1, 2, 3)).setIdRelation(NoteRelation.IN).build();
+		assertThrows(SQLException.class, () -> DatabaseConnection.deleteSelectedNotes(jdbc.getConnection(), selector, 100));
+		assertEquals(Arrays.asList("SELECT revision FROM notebook.revision_counter", "SELECT n.id FROM", "DELETE n FROM"), jdbc.getExecutions());
+	}
+	
+	@Test
+	public void testDeleteSelectedNotes_noMatchingNotes() throws SQLException {
+		FakeJdbc jdbc = new FakeJdbc().query("SELECT revision FROM notebook.revision_counter", row(9L)).query("SELECT n.id FROM");
+		
+		NoteSelector selector = new NoteSelectorBuilder().addId(2).setIdRelation(NoteRelation.EQUALS).build();
+		assertTrue(DatabaseConnection.deleteSelectedNotes(jdbc.getConnection(), selector, 100).isEmpty());
+		assertEquals(Arrays.asList("SELECT revision FROM notebook.revision_counter", "SELECT n.id FROM"), jdbc.getExecutions());
+	}
+	
+	@Test
+	public void testReadChanges_afterDelete() throws SQLException {
+		//less changes than the limit: the bounds query returns no row and the last revision is read
+		FakeJdbc jdbc = new FakeJdbc().query("LIMIT 2 OFFSET ?").query("SELECT t.note_id FROM", row(3)).query("SELECT GREATEST(?", row(11L))
+				.query("SELECT n.id, n.headline", row(1, "headline", "text", 2, "2019-05-01 12:30:00", null));
+		
+		NoteChanges changes = DatabaseConnection.readChanges(jdbc.getConnection(), 5, 10);
+		
+		assertEquals(1, changes.getNotes().size());
+		assertEquals(1, changes.getNotes().get(0).getId());
+		assertEquals(Collections.singletonList(LocalDateTime.of(2019, 5, 1, 12, 30)), changes.getNotes().get(0).getExecutionDates());
+		assertEquals(Collections.singletonList(3), changes.getDeletedIds());
+		assertEquals(11, changes.getRevision());
+		assertFalse(changes.isMoreChanges());
+		assertEquals(Arrays.asList("setLong(1, 5)", "setLong(2, " + Long.MAX_VALUE + ")"), jdbc.getParameters("SELECT t.note_id FROM"));
+	}
+	
+	@Test
+	public void testReadChanges_pageBoundary() throws SQLException {
+		//the limit-th change has the revision 7 and the next change has the revision 9
+		FakeJdbc jdbc = new FakeJdbc().query("LIMIT 2 OFFSET ?", row(7L), row(9L)).query("SELECT t.note_id FROM", row(4))
+				.query("SELECT n.id, n.headline");
+		
+		NoteChanges changes = DatabaseConnection.readChanges(jdbc.getConnection(), 5, 2);
+		
+		assertTrue(changes.getNotes().isEmpty());
+		assertEquals(Collections.singletonList(4), changes.getDeletedIds());
+		assertEquals(7, changes.getRevision());
+		assertTrue(changes.isMoreChanges());
+		
+		//both tables are limited to limit + 1 changes and the union is read from the limit-th change
+		assertEquals(Arrays.asList("setLong(1, 5)", "setInt(2, 3)", "setLong(3, 5)", "setInt(4, 3)", "setInt(5, 1)"),
+				jdbc.getParameters("LIMIT 2 OFFSET ?"));
+		assertEquals(Arrays.asList("setLong(1, 5)", "setLong(2, 7)"), jdbc.getParameters("SELECT n.id, n.headline"));
+		assertEquals(Arrays.asList("setLong(1, 5)", "setLong(2, 7)"), jdbc.getParameters("SELECT t.note_id FROM"));
+		//the last revision is only read if there are less changes than the limit
+		assertFalse(jdbc.getExecutions().contains("SELECT GREATEST(?"));
+	}
+	
+	@Test
+	public void testReadChanges_maxLimit() throws SQLException {
+		FakeJdbc jdbc = new FakeJdbc().query("LIMIT 2 OFFSET ?").query("SELECT n.id, n.headline").query("SELECT t.note_id FROM")
+				.query("SELECT GREATEST(?", row(5L));
+		
+		DatabaseConnection.readChanges(jdbc.getConnection(), 5, Integer.MAX_VALUE);
+		
+		//the limit of the next page mussn't overflow
+		assertEquals(Arrays.asList("setLong(1, 5)", "setInt(2, " + Integer.MAX_VALUE + ")", "setLong(3, 5)", "setInt(4, " + Integer.MAX_VALUE + ")",
+				"setInt(5, " + (Integer.MAX_VALUE - 1) + ")"), jdbc.getParameters("LIMIT 2 OFFSET ?"));
+		assertEquals(1, DatabaseConnection.withNextPage(0));
+		assertEquals(Integer.MAX_VALUE, DatabaseConnection.withNextPage(Integer.MAX_VALUE));
+	}
+	
+	@Test
+	public void testBackfillRevisionsMigration() {
+		//the notes from before the revisions get revisions after the counter, so they are returned by get_changes_since(0)
+		String statements = String.join("\n", DatabaseMigration.V6_BACKFILL_REVISIONS.getStatements());
+		assertTrue(statements.contains("SET n.revision = c.revision + n.id WHERE c.id = 1 AND n.revision = 0"));
+		assertTrue(statements.contains("UPDATE notebook.revision_counter SET revision = GREATEST(revision"));
+	}
+}
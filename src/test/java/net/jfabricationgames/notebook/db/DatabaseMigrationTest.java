@@ -0,0 +1,19 @@
+package net.jfabricationgames.notebook.db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import org.junit.jupiter.api.Test;
+
+class DatabaseMigrationTest {
+	
+	@Test
+	public void testVersionsAreConsecutive() {
+		DatabaseMigration[] migrations = DatabaseMigration.values();
+		for (int i = 0; i < migrations.length; i++) {
+			assertEquals(i + 1, migrations[i].getVersion());
+			assertFalse(migrations[i].getStatements().isEmpty());
+		}
+		assertEquals(migrations.length, DatabaseMigration.getLatestVersion());
+	}
+}
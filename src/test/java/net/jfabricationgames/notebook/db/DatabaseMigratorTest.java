@@ -0,0 +1,54 @@
+package net.jfabricationgames.notebook.db;
+
+import static net.jfabricationgames.notebook.db.FakeJdbc.row;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class DatabaseMigratorTest {
+	
+	/**
+	 * The error that mysql raises if the statement is executed again (or 0 if the statement can be executed again)
+	 */
+	private static int getErrorOfRepetition(String statement) {
+		if (statement.startsWith("CREATE TABLE IF NOT EXISTS") || statement.startsWith("INSERT IGNORE")) {
+			return 0;
+		}
+		else if (statement.startsWith("CREATE TABLE")) {
+			return 1050;//ER_TABLE_EXISTS_ERROR
+		}
+		else if (statement.startsWith("INSERT")) {
+			return 1062;//ER_DUP_ENTRY
+		}
+		else if (statement.startsWith("ALTER TABLE")) {
+			return 1060;//ER_DUP_FIELDNAME
+		}
+		else if (statement.startsWith("CREATE INDEX")) {
+			return 1061;//ER_DUP_KEYNAME
+		}
+		throw new IllegalArgumentException("Unknown statement: " + statement);
+	}
+	
+	@Test
+	public void testMigratePartiallyExecutedMigration() throws SQLException {
+		//the migration V5 failed after the ALTER TABLE statement (that committed the creation of the counter and it's row)
+		FakeJdbc jdbc = new FakeJdbc().query("GET_LOCK", row(1)).query("SELECT MAX(version)", row(4)).update("RELEASE_LOCK", 0)
+				.update(DatabaseMigrator.TABLE_SCHEMA_VERSION + " (version", 1);
+		List<String> executedStatements = DatabaseMigration.V5_ADD_REVISIONS.getStatements().subList(0, 3);
+		for (String statement : executedStatements) {
+			int errorCode = getErrorOfRepetition(statement);
+			if (errorCode != 0) {
+				jdbc.error(statement, errorCode);
+			}
+		}
+		
+		assertEquals(2, new DatabaseMigrator(jdbc.getConnection()).migrate());
+		assertEquals(Arrays.asList("setInt(1, 5)", "setString(2, " + DatabaseMigration.V5_ADD_REVISIONS.getDescription() + ")", "setInt(1, 6)",
+				"setString(2, " + DatabaseMigration.V6_BACKFILL_REVISIONS.getDescription() + ")"),
+				jdbc.getParameters(DatabaseMigrator.TABLE_SCHEMA_VERSION + " (version"));
+	}
+}
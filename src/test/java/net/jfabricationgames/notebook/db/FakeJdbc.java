@@ -0,0 +1,189 @@
+package net.jfabricationgames.notebook.db;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A connection for tests that answers the queries with predefined rows (without a database). Every query is identified by the first
+ * registered marker that is contained in it; the parameters and executions of the statements are recorded.
+ *
+ * @author Tobias Faßbender
+ */
+class FakeJdbc {
+	
+	private final Map<String, Object[][]> results = new LinkedHashMap<String, Object[][]>();
+	private final Map<String, Integer> updateCounts = new LinkedHashMap<String, Integer>();
+	private final Map<String, Integer> errorCodes = new LinkedHashMap<String, Integer>();
+	private final Map<String, List<String>> parameters = new LinkedHashMap<String, List<String>>();
+	private final List<String> executions = new ArrayList<String>();
+	private long lastInsertId;
+	
+	/**
+	 * Answer the queries that contain the marker with the rows (one array of column values per row).
+	 */
+	public FakeJdbc query(String marker, Object[]... rows) {
+		results.put(marker, rows);
+		return this;
+	}
+	
+	/**
+	 * Answer the updates that contain the marker with the number of affected rows.
+	 */
+	public FakeJdbc update(String marker, int affectedRows) {
+		updateCounts.put(marker, affectedRows);
+		return this;
+	}
+	
+	/**
+	 * Fail the statements that contain the marker (and that are executed by a {@link Statement}) with the mysql error code.
+	 */
+	public FakeJdbc error(String marker, int errorCode) {
+		errorCodes.put(marker, errorCode);
+		return this;
+	}
+	
+	public FakeJdbc lastInsertId(long lastInsertId) {
+		this.lastInsertId = lastInsertId;
+		return this;
+	}
+	
+	public static Object[] row(Object... values) {
+		return values;
+	}
+	
+	/**
+	 * Get the markers of the executed statements in the order of their execution.
+	 */
+	public List<String> getExecutions() {
+		return executions;
+	}
+	
+	/**
+	 * Get the parameters that were set on the statements of the marker (e.g. "setInt(1, 3)").
+	 */
+	public List<String> getParameters(String marker) {
+		return parameters.getOrDefault(marker, new ArrayList<String>());
+	}
+	
+	public Connection getConnection() {
+		return proxy(Connection.class, (method, args) -> {
+			switch (method) {
+				case "prepareStatement":
+					return prepareStatement((String) args[0]);
+				case "createStatement":
+					return proxy(Statement.class, (statementMethod, statementArgs) -> {
+						if (statementMethod.equals("executeQuery") && statementArgs[0].equals("SELECT LAST_INSERT_ID();")) {
+							return resultSet(new Object[][] {row(lastInsertId)});
+						}
+						if (statementMethod.equals("executeQuery")) {
+							String marker = findMarker((String) statementArgs[0], results.keySet());
+							return marker == null ? null : resultSet(results.get(marker));
+						}
+						if (statementMethod.equals("execute")) {
+							String marker = findMarker((String) statementArgs[0], errorCodes.keySet());
+							if (marker != null) {
+								throw new SQLException("Failed query: " + statementArgs[0], null, errorCodes.get(marker));
+							}
+						}
+						return null;
+					});
+				default:
+					return null;
+			}
+		});
+	}
+	
+	private PreparedStatement prepareStatement(String query) throws SQLException {
+		String marker = findMarker(query, results.keySet());
+		if (marker == null) {
+			marker = findMarker(query, updateCounts.keySet());
+		}
+		if (marker == null) {
+			throw new SQLException("Unexpected query: " + query);
+		}
+		String statementMarker = marker;
+		return proxy(PreparedStatement.class, (method, args) -> {
+			if (method.startsWith("set")) {
+				parameters.computeIfAbsent(statementMarker, key -> new ArrayList<String>())
+						.add(method + "(" + args[0] + ", " + args[1] + ")");
+			}
+			else if (method.equals("executeQuery")) {
+				executions.add(statementMarker);
+				return resultSet(results.getOrDefault(statementMarker, new Object[0][]));
+			}
+			else if (method.equals("executeUpdate")) {
+				executions.add(statementMarker);
+				return updateCounts.getOrDefault(statementMarker, 0);
+			}
+			else if (method.equals("executeBatch")) {
+				executions.add(statementMarker);
+				return new int[0];
+			}
+			return null;
+		});
+	}
+	
+	private static String findMarker(String query, Iterable<String> markers) {
+		for (String marker : markers) {
+			if (query.contains(marker)) {
+				return marker;
+			}
+		}
+		return null;
+	}
+	
+	private static ResultSet resultSet(Object[][] rows) {
+		int[] row = {-1};
+		return proxy(ResultSet.class, (method, args) -> {
+			switch (method) {
+				case "next":
+					return ++row[0] < rows.length;
+				case "getInt":
+					return ((Number) rows[row[0]][(Integer) args[0] - 1]).intValue();
+				case "getLong":
+					return ((Number) rows[row[0]][(Integer) args[0] - 1]).longValue();
+				case "getString":
+					return (String) rows[row[0]][(Integer) args[0] - 1];
+				default:
+					return null;
+			}
+		});
+	}
+	
+	@FunctionalInterface
+	private interface Handler {
+		
+		public Object invoke(String method, Object[] args) throws Exception;
+	}
+	
+	/**
+	 * Create a proxy of a JDBC interface; methods that are not handled return the default value of their type.
+	 */
+	private static <T> T proxy(Class<T> type, Handler handler) {
+		return type.cast(Proxy.newProxyInstance(FakeJdbc.class.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+			if (method.getName().equals("toString")) {
+				return type.getSimpleName() + Arrays.toString(args);
+			}
+			Object result = handler.invoke(method.getName(), args);
+			if (result == null && method.getReturnType() == boolean.class) {
+				return false;
+			}
+			if (result == null && method.getReturnType() == int.class) {
+				return 0;
+			}
+			if (result == null && method.getReturnType() == long.class) {
+				return 0L;
+			}
+			return result;
+		}));
+	}
+}
@@ -0,0 +1,90 @@
+package net.jfabricationgames.notebook.db;
+
+import static net.jfabricationgames.notebook.note.TestNotes.createNote;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import net.jfabricationgames.notebook.note.Note;
+import net.jfabricationgames.notebook.note.NoteRelation;
+import net.jfabricationgames.notebook.note.NoteSelector;
+import net.jfabricationgames.notebook.note.NoteSelectorBuilder;
+import net.jfabricationgames.notebook.note.NoteSortKey;
+
+class InMemoryNoteStoreTest {
+	
+	private static final LocalDateTime DATE = LocalDateTime.of(2019, 5, 1, 12, 0);
+	
+	private static InMemoryNoteStore createStore() {
+		InMemoryNoteStore store = new InMemoryNoteStore();
+		store.put(createNote(1, 3, DATE));
+		store.put(createNote(2, 1, DATE.minusDays(1), DATE.plusDays(2)));
+		store.put(createNote(3, 5));
+		store.put(createNote(4, 3, DATE.plusDays(1)));
+		return store;
+	}
+	
+	private static List<Integer> getIds(List<Note> notes) {
+		return notes.stream().map(Note::getId).collect(Collectors.toList());
+	}
+	
+	@Test
+	public void testGetNotes() {
+		InMemoryNoteStore store = createStore();
+		NoteSelector byPriority = new NoteSelectorBuilder().setPriority(3).setPriorityRelation(NoteRelation.GREATER_EQUALS).build();
+		//a note matches if any of it's execution dates matches
+		NoteSelector byDate = new NoteSelectorBuilder().setDate(DATE).setDateRelation(NoteRelation.AFTER).build();
+		NoteSelector byIds = new NoteSelectorBuilder().addIds(Arrays.asList(4, 2, 42)).setIdRelation(NoteRelation.IN).setPriority(2)
+				.setPriorityRelation(NoteRelation.GREATER).build();
+		NoteSelector sorted = new NoteSelectorBuilder().setSortKey(NoteSortKey.PRIORITY).setDescending(true).build();
+		
+		assertEquals(Arrays.asList(1, 3, 4), getIds(store.getNotes(byPriority, null)));
+		assertEquals(Arrays.asList(2, 4), getIds(store.getNotes(byDate, null)));
+		assertEquals(Arrays.asList(4), getIds(store.getNotes(byIds, null)));
+		assertEquals(Arrays.asList(3, 4, 1), getIds(store.getNotes(sorted, 3)));
+	}
+	
+	@Test
+	public void testSelectRange() {
+		NavigableMap<Integer, Set<Integer>> index = new TreeMap<Integer, Set<Integer>>();
+		for (int priority = 1; priority <= 5; priority++) {
+			index.put(priority, Collections.singleton(priority * 10));
+		}
+		
+		assertEquals(Arrays.asList(3), selectRange(index, NoteRelation.EQUALS, 3));
+		assertEquals(Arrays.asList(4, 5), selectRange(index, NoteRelation.GREATER, 3));
+		assertEquals(Arrays.asList(3, 4, 5), selectRange(index, NoteRelation.GREATER_EQUALS, 3));
+		assertEquals(Arrays.asList(1, 2), selectRange(index, NoteRelation.BEFORE, 3));
+		assertEquals(Arrays.asList(1, 2, 3), selectRange(index, NoteRelation.LESS_EQUALS, 3));
+		assertTrue(selectRange(index, NoteRelation.AFTER, 5).isEmpty());
+		assertThrows(IllegalArgumentException.class, () -> InMemoryNoteStore.selectRange(index, NoteRelation.IN, 3));
+	}
+	
+	private static List<Integer> selectRange(NavigableMap<Integer, Set<Integer>> index, NoteRelation relation, int value) {
+		return new ArrayList<Integer>(InMemoryNoteStore.selectRange(index, relation, value).keySet());
+	}
+	
+	@Test
+	public void testReplace() {
+		InMemoryNoteStore store = createStore();
+		store.replace(Arrays.asList(1, 2), Collections.singletonList(createNote(2, 4)));
+		NoteSelector byPriority = new NoteSelectorBuilder().setPriority(3).setPriorityRelation(NoteRelation.GREATER_EQUALS).build();
+		NoteSelector byDate = new NoteSelectorBuilder().setDate(DATE).setDateRelation(NoteRelation.AFTER).build();
+		
+		assertEquals(3, store.size());
+		assertEquals(Arrays.asList(2, 3, 4), getIds(store.getNotes(byPriority, null)));
+		assertEquals(Arrays.asList(4), getIds(store.getNotes(byDate, null)));
+	}
+}
@@ -0,0 +1,40 @@
+package net.jfabricationgames.notebook.db;
+
+import static net.jfabricationgames.notebook.note.TestNotes.createNote;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import net.jfabricationgames.notebook.config.NoteBookConfiguration;
+
+class NoteCacheTest {
+	
+	@Test
+	public void testPutAndInvalidate() {
+		NoteCache cache = new NoteCache(NoteBookConfiguration.getInstance());
+		cache.putAll(Arrays.asList(createNote(1), createNote(2)), cache.getGeneration());
+		
+		assertEquals(2, cache.getAll(Arrays.asList(1, 2, 3)).size());
+		
+		cache.notesChanged(Collections.singleton(1));
+		
+		assertEquals(Collections.singleton(2), cache.getAll(Arrays.asList(1, 2, 3)).keySet());
+		assertEquals(3, cache.getStatistics().getHitCount());
+		assertEquals(3, cache.getStatistics().getMissCount());
+	}
+	
+	@Test
+	public void testOutdatedNotesAreNotCached() {
+		NoteCache cache = new NoteCache(NoteBookConfiguration.getInstance());
+		long generation = cache.getGeneration();
+		//the note is changed while it's read from the database
+		cache.notesChanged(Collections.singleton(1));
+		cache.putAll(Collections.singletonList(createNote(1)), generation);
+		
+		assertTrue(cache.getAll(Collections.singletonList(1)).isEmpty());
+	}
+}
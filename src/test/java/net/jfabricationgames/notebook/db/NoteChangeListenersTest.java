@@ -0,0 +1,34 @@
+package net.jfabricationgames.notebook.db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class NoteChangeListenersTest {
+	
+	@Test
+	public void testWriteVersionIsIncreasedAfterTheListeners() {
+		NoteChangeListeners listeners = new NoteChangeListeners();
+		List<Long> versionsDuringInvalidation = new ArrayList<Long>();
+		//a request that reads the version while the caches are invalidated mussn't get the new version (it could read outdated notes)
+		listeners.add(ids -> versionsDuringInvalidation.add(listeners.getWriteVersion()));
+		listeners.add(ids -> {
+			throw new IllegalStateException("failing listener");
+		});
+		listeners.add(ids -> versionsDuringInvalidation.add(listeners.getWriteVersion()));
+		
+		listeners.fireNotesChanged(Collections.singletonMap(1, NoteChangeType.UPDATED), true);
+		
+		assertEquals(0, versionsDuringInvalidation.get(0).longValue());
+		assertEquals(0, versionsDuringInvalidation.get(1).longValue());
+		//the version is also increased if a listener fails
+		assertEquals(1, listeners.getWriteVersion());
+		
+		listeners.fireNotesChanged(Collections.emptyMap(), true);
+		assertEquals(1, listeners.getWriteVersion());
+	}
+}
@@ -0,0 +1,50 @@
+package net.jfabricationgames.notebook.db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.jfabricationgames.notebook.config.NoteBookConfiguration;
+import net.jfabricationgames.notebook.note.Note;
+import net.jfabricationgames.notebook.note.NoteRelation;
+import net.jfabricationgames.notebook.note.NoteSelector;
+import net.jfabricationgames.notebook.note.NoteSelectorBuilder;
+
+class NoteQueryCacheTest {
+	
+	@Test
+	public void testCanonicalSelectorsShareResults() {
+		NoteQueryCache cache = new NoteQueryCache(NoteBookConfiguration.getInstance());
+		NoteSelector selector = new NoteSelectorBuilder().addIds(Arrays.asList(3, 1, 2)).setIdRelation(NoteRelation.IN).setPriority(7).build();
+		NoteSelector equivalentSelector = new NoteSelectorBuilder().addIds(Arrays.asList(1, 2, 3, 3)).setIdRelation(NoteRelation.IN).build();
+		List<Note> result = new ArrayList<Note>(Collections.singletonList(new Note("headline", "text", 1)));
+		
+		long generation = cache.getWriteGeneration();
+		cache.put(generation, selector, null, result);
+		
+		assertEquals(result, cache.get(generation, equivalentSelector, null));
+		assertNull(cache.get(generation, equivalentSelector, 10));
+	}
+	
+	@Test
+	public void testWritesInvalidateResults() {
+		NoteQueryCache cache = new NoteQueryCache(NoteBookConfiguration.getInstance());
+		NoteSelector selector = new NoteSelectorBuilder().setPriority(3).setPriorityRelation(NoteRelation.GREATER_EQUALS).build();
+		
+		long generation = cache.getWriteGeneration();
+		cache.put(generation, selector, null, new ArrayList<Note>());
+		cache.notesChanged(Collections.singleton(1));
+		
+		assertNull(cache.get(cache.getWriteGeneration(), selector, null));
+		
+		//a result that was read before the change is not cached
+		cache.put(generation, selector, null, new ArrayList<Note>());
+		assertNull(cache.get(cache.getWriteGeneration(), selector, null));
+	}
+}
@@ -0,0 +1,44 @@
+package net.jfabricationgames.notebook.db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+class ReminderIndexTest {
+	
+	private static final LocalDateTime NOW = LocalDateTime.of(2019, 5, 1, 12, 0);
+	
+	private static List<String> toStrings(List<ReminderIndex.Reminder> reminders) {
+		return reminders.stream().map(reminder -> reminder.getNoteId() + "@" + reminder.getDate().getDayOfMonth()).collect(Collectors.toList());
+	}
+	
+	@Test
+	public void testGetReminders() {
+		ReminderIndex index = new ReminderIndex();
+		assertFalse(index.isLoaded());
+		index.loadWindow(NOW.minusDays(7), NOW.plusDays(7), Arrays.asList(new ReminderIndex.Reminder(2, NOW), new ReminderIndex.Reminder(1, NOW),
+				new ReminderIndex.Reminder(3, NOW.plusDays(1)), new ReminderIndex.Reminder(1, NOW.plusDays(2))));
+		
+		assertTrue(index.covers(NOW, NOW.plusDays(7)));
+		assertFalse(index.covers(NOW, NOW.plusDays(8)));
+		assertThrows(IllegalArgumentException.class, () -> index.getReminders(NOW.minusDays(8), NOW));
+		//the range is [from, to) and the reminders are ordered by the date and the note id
+		assertEquals(Arrays.asList("1@1", "2@1", "3@2"), toStrings(index.getReminders(NOW, NOW.plusDays(2))));
+		
+		//reminders outside of the window are not added
+		index.replace(Arrays.asList(1, 3), Arrays.asList(new ReminderIndex.Reminder(1, NOW.plusDays(3)), new ReminderIndex.Reminder(3, NOW.plusDays(30))));
+		assertEquals(Arrays.asList("2@1", "1@4"), toStrings(index.getReminders(NOW.minusDays(1), NOW.plusDays(7))));
+		
+		index.replace(Collections.singletonList(2), Collections.emptyList());
+		assertEquals(1, index.size());
+	}
+}
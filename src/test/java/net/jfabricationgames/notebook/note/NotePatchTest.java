@@ -0,0 +1,47 @@
+package net.jfabricationgames.notebook.note;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import net.jfabricationgames.json_rpc.UnsupportedParameterException;
+import net.jfabricationgames.json_rpc.util.JsonRpcParserUtil;
+
+class NotePatchTest {
+	
+	@Test
+	public void testIsEmpty() {
+		NotePatch empty = new NotePatch(1);
+		empty.setAddedExecutionDates(Collections.emptyList());
+		NotePatch priorityChanged = new NotePatch(1);
+		priorityChanged.setPriority(0);
+		NotePatch dateRemoved = new NotePatch(1);
+		dateRemoved.setRemovedReminderDates(Arrays.asList(LocalDateTime.now()));
+		
+		assertTrue(empty.isEmpty());
+		assertFalse(priorityChanged.isEmpty());
+		assertTrue(priorityChanged.isFieldChanged());
+		assertFalse(priorityChanged.isDateChanged());
+		assertFalse(dateRemoved.isEmpty());
+		assertFalse(dateRemoved.isFieldChanged());
+		assertTrue(dateRemoved.isDateChanged());
+	}
+	
+	@Test
+	public void testParseToType() throws UnsupportedParameterException {
+		NotePatch patch = new NotePatch(42);
+		patch.setHeadline("headline");
+		patch.setAddedExecutionDates(Arrays.asList(LocalDateTime.now(), LocalDateTime.now().plusDays(1)));
+		
+		Object patchObject = JsonRpcParserUtil.parseToType(patch, Object.class);
+		NotePatch recreatedPatch = JsonRpcParserUtil.parseToType(patchObject, NotePatch.class);
+		
+		assertEquals(patch, recreatedPatch);
+	}
+}
@@ -0,0 +1,100 @@
+package net.jfabricationgames.notebook.note;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the matching of a compiled {@link NoteMatcher} (sequential and parallel) to the stream pipeline that was used by
+ * {@link NoteSelector#getMatching(List)} before.
+ * <p>
+ * The benchmark is not executed by the tests. Run the main method (after mvn test-compile) to execute it.
+ *
+ * @author Tobias Faßbender
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NoteSelectorBenchmark {
+	
+	private static final LocalDateTime DATE = LocalDateTime.of(2019, 5, 1, 12, 0);
+	
+	@Param({"1000", "100000"})
+	private int size;
+	
+	private List<Note> notes;
+	private NoteSelector selector;
+	private NoteMatcher matcher;
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(NoteSelectorBenchmark.class.getSimpleName()).build()).run();
+	}
+	
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		notes = new ArrayList<Note>(size);
+		for (int id = 1; id <= size; id++) {
+			Note note = new Note("headline", "text", random.nextInt(10), Arrays.asList(DATE.plusHours(random.nextInt(1000) - 500)),
+					Collections.emptyList());
+			note.setId(id);
+			notes.add(note);
+		}
+		List<Integer> ids = IntStream.range(0, 100).mapToObj(i -> random.nextInt(size) + 1).collect(Collectors.toList());
+		selector = new NoteSelectorBuilder().addIds(ids).setIdRelation(NoteRelation.IN).setPriority(3)
+				.setPriorityRelation(NoteRelation.GREATER_EQUALS).setDate(DATE).setDateRelation(NoteRelation.AFTER).build();
+		matcher = selector.compile();
+	}
+	
+	@Benchmark
+	public List<Note> streamPipeline() {
+		//the implementation of getMatching before the selectors were compiled
+		List<Integer> ids = selector.getIds();
+		int priority = selector.getPriority();
+		LocalDateTime date = selector.getDate();
+		return notes.stream()//
+				.filter(note -> ids.contains(note.getId()))//
+				.filter(note -> note.getExecutionDates().get(0).isAfter(date))//
+				.filter(note -> note.getPriority() >= priority)//
+				.collect(Collectors.toList());
+	}
+	
+	@Benchmark
+	public List<Note> compiledMatcher() {
+		return selector.compile().filter(notes, false);
+	}
+	
+	@Benchmark
+	public List<Note> reusedMatcher() {
+		return matcher.filter(notes, false);
+	}
+	
+	@Benchmark
+	public List<Note> reusedMatcherParallel() {
+		return matcher.filter(notes, true);
+	}
+}
@@ -5,7 +5,11 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
 
@@ -70,4 +74,101 @@ class NoteSelectorTest {
 			throw upe;
 		}
 	}
-}
\ No newline at end of file
+	
+	@Test
+	public void testGetMatching_page() {
+		List<Note> notes = new ArrayList<Note>();
+		for (int id = 5; id >= 1; id--) {
+			Note note = new Note("headline " + id, "text", 1);
+			note.setId(id);
+			notes.add(note);
+		}
+		
+		NoteSelector firstPage = new NoteSelectorBuilder().setLimit(2).build();
+		NoteSelector secondPage = new NoteSelectorBuilder().setLimit(2).setCursor(new NoteCursor(2).encode()).build();
+		
+		assertEquals(Arrays.asList(1, 2), firstPage.getMatching(notes).stream().map(Note::getId).collect(Collectors.toList()));
+		assertEquals(Arrays.asList(3, 4), secondPage.getMatching(notes).stream().map(Note::getId).collect(Collectors.toList()));
+	}
+	
+	@Test
+	public void testIsValid_page() {
+		assertTrue(new NoteSelectorBuilder().setLimit(10).setCursor(new NoteCursor(42).encode()).build().isValid());
+		assertFalse(new NoteSelectorBuilder().setLimit(0).build().isValid());
+		assertFalse(new NoteSelectorBuilder().setCursor("not a cursor").build().isValid());
+		
+		assertEquals(42, NoteCursor.decode(new NoteCursor(42).encode()).getLastId());
+	}
+	
+	@Test
+	public void testGetMatching_sortedPage() {
+		List<Note> notes = new ArrayList<Note>();
+		int[] priorities = new int[] {3, 1, 3, 2, 5};
+		for (int id = 1; id <= priorities.length; id++) {
+			Note note = new Note("headline " + id, "text", priorities[id - 1]);
+			note.setId(id);
+			notes.add(note);
+		}
+		
+		NoteSelector firstPage = new NoteSelectorBuilder().setSortKey(NoteSortKey.PRIORITY).setDescending(true).setLimit(2).build();
+		List<Note> firstPageNotes = firstPage.getMatching(notes);
+		NoteSelector secondPage = new NoteSelectorBuilder().setSortKey(NoteSortKey.PRIORITY).setDescending(true).setLimit(2)
+				.setCursor(NoteCursor.after(firstPageNotes.get(1), NoteSortKey.PRIORITY).encode()).build();
+		
+		assertEquals(Arrays.asList(5, 3), firstPageNotes.stream().map(Note::getId).collect(Collectors.toList()));
+		assertEquals(Arrays.asList(1, 4), secondPage.getMatching(notes).stream().map(Note::getId).collect(Collectors.toList()));
+		
+		NoteSelector secondPageById = new NoteSelectorBuilder().setDescending(true).setLimit(2).setCursor(new NoteCursor(4).encode()).build();
+		assertEquals(Arrays.asList(3, 2), secondPageById.getMatching(notes).stream().map(Note::getId).collect(Collectors.toList()));
+	}
+	
+	@Test
+	public void testNoteCursor_sortKey() {
+		LocalDateTime date = LocalDateTime.of(2019, 5, 1, 12, 30);
+		NoteCursor cursor = NoteCursor.decode(new NoteCursor(7, NoteSortKey.REMINDER_DATE, date).encode());
+		
+		assertEquals(7, cursor.getLastId());
+		assertEquals(NoteSortKey.REMINDER_DATE, cursor.getSortKey());
+		assertEquals(date, cursor.getLastValue());
+		//a cursor can only be used for the order it was created for
+		assertFalse(new NoteSelectorBuilder().setCursor(cursor.encode()).build().isValid());
+	}
+	
+	@Test
+	public void testCompile() {
+		LocalDateTime date = LocalDateTime.of(2019, 5, 1, 12, 30);
+		List<Note> notes = new ArrayList<Note>();
+		for (int id = 1; id <= 6; id++) {
+			Note note = new Note("headline " + id, "text", id % 3, Arrays.asList(date.plusDays(id - 3)), Collections.emptyList());
+			note.setId(id);
+			notes.add(note);
+		}
+		
+		NoteMatcher inIds = new NoteSelectorBuilder().addIds(Arrays.asList(6, 2, 5, 2)).setIdRelation(NoteRelation.IN).setPriority(1)
+				.setPriorityRelation(NoteRelation.GREATER_EQUALS).build().compile();
+		NoteMatcher lessId = new NoteSelectorBuilder().addId(Integer.MIN_VALUE).setIdRelation(NoteRelation.LESS).build().compile();
+		NoteMatcher afterDate = new NoteSelectorBuilder().setDate(date).setDateRelation(NoteRelation.GREATER_EQUALS).setPriority(0)
+				.setPriorityRelation(NoteRelation.GREATER).build().compile();
+		
+		assertEquals(Arrays.asList(2, 5), inIds.filter(notes, false).stream().map(Note::getId).collect(Collectors.toList()));
+		assertEquals(Arrays.asList(2, 5), inIds.filter(notes, true).stream().map(Note::getId).collect(Collectors.toList()));
+		assertTrue(lessId.filter(notes, false).isEmpty());
+		assertEquals(Arrays.asList(4, 5), afterDate.filter(notes, false).stream().map(Note::getId).collect(Collectors.toList()));
+	}
+	
+	@Test
+	public void testCompile_anyExecutionDate() {
+		LocalDateTime date = LocalDateTime.of(2019, 5, 1, 12, 30);
+		Note note = TestNotes.createNote(1, 1, date.minusDays(1), date.plusDays(1));
+		Note noDates = TestNotes.createNote(2, 1);
+		
+		//a note matches if any of it's execution dates matches (like in the database and the in-memory store)
+		NoteMatcher afterDate = new NoteSelectorBuilder().setDate(date).setDateRelation(NoteRelation.AFTER).build().compile();
+		NoteMatcher beforeDate = new NoteSelectorBuilder().setDate(date).setDateRelation(NoteRelation.BEFORE).build().compile();
+		NoteMatcher equalDate = new NoteSelectorBuilder().setDate(date).setDateRelation(NoteRelation.EQUALS).build().compile();
+		assertTrue(afterDate.test(note));
+		assertTrue(beforeDate.test(note));
+		assertFalse(equalDate.test(note));
+		assertFalse(afterDate.test(noDates));
+	}
+}
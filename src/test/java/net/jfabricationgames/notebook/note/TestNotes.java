@@ -0,0 +1,34 @@
+package net.jfabricationgames.notebook.note;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Creates the notes for the tests (with an id, like the notes that were read from the database).
+ *
+ * @author Tobias Faßbender
+ */
+public final class TestNotes {
+	
+	public static Note createNote(int id) {
+		return createNote(id, 1);
+	}
+	
+	/**
+	 * Create a note with the headline "headline &lt;id&gt;", the text "text" and without reminder dates.
+	 */
+	public static Note createNote(int id, int priority, LocalDateTime... executionDates) {
+		return createNote(id, "headline " + id, "text", priority, executionDates);
+	}
+	
+	public static Note createNote(int id, String headline, String text) {
+		return createNote(id, headline, text, 1);
+	}
+	
+	public static Note createNote(int id, String headline, String text, int priority, LocalDateTime... executionDates) {
+		Note note = new Note(headline, text, priority, Arrays.asList(executionDates), Collections.emptyList());
+		note.setId(id);
+		return note;
+	}
+}
@@ -0,0 +1,148 @@
+package net.jfabricationgames.notebook.search;
+
+import static net.jfabricationgames.notebook.note.TestNotes.createNote;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class NoteSearchIndexTest {
+	
+	@TempDir
+	public Path directory;
+	
+	private static List<Integer> search(NoteSearchIndex index, String query) {
+		return index.search(query, 10).stream().map(NoteSearchIndex.Hit::getNoteId).collect(Collectors.toList());
+	}
+	
+	private static NoteSearchIndex createIndex(Path directory, int mergeDocuments, Executor mergeExecutor) {
+		NoteSearchIndex index = new NoteSearchIndex(directory, mergeDocuments, mergeExecutor);
+		index.update(createNote(1, "Shopping", "Buy milk and bread"));
+		index.update(createNote(2, "Milk", "Milk, milk and more milk"));
+		index.update(createNote(3, "Work", "Prepare the meeting about the new project"));
+		index.update(createNote(4, "Caf\u00e9", "Meet Anna in the caf\u00e9"));
+		return index;
+	}
+	
+	@Test
+	public void testAnalyze() {
+		assertEquals(Arrays.asList("meet", "anna", "cafe", "42"), new NoteAnalyzer().analyze("Meet Anna in the Caf\u00e9 (42)!"));
+	}
+	
+	@Test
+	public void testSearch() throws IOException {
+		NoteSearchIndex index = createIndex(directory, 100, Runnable::run);
+		
+		//the note that contains the term more often is ranked higher
+		assertEquals(Arrays.asList(2, 1), search(index, "milk"));
+		assertEquals(Arrays.asList(4), search(index, "cafe"));
+		//a rare term (project) is more relevant than a frequent term (milk)
+		assertEquals(Arrays.asList(2, 3, 1), search(index, "milk project"));
+		assertTrue(search(index, "the").isEmpty());
+		assertEquals(1, index.search("milk project", 1).size());
+		
+		index.update(createNote(2, "Tea", "Green tea"));
+		index.delete(3);
+		assertEquals(Arrays.asList(1), search(index, "milk project"));
+		assertEquals(Arrays.asList(2), search(index, "tea"));
+		assertEquals(3, index.size());
+	}
+	
+	@Test
+	public void testMergeAndReopen() throws IOException {
+		//the index is merged into a segment file after every second note
+		NoteSearchIndex index = createIndex(directory, 2, Runnable::run);
+		index.update(createNote(1, "Shopping", "Buy bread"));
+		assertEquals(Arrays.asList(2), search(index, "milk"));
+		
+		IndexFingerprint fingerprint = new IndexFingerprint(4, 4, 42);
+		index.save(fingerprint);
+		
+		NoteSearchIndex reopened = new NoteSearchIndex(directory, 2);
+		assertFalse(reopened.open(new IndexFingerprint(4, 4, 43)));
+		assertTrue(reopened.open(fingerprint));
+		assertEquals(4, reopened.size());
+		assertEquals(Arrays.asList(2), search(reopened, "milk"));
+		assertEquals(Arrays.asList(1), search(reopened, "bread"));
+		assertEquals(search(index, "meeting project cafe"), search(reopened, "meeting project cafe"));
+	}
+	
+	@Test
+	public void testMergeInBackground() throws IOException {
+		List<Runnable> merges = new ArrayList<Runnable>();
+		NoteSearchIndex index = createIndex(directory, 2, merges::add);
+		
+		//the merge is only scheduled by the update (once, until it's executed)
+		assertEquals(1, merges.size());
+		assertFalse(Files.exists(directory.resolve(NoteSearchIndex.SEGMENT_FILE_NAME)));
+		assertEquals(Arrays.asList(2, 1), search(index, "milk"));
+		
+		merges.remove(0).run();
+		assertTrue(Files.exists(directory.resolve(NoteSearchIndex.SEGMENT_FILE_NAME)));
+		assertEquals(Arrays.asList(2, 1), search(index, "milk"));
+		assertEquals(4, index.size());
+		
+		index.update(createNote(5, "Milk", "Buy milk"));
+		index.update(createNote(6, "Tea", "Buy tea"));
+		assertEquals(1, merges.size());
+	}
+	
+	@Test
+	public void testChangesWhileMerging() throws IOException {
+		NoteSearchIndex index = createIndex(directory, 100, Runnable::run);
+		NoteSearchIndex.MergeSnapshot snapshot = index.snapshot();
+		
+		//the changes while the segment file is written are applied to the merged segment
+		index.update(createNote(2, "Tea", "Green tea"));
+		index.delete(3);
+		index.update(createNote(5, "Milk", "Buy milk"));
+		index.update(createNote(6, "Tea", "Drink tea"));
+		index.delete(6);
+		index.merge(snapshot, null);
+		
+		assertEquals(4, index.size());
+		assertEquals(Arrays.asList(5, 1), search(index, "milk"));
+		assertEquals(Arrays.asList(2), search(index, "tea"));
+		assertTrue(search(index, "project drink").isEmpty());
+		
+		//the scores are the same as the scores of an index that only contains the current notes
+		NoteSearchIndex expected = new NoteSearchIndex(directory.resolve("expected"), 100, Runnable::run);
+		expected.update(createNote(1, "Shopping", "Buy milk and bread"));
+		expected.update(createNote(2, "Tea", "Green tea"));
+		expected.update(createNote(4, "Caf\u00e9", "Meet Anna in the caf\u00e9"));
+		expected.update(createNote(5, "Milk", "Buy milk"));
+		assertEquals(expected.search("milk tea cafe buy", 10).toString(), index.search("milk tea cafe buy", 10).toString());
+		
+		IndexFingerprint fingerprint = new IndexFingerprint(4, 6, 42);
+		index.save(fingerprint);
+		NoteSearchIndex reopened = new NoteSearchIndex(directory, 100);
+		assertTrue(reopened.open(fingerprint));
+		assertEquals(expected.search("milk tea cafe buy", 10).toString(), reopened.search("milk tea cafe buy", 10).toString());
+	}
+	
+	@Test
+	public void testScoreOfDeletedDocuments() {
+		NoteSearchIndex index = createIndex(directory, 100, Runnable::run);
+		index.update(createNote(5, "Milk", "Buy milk"));
+		index.update(createNote(6, "Milk", "Drink milk"));
+		index.delete(1);
+		index.delete(5);
+		index.delete(6);
+		
+		//the deleted documents still contain the term, but they mussn't make the score negative
+		List<NoteSearchIndex.Hit> hits = index.search("milk", 10);
+		assertEquals(1, hits.size());
+		assertTrue(hits.get(0).getScore() > 0, "score: " + hits.get(0).getScore());
+	}
+}
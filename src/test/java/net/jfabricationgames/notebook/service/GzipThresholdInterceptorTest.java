@@ -0,0 +1,132 @@
+package net.jfabricationgames.notebook.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+import org.junit.jupiter.api.Test;
+
+class GzipThresholdInterceptorTest {
+	
+	private static byte[] write(byte[] content, MultivaluedMap<String, Object> headers) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		GzipThresholdInterceptor.ThresholdGzipOutputStream stream = new GzipThresholdInterceptor.ThresholdGzipOutputStream(out, headers, 100);
+		//write in small parts (like a JSON generator)
+		for (int i = 0; i < content.length; i += 30) {
+			stream.write(content, i, Math.min(30, content.length - i));
+		}
+		stream.finish();
+		return out.toByteArray();
+	}
+	
+	private static byte[] gunzip(byte[] compressed) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+			byte[] buffer = new byte[1024];
+			for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+				out.write(buffer, 0, read);
+			}
+		}
+		return out.toByteArray();
+	}
+	
+	@Test
+	public void testThreshold() throws IOException {
+		byte[] small = new byte[100];
+		byte[] large = new byte[1000];
+		Arrays.fill(small, (byte) 'a');
+		Arrays.fill(large, (byte) 'b');
+		
+		//up to the threshold the content is written uncompressed
+		MultivaluedMap<String, Object> headers = new MultivaluedHashMap<String, Object>();
+		assertArrayEquals(small, write(small, headers));
+		assertNull(headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+		
+		headers = new MultivaluedHashMap<String, Object>();
+		byte[] compressed = write(large, headers);
+		assertEquals("gzip", headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertTrue(compressed.length < large.length);
+		assertArrayEquals(large, gunzip(compressed));
+	}
+	
+	@Test
+	public void testAcceptsGzip() {
+		assertTrue(GzipThresholdInterceptor.acceptsGzip(Collections.singletonList("gzip, deflate")));
+		assertTrue(GzipThresholdInterceptor.acceptsGzip(Arrays.asList("deflate", "GZIP;q=0.5")));
+		assertFalse(GzipThresholdInterceptor.acceptsGzip(Collections.singletonList("gzip;q=0")));
+		assertFalse(GzipThresholdInterceptor.acceptsGzip(Collections.singletonList("deflate, br")));
+		assertFalse(GzipThresholdInterceptor.acceptsGzip(null));
+	}
+	
+	@Test
+	public void testFlushAfterThreshold() throws IOException {
+		byte[] content = new byte[1000];
+		Arrays.fill(content, (byte) 'c');
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		GzipThresholdInterceptor.ThresholdGzipOutputStream stream = new GzipThresholdInterceptor.ThresholdGzipOutputStream(out,
+				new MultivaluedHashMap<String, Object>(), 100);
+		stream.write(content, 0, content.length);
+		stream.flush();
+		
+		//the flushed part can be decompressed before the stream is finished (e.g. the first notes of a streamed response)
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+			byte[] flushed = new byte[content.length];
+			int read = 0;
+			while (read < flushed.length) {
+				read += in.read(flushed, read, flushed.length - read);
+			}
+			assertArrayEquals(content, flushed);
+		}
+	}
+	
+	@Test
+	public void testFailedResponseIsNotFinished() {
+		byte[] content = new byte[1000];
+		Arrays.fill(content, (byte) 'd');
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		MultivaluedMap<String, Object> headers = new MultivaluedHashMap<String, Object>();
+		OutputStream[] outputStream = new OutputStream[] {out};
+		WriterInterceptorContext context = (WriterInterceptorContext) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] {WriterInterceptorContext.class}, (proxy, method, args) -> {
+					switch (method.getName()) {
+						case "getOutputStream":
+							return outputStream[0];
+						case "setOutputStream":
+							outputStream[0] = (OutputStream) args[0];
+							return null;
+						case "getHeaders":
+							return headers;
+						case "proceed":
+							//the serialization fails after a part of the response was written
+							outputStream[0].write(content);
+							//the serializer closes the stream after the error (like a JsonGenerator)
+							outputStream[0].close();
+							throw new IOException("serialization failed");
+						default:
+							return null;
+					}
+				});
+		
+		assertThrows(IOException.class, () -> GzipThresholdInterceptor.proceedCompressed(context, 100));
+		//the response has no gzip trailer, so the client notices that it's incomplete
+		assertThrows(EOFException.class, () -> gunzip(out.toByteArray()));
+	}
+}
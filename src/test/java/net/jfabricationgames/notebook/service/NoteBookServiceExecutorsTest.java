@@ -0,0 +1,71 @@
+package net.jfabricationgames.notebook.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import net.jfabricationgames.notebook.config.NoteBookConfiguration;
+
+class NoteBookServiceExecutorsTest {
+	
+	@AfterEach
+	public void shutdown() {
+		NoteBookServiceExecutors.shutdown();
+	}
+	
+	@Test
+	public void testBulkheads() throws InterruptedException {
+		ExecutorService getNotes = NoteBookServiceExecutors.getMethodExecutor(NoteBookServiceMethods.GET_NOTES);
+		ExecutorService createNote = NoteBookServiceExecutors.getMethodExecutor(NoteBookServiceMethods.CREATE_NOTE);
+		assertSame(getNotes, NoteBookServiceExecutors.getMethodExecutor(NoteBookServiceMethods.GET_NOTES));
+		assertNotSame(getNotes, createNote);
+		
+		NoteBookConfiguration configuration = NoteBookConfiguration.getInstance();
+		int threads = configuration.getInt("service.bulkhead.get_notes.threads", configuration.getInt("service.bulkhead.threads", 4));
+		int capacity = threads + configuration.getInt("service.bulkhead.get_notes.queueSize", configuration.getInt("service.bulkhead.queueSize", 20));
+		
+		//fill the bulkhead of get_notes with blocked requests
+		CountDownLatch blocked = new CountDownLatch(1);
+		try {
+			for (int i = 0; i < capacity - 1; i++) {
+				getNotes.execute(() -> {
+					try {
+						blocked.await();
+					}
+					catch (InterruptedException ie) {
+						Thread.currentThread().interrupt();
+					}
+				});
+			}
+			Future<?> lastRequest = getNotes.submit(() -> {});
+			//further requests of the method are rejected, but the other methods are not affected
+			assertThrows(RejectedExecutionException.class, () -> getNotes.execute(() -> {}));
+			CountDownLatch executed = new CountDownLatch(1);
+			createNote.execute(executed::countDown);
+			executed.await();
+			
+			//every thread started with one of the requests, the others are waiting
+			Map<String, Integer> statistics = NoteBookServiceExecutors.getBulkheadStatistics().get("get_notes");
+			assertEquals(capacity - threads, statistics.get("queuedRequests").intValue());
+			
+			//a cancelled request is removed from the queue, so a new request can take it's place
+			assertTrue(NoteBookServiceExecutors.cancel(getNotes, lastRequest));
+			assertEquals(capacity - threads - 1, NoteBookServiceExecutors.getBulkheadStatistics().get("get_notes").get("queuedRequests").intValue());
+			getNotes.execute(() -> {});
+		}
+		finally {
+			blocked.countDown();
+		}
+	}
+}
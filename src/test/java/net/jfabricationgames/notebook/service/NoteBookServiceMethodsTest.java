@@ -0,0 +1,40 @@
+package net.jfabricationgames.notebook.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import net.jfabricationgames.json_rpc.UnsupportedParameterException;
+import net.jfabricationgames.notebook.note.Note;
+
+class NoteBookServiceMethodsTest {
+	
+	@Test
+	public void testGetByMethodName() {
+		for (NoteBookServiceMethods method : NoteBookServiceMethods.values()) {
+			assertEquals(method, NoteBookServiceMethods.getByMethodName(method.getMethodName()));
+		}
+		assertEquals(Note.class, NoteBookServiceMethods.getParameterByMethodName("create_note"));
+		assertNull(NoteBookServiceMethods.getByMethodName("unknown_method"));
+		assertNull(NoteBookServiceMethods.getByMethodName(null));
+		assertNull(NoteBookServiceMethods.getParameterByMethodName("unknown_method"));
+	}
+	
+	@Test
+	public void testInvoke_illegalParameters() {
+		NoteBookServiceProvider provider = new NoteBookServiceProvider();
+		assertThrows(UnsupportedParameterException.class, () -> NoteBookServiceMethods.GET_NOTES.invoke(provider, null));
+		assertThrows(UnsupportedParameterException.class,
+				() -> NoteBookServiceMethods.GET_NOTES.invoke(provider, Collections.singletonMap("ids", "not a list")));
+		//the null note is rejected before the database is accessed
+		assertThrows(UnsupportedParameterException.class,
+				() -> NoteBookServiceMethods.CREATE_NOTES.invoke(provider, Arrays.asList(Collections.singletonMap("headline", "headline"), null)));
+		assertThrows(UnsupportedParameterException.class,
+				() -> NoteBookServiceMethods.CREATE_NOTES.invoke(provider, new Note[] {new Note("headline", "text", 1), null}));
+	}
+}
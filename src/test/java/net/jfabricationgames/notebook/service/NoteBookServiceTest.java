@@ -0,0 +1,173 @@
+package net.jfabricationgames.notebook.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import net.jfabricationgames.json_rpc.JsonRpcBatchRequest;
+import net.jfabricationgames.json_rpc.JsonRpcError;
+import net.jfabricationgames.json_rpc.JsonRpcErrorCode;
+import net.jfabricationgames.json_rpc.JsonRpcErrorResponse;
+import net.jfabricationgames.json_rpc.JsonRpcRequest;
+import net.jfabricationgames.notebook.config.NoteBookConfiguration;
+import net.jfabricationgames.notebook.note.Note;
+
+class NoteBookServiceTest {
+	
+	private final NoteBookService service = new NoteBookService();
+	private final CountDownLatch blocked = new CountDownLatch(1);
+	
+	@AfterEach
+	public void shutdown() {
+		blocked.countDown();
+		NoteBookServiceExecutors.shutdown();
+	}
+	
+	private static JsonRpcRequest createRequest(String id, String method, Object params) {
+		JsonRpcRequest request = new JsonRpcRequest();
+		request.setJsonRpc(NoteBookService.JSON_RPC);
+		request.setMethod(method);
+		request.setParams(params);
+		request.setId(id);
+		return request;
+	}
+	
+	private static HttpHeaders accept(MediaType mediaType) {
+		return (HttpHeaders) Proxy.newProxyInstance(NoteBookServiceTest.class.getClassLoader(), new Class<?>[] {HttpHeaders.class},
+				(proxy, method, args) -> method.getName().equals("getAcceptableMediaTypes") ? Collections.singletonList(mediaType) : null);
+	}
+	
+	private static int getErrorCode(Object entity) {
+		return ((JsonRpcError) ((JsonRpcErrorResponse) entity).getError()).getCode();
+	}
+	
+	/**
+	 * Occupy the threads of the bulkhead and the given number of places in it's queue with requests that wait until the test ends.
+	 */
+	private void block(ExecutorService bulkhead, int queuedRequests) {
+		ThreadPoolExecutor executor = (ThreadPoolExecutor) bulkhead;
+		for (int i = 0; i < executor.getMaximumPoolSize() + queuedRequests; i++) {
+			executor.execute(() -> {
+				try {
+					blocked.await();
+				}
+				catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+				}
+			});
+		}
+	}
+	
+	private void call(JsonRpcBatchRequest request, boolean transaction, MediaType accept, StubAsyncResponse asyncResponse) {
+		service.callJsonRpc(request, transaction, false, null, accept(accept), asyncResponse);
+	}
+	
+	private static JsonRpcBatchRequest single(JsonRpcRequest request) {
+		return new JsonRpcBatchRequest(Collections.singletonList(request), false);
+	}
+	
+	@Test
+	public void testCallJsonRpc_responseFormat() throws Exception {
+		StubAsyncResponse asyncResponse = new StubAsyncResponse();
+		//the missing parameter is reported without accessing the database
+		call(single(createRequest("1", "create_note", null)), false, PayloadFormat.CBOR.getMediaType(), asyncResponse);
+		
+		Response response = (Response) asyncResponse.getResponse();
+		assertEquals(PayloadFormat.CBOR.getMediaType(), response.getMediaType());
+		assertEquals(JsonRpcErrorCode.UNEXPECTED_PARAMETERS_ERROR.getCode(), getErrorCode(response.getEntity()));
+		//the request is executed by the bulkhead of it's method
+		assertTrue(asyncResponse.getResumingThread().startsWith("notebook-create_note-"), asyncResponse.getResumingThread());
+		assertEquals(NoteBookConfiguration.getInstance().getInt("service.requestTimeoutSeconds", 30), asyncResponse.getTimeoutSeconds());
+	}
+	
+	@Test
+	public void testCallJsonRpc_overloaded() throws Exception {
+		ExecutorService bulkhead = NoteBookServiceExecutors.getMethodExecutor(NoteBookServiceMethods.CREATE_NOTE);
+		block(bulkhead, ((ThreadPoolExecutor) bulkhead).getQueue().remainingCapacity());
+		
+		StubAsyncResponse asyncResponse = new StubAsyncResponse();
+		call(single(createRequest("1", "create_note", null)), false, MediaType.APPLICATION_JSON_TYPE, asyncResponse);
+		
+		//the request is rejected immediately (in the calling thread)
+		assertTrue(asyncResponse.isDone());
+		Response response = (Response) asyncResponse.getResponse();
+		assertEquals(MediaType.APPLICATION_JSON_TYPE, response.getMediaType());
+		assertEquals(JsonRpcErrorCode.SERVICE_OVERLOADED_ERROR.getCode(), getErrorCode(response.getEntity()));
+	}
+	
+	@Test
+	public void testCallJsonRpc_timeout() throws Exception {
+		ExecutorService bulkhead = NoteBookServiceExecutors.getMethodExecutor(NoteBookServiceMethods.CREATE_NOTE);
+		int queueSize = ((ThreadPoolExecutor) bulkhead).getQueue().remainingCapacity();
+		block(bulkhead, queueSize - 1);
+		
+		StubAsyncResponse asyncResponse = new StubAsyncResponse();
+		call(single(createRequest("1", "create_note", null)), false, MediaType.APPLICATION_JSON_TYPE, asyncResponse);
+		assertFalse(asyncResponse.isDone());
+		assertEquals(queueSize, ((ThreadPoolExecutor) bulkhead).getQueue().size());
+		
+		asyncResponse.timeout();
+		Response response = (Response) asyncResponse.getResponse();
+		assertEquals(JsonRpcErrorCode.REQUEST_TIMEOUT_ERROR.getCode(), getErrorCode(response.getEntity()));
+		assertEquals(MediaType.APPLICATION_JSON_TYPE, response.getMediaType());
+		
+		//the timed out request doesn't take the place of a new request
+		assertEquals(queueSize - 1, ((ThreadPoolExecutor) bulkhead).getQueue().size());
+		StubAsyncResponse nextResponse = new StubAsyncResponse();
+		call(single(createRequest("2", "create_note", null)), false, MediaType.APPLICATION_JSON_TYPE, nextResponse);
+		assertFalse(nextResponse.isDone());
+	}
+	
+	@Test
+	public void testCallJsonRpc_transactionBatch() throws Exception {
+		//the second request is invalid, so the transaction is not started (and the database is not accessed)
+		List<JsonRpcRequest> requests = Arrays.asList(createRequest("1", "create_note", new Note("headline", "text", 1)),
+				createRequest("2", "create_note", null));
+		StubAsyncResponse asyncResponse = new StubAsyncResponse();
+		call(new JsonRpcBatchRequest(requests, true), true, MediaType.APPLICATION_JSON_TYPE, asyncResponse);
+		
+		Response response = (Response) asyncResponse.getResponse();
+		List<?> responses = (List<?>) response.getEntity();
+		assertEquals(JsonRpcErrorCode.TRANSACTION_ROLLED_BACK_ERROR.getCode(), getErrorCode(responses.get(0)));
+		assertEquals(JsonRpcErrorCode.UNEXPECTED_PARAMETERS_ERROR.getCode(), getErrorCode(responses.get(1)));
+		//the whole batch (and the transaction, that is bound to the thread) is executed by one thread of the batch bulkhead
+		assertTrue(asyncResponse.getResumingThread().startsWith("notebook-batch-"), asyncResponse.getResumingThread());
+	}
+	
+	@Test
+	public void testCallJsonRpc_notifications() throws Exception {
+		//the requests fail without accessing the database, but only the request with an id is answered
+		List<JsonRpcRequest> requests = Arrays.asList(createRequest(null, "create_note", null), createRequest("2", "create_note", null),
+				createRequest(null, "unknown_method", null));
+		StubAsyncResponse asyncResponse = new StubAsyncResponse();
+		call(new JsonRpcBatchRequest(requests, true), false, MediaType.APPLICATION_JSON_TYPE, asyncResponse);
+		
+		List<?> responses = (List<?>) ((Response) asyncResponse.getResponse()).getEntity();
+		assertEquals(1, responses.size());
+		assertEquals("2", ((JsonRpcErrorResponse) responses.get(0)).getId());
+		
+		//a batch of notifications is answered without content
+		StubAsyncResponse notificationsResponse = new StubAsyncResponse();
+		call(new JsonRpcBatchRequest(Arrays.asList(createRequest(null, "create_note", null), createRequest(null, "unknown_method", null)), true),
+				false, MediaType.APPLICATION_JSON_TYPE, notificationsResponse);
+		
+		Response response = (Response) notificationsResponse.getResponse();
+		assertEquals(Response.Status.NO_CONTENT.getStatusCode(), response.getStatus());
+		assertFalse(response.hasEntity());
+	}
+}
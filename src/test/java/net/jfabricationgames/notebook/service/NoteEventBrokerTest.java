@@ -0,0 +1,156 @@
+package net.jfabricationgames.notebook.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import net.jfabricationgames.notebook.config.NoteBookConfiguration;
+import net.jfabricationgames.notebook.db.NoteChangeType;
+import net.jfabricationgames.notebook.note.NoteEvent;
+import net.jfabricationgames.notebook.note.NoteEventBatch;
+import net.jfabricationgames.notebook.note.NoteEventType;
+
+class NoteEventBrokerTest {
+	
+	private static Map<Integer, NoteChangeType> changes(int firstId, NoteChangeType type, int count) {
+		Map<Integer, NoteChangeType> changes = new HashMap<Integer, NoteChangeType>();
+		for (int i = 0; i < count; i++) {
+			changes.put(firstId + i, type);
+		}
+		return changes;
+	}
+	
+	@Test
+	public void testSubscribe() throws InterruptedException {
+		NoteEventBroker broker = new NoteEventBroker(NoteBookConfiguration.getInstance(), 0);
+		try {
+			BlockingQueue<NoteEvent> received = new LinkedBlockingQueue<NoteEvent>();
+			broker.subscribe(received::add, null);
+			
+			Map<Integer, NoteChangeType> changes = changes(1, NoteChangeType.CREATED, 2);
+			changes.put(5, NoteChangeType.DELETED);
+			broker.notesCommitted(changes);
+			
+			//the events are ordered by the note ids and numbered by the broker
+			for (int expectedId : Arrays.asList(1, 2, 5)) {
+				NoteEvent event = received.poll(5, TimeUnit.SECONDS);
+				assertNotNull(event);
+				assertEquals(expectedId, event.getNoteId().intValue());
+				assertEquals(expectedId == 5 ? NoteEventType.NOTE_DELETED : NoteEventType.NOTE_CREATED, event.getType());
+			}
+			
+			//a reconnecting subscriber receives the events after it's last event id
+			BlockingQueue<NoteEvent> replayed = new LinkedBlockingQueue<NoteEvent>();
+			broker.subscribe(replayed::add, 2L);
+			NoteEvent event = replayed.poll(5, TimeUnit.SECONDS);
+			assertNotNull(event);
+			assertEquals(3, event.getSequence());
+			assertEquals(5, event.getNoteId().intValue());
+			
+			assertEquals(2, broker.getSubscriberCount());
+		}
+		finally {
+			broker.stop();
+		}
+	}
+	
+	@Test
+	public void testPoll() throws InterruptedException {
+		NoteEventBroker broker = new NoteEventBroker(NoteBookConfiguration.getInstance(), 0);
+		try {
+			CountDownLatch dispatched = new CountDownLatch(1);
+			NoteEventBroker.Subscription subscription = broker.subscribe(event -> {
+				dispatched.countDown();
+				return true;
+			}, null);
+			broker.notesCommitted(changes(1, NoteChangeType.UPDATED, 1));
+			assertTrue(dispatched.await(5, TimeUnit.SECONDS));
+			subscription.cancel();
+			
+			//a poll without a sequence is answered immediately with the current sequence
+			BlockingQueue<NoteEventBatch> responses = new LinkedBlockingQueue<NoteEventBatch>();
+			broker.poll(null, responses::add);
+			NoteEventBatch current = responses.poll(5, TimeUnit.SECONDS);
+			assertNotNull(current);
+			assertTrue(current.getEvents().isEmpty());
+			assertEquals(1, current.getLastSequence());
+			
+			//a poll after the current sequence waits for the next events
+			NoteEventBroker.Poll poll = broker.poll(current.getLastSequence(), responses::add);
+			assertEquals(1, broker.getSubscriberCount());
+			broker.notesCommitted(changes(7, NoteChangeType.DELETED, 1));
+			NoteEventBatch batch = responses.poll(5, TimeUnit.SECONDS);
+			assertNotNull(batch);
+			assertEquals(1, batch.getEvents().size());
+			assertEquals(7, batch.getEvents().get(0).getNoteId().intValue());
+			assertEquals(2, batch.getLastSequence());
+			assertFalse(batch.isEventsMissed());
+			//the response was already sent, so a timeout mussn't send another response
+			assertFalse(poll.cancel());
+		}
+		finally {
+			broker.stop();
+		}
+	}
+	
+	@Test
+	public void testEventsMissed() throws InterruptedException {
+		NoteEventBroker broker = new NoteEventBroker(NoteBookConfiguration.getInstance(), 0);
+		try {
+			int historySize = NoteBookConfiguration.getInstance().getInt("events.historySize", 10000);
+			broker.notesCommitted(changes(1, NoteChangeType.CREATED, historySize + 10));
+			
+			BlockingQueue<NoteEventBatch> responses = new LinkedBlockingQueue<NoteEventBatch>();
+			broker.poll(0L, responses::add);
+			NoteEventBatch batch = responses.poll(5, TimeUnit.SECONDS);
+			assertNotNull(batch);
+			assertTrue(batch.isEventsMissed());
+			assertEquals(historySize + 10, batch.getLastSequence());
+		}
+		finally {
+			broker.stop();
+		}
+	}
+	
+	@Test
+	public void testEventsMissedAfterRestart() throws InterruptedException {
+		//the sequences of the restarted broker start after the sequences of the previous start
+		NoteEventBroker broker = new NoteEventBroker(NoteBookConfiguration.getInstance(), 1000);
+		try {
+			broker.notesCommitted(changes(1, NoteChangeType.CREATED, 1));
+			
+			//a sequence of the previous start is not in the history
+			BlockingQueue<NoteEventBatch> responses = new LinkedBlockingQueue<NoteEventBatch>();
+			broker.poll(5L, responses::add);
+			NoteEventBatch batch = responses.poll(5, TimeUnit.SECONDS);
+			assertNotNull(batch);
+			assertTrue(batch.isEventsMissed());
+			
+			//a sequence after the current one is not waited for
+			broker.poll(5000L, responses::add);
+			batch = responses.poll(5, TimeUnit.SECONDS);
+			assertNotNull(batch);
+			assertTrue(batch.isEventsMissed());
+			
+			BlockingQueue<NoteEvent> received = new LinkedBlockingQueue<NoteEvent>();
+			broker.subscribe(received::add, 5000L);
+			NoteEvent event = received.poll(5, TimeUnit.SECONDS);
+			assertNotNull(event);
+			assertEquals(NoteEventType.EVENTS_MISSED, event.getType());
+		}
+		finally {
+			broker.stop();
+		}
+	}
+}
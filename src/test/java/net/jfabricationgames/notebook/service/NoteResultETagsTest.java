@@ -0,0 +1,47 @@
+package net.jfabricationgames.notebook.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import javax.ws.rs.core.EntityTag;
+
+import org.junit.jupiter.api.Test;
+
+import net.jfabricationgames.notebook.note.NoteRelation;
+import net.jfabricationgames.notebook.note.NoteSelector;
+import net.jfabricationgames.notebook.note.NoteSelectorBuilder;
+
+class NoteResultETagsTest {
+	
+	@Test
+	public void testCreateETag() {
+		NoteSelector selector = new NoteSelectorBuilder().setIds(Arrays.asList(3, 1, 2)).setIdRelation(NoteRelation.IN).build();
+		NoteSelector equivalentSelector = new NoteSelectorBuilder().setIds(Arrays.asList(1, 2, 3, 3)).setIdRelation(NoteRelation.IN).build();
+		NoteSelector otherSelector = new NoteSelectorBuilder().setIds(Arrays.asList(1, 2)).setIdRelation(NoteRelation.IN).build();
+		
+		//the ETag depends on the canonical selector, the write version and the format
+		EntityTag eTag = NoteResultETags.createETag(5, selector, PayloadFormat.JSON);
+		assertEquals(eTag, NoteResultETags.createETag(5, equivalentSelector, PayloadFormat.JSON));
+		assertNotEquals(eTag, NoteResultETags.createETag(6, selector, PayloadFormat.JSON));
+		assertNotEquals(eTag, NoteResultETags.createETag(5, otherSelector, PayloadFormat.JSON));
+		assertNotEquals(eTag, NoteResultETags.createETag(5, selector, PayloadFormat.CBOR));
+	}
+	
+	@Test
+	public void testMatches() {
+		EntityTag eTag = NoteResultETags.createETag(1, NoteSelector.empty(), PayloadFormat.JSON);
+		String quoted = "\"" + eTag.getValue() + "\"";
+		
+		assertTrue(NoteResultETags.matches(quoted, eTag));
+		assertTrue(NoteResultETags.matches("W/" + quoted, eTag));
+		assertTrue(NoteResultETags.matches("\"other\", W/" + quoted, eTag));
+		assertTrue(NoteResultETags.matches("*", eTag));
+		assertFalse(NoteResultETags.matches(null, eTag));
+		assertFalse(NoteResultETags.matches("\"other\"", eTag));
+		assertFalse(NoteResultETags.matches(eTag.getValue(), eTag));
+	}
+}
@@ -0,0 +1,124 @@
+package net.jfabricationgames.notebook.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import net.jfabricationgames.json_rpc.JsonRpcRequest;
+import net.jfabricationgames.json_rpc.JsonRpcResponse;
+import net.jfabricationgames.notebook.note.Note;
+
+/**
+ * Compares the time to encode a get_notes response and to decode a create_notes request in the {@link PayloadFormat}s (and in JSON with
+ * gzip). The sizes of the encoded responses are logged when the benchmark of a format and size is set up.
+ * <p>
+ * The benchmark is not executed by the tests. Run the main method (after mvn test-compile) to execute it.
+ *
+ * @author Tobias Faßbender
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadFormatBenchmark {
+	
+	private static final Logger LOGGER = LogManager.getLogger(PayloadFormatBenchmark.class);
+	
+	private static final LocalDateTime DATE = LocalDateTime.of(2019, 5, 1, 12, 0);
+	
+	@Param({"JSON", "JSON_GZIP", "SMILE", "CBOR", "MESSAGE_PACK"})
+	private String encoding;
+	
+	@Param({"100", "10000"})
+	private int size;
+	
+	private ObjectMapper mapper;
+	private boolean gzip;
+	private JsonRpcResponse response;
+	private byte[] encodedRequest;
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(PayloadFormatBenchmark.class.getSimpleName()).build()).run();
+	}
+	
+	@Setup
+	public void setup() throws IOException {
+		gzip = encoding.endsWith("_GZIP");
+		mapper = PayloadFormat.valueOf(gzip ? "JSON" : encoding).getObjectMapper();
+		
+		Random random = new Random(42);
+		List<Note> notes = new ArrayList<Note>(size);
+		for (int id = 1; id <= size; id++) {
+			Note note = new Note("headline " + id, "the text of the note " + id, random.nextInt(10),
+					Arrays.asList(DATE.plusHours(random.nextInt(1000)), DATE.plusHours(random.nextInt(1000))),
+					Collections.singletonList(DATE.plusMinutes(random.nextInt(10000))));
+			note.setId(id);
+			notes.add(note);
+		}
+		response = new JsonRpcResponse();
+		response.setJsonRpc(NoteBookService.JSON_RPC);
+		response.setId("42");
+		response.setResult(notes);
+		
+		JsonRpcRequest request = new JsonRpcRequest();
+		request.setJsonRpc(NoteBookService.JSON_RPC);
+		request.setMethod("create_notes");
+		request.setParams(notes);
+		request.setId("42");
+		encodedRequest = encode(request);
+		
+		LOGGER.info(size + " notes as " + encoding + ": " + encode(response).length + " bytes");
+	}
+	
+	private byte[] encode(Object value) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (OutputStream out = gzip ? new GZIPOutputStream(bytes) : bytes) {
+			mapper.writeValue(out, value);
+		}
+		return bytes.toByteArray();
+	}
+	
+	@Benchmark
+	public byte[] encodeResponse() throws IOException {
+		return encode(response);
+	}
+	
+	@Benchmark
+	public JsonRpcRequest decodeRequest() throws IOException {
+		try (InputStream in = gzip ? new GZIPInputStream(new ByteArrayInputStream(encodedRequest)) : new ByteArrayInputStream(encodedRequest)) {
+			return mapper.readValue(in, JsonRpcRequest.class);
+		}
+	}
+}
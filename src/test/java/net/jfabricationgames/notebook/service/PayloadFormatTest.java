@@ -0,0 +1,67 @@
+package net.jfabricationgames.notebook.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.ws.rs.core.MediaType;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import net.jfabricationgames.json_rpc.JsonRpcBatchRequest;
+import net.jfabricationgames.json_rpc.JsonRpcRequest;
+import net.jfabricationgames.notebook.note.Note;
+import net.jfabricationgames.notebook.note.NoteRelation;
+import net.jfabricationgames.notebook.note.NoteSelector;
+import net.jfabricationgames.notebook.note.NoteSelectorBuilder;
+
+class PayloadFormatTest {
+	
+	private static JsonRpcRequest createRequest(String method, Object params) {
+		JsonRpcRequest request = new JsonRpcRequest();
+		request.setJsonRpc(NoteBookService.JSON_RPC);
+		request.setMethod(method);
+		request.setParams(params);
+		request.setId("42");
+		return request;
+	}
+	
+	@Test
+	public void testForMediaType() {
+		assertEquals(PayloadFormat.JSON, PayloadFormat.forMediaType(MediaType.valueOf("application/json; charset=UTF-8")));
+		assertEquals(PayloadFormat.SMILE, PayloadFormat.forMediaType(MediaType.valueOf(PayloadFormat.APPLICATION_SMILE)));
+		assertEquals(PayloadFormat.CBOR, PayloadFormat.forMediaType(MediaType.valueOf(PayloadFormat.APPLICATION_CBOR)));
+		assertEquals(PayloadFormat.MESSAGE_PACK, PayloadFormat.forMediaType(MediaType.valueOf(PayloadFormat.APPLICATION_MESSAGE_PACK)));
+		//wildcards don't select a format
+		assertNull(PayloadFormat.forMediaType(MediaType.WILDCARD_TYPE));
+		assertNull(PayloadFormat.forMediaType(MediaType.valueOf("application/*")));
+		assertNull(PayloadFormat.forMediaType(MediaType.TEXT_PLAIN_TYPE));
+	}
+	
+	@Test
+	public void testRoundTrip() throws IOException {
+		NoteSelector selector = new NoteSelectorBuilder().addIds(Arrays.asList(1, 2)).setIdRelation(NoteRelation.IN).build();
+		Note note = new Note("headline", "text", 3, Arrays.asList(LocalDateTime.of(2019, 5, 1, 12, 30)), Collections.emptyList());
+		
+		for (PayloadFormat format : PayloadFormat.values()) {
+			ObjectMapper mapper = format.getObjectMapper();
+			
+			//the params are bound to the parameter type of the method in every format
+			byte[] selectorRequest = mapper.writeValueAsBytes(createRequest("get_notes", selector));
+			assertEquals(selector, mapper.readValue(selectorRequest, JsonRpcRequest.class).getParams(), format.name());
+			
+			byte[] notesRequest = mapper.writeValueAsBytes(Arrays.asList(createRequest("create_notes", new Note[] {note})));
+			JsonRpcBatchRequest batch = mapper.readValue(notesRequest, JsonRpcBatchRequest.class);
+			assertTrue(batch.isBatch());
+			assertArrayEquals(new Note[] {note}, (Note[]) batch.getRequests().get(0).getParams(), format.name());
+		}
+	}
+}
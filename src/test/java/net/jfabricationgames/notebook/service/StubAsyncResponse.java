@@ -0,0 +1,124 @@
+package net.jfabricationgames.notebook.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.TimeoutHandler;
+
+/**
+ * An AsyncResponse for tests, that completes a future with the response (and remembers the thread that resumed it). The timeout is not
+ * scheduled; it's triggered by {@link #timeout()}.
+ *
+ * @author Tobias Faßbender
+ */
+class StubAsyncResponse implements AsyncResponse {
+	
+	private final CompletableFuture<Object> response = new CompletableFuture<Object>();
+	private volatile String resumingThread;
+	private volatile TimeoutHandler timeoutHandler;
+	private volatile long timeoutSeconds;
+	
+	/**
+	 * Wait for the response (or fail after 5 seconds).
+	 */
+	public Object getResponse() throws InterruptedException, ExecutionException, TimeoutException {
+		return response.get(5, TimeUnit.SECONDS);
+	}
+	
+	public String getResumingThread() {
+		return resumingThread;
+	}
+	
+	public long getTimeoutSeconds() {
+		return timeoutSeconds;
+	}
+	
+	/**
+	 * Let the request time out (by calling the timeout handler like the container does).
+	 */
+	public void timeout() {
+		timeoutHandler.handleTimeout(this);
+	}
+	
+	@Override
+	public boolean resume(Object response) {
+		if (this.response.isDone()) {
+			return false;
+		}
+		resumingThread = Thread.currentThread().getName();
+		return this.response.complete(response);
+	}
+	
+	@Override
+	public boolean resume(Throwable response) {
+		return resume((Object) response);
+	}
+	
+	@Override
+	public boolean cancel() {
+		return response.cancel(false);
+	}
+	
+	@Override
+	public boolean cancel(int retryAfter) {
+		return cancel();
+	}
+	
+	@Override
+	public boolean cancel(Date retryAfter) {
+		return cancel();
+	}
+	
+	@Override
+	public boolean isSuspended() {
+		return !response.isDone();
+	}
+	
+	@Override
+	public boolean isCancelled() {
+		return response.isCancelled();
+	}
+	
+	@Override
+	public boolean isDone() {
+		return response.isDone();
+	}
+	
+	@Override
+	public boolean setTimeout(long time, TimeUnit unit) {
+		timeoutSeconds = unit.toSeconds(time);
+		return isSuspended();
+	}
+	
+	@Override
+	public void setTimeoutHandler(TimeoutHandler handler) {
+		timeoutHandler = handler;
+	}
+	
+	@Override
+	public Collection<Class<?>> register(Class<?> callback) {
+		return Collections.emptyList();
+	}
+	
+	@Override
+	public Map<Class<?>, Collection<Class<?>>> register(Class<?> callback, Class<?>... callbacks) {
+		return Collections.emptyMap();
+	}
+	
+	@Override
+	public Collection<Class<?>> register(Object callback) {
+		return Collections.emptyList();
+	}
+	
+	@Override
+	public Map<Class<?>, Collection<Class<?>>> register(Object callback, Object... callbacks) {
+		return Collections.emptyMap();
+	}
+}